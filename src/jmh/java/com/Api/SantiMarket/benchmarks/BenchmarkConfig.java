@@ -0,0 +1,23 @@
+package com.Api.SantiMarket.benchmarks;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Configuración del perfil benchmark: cada corrida parte de una base vacía con el
+ * esquema de las migraciones, igual que en producción.
+ */
+@Configuration
+@Profile("benchmark")
+class BenchmarkConfig {
+
+    @Bean
+    FlywayMigrationStrategy limpiarYMigrar() {
+        return flyway -> {
+            flyway.clean();
+            flyway.migrate();
+        };
+    }
+}
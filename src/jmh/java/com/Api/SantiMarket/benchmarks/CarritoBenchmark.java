@@ -0,0 +1,80 @@
+package com.Api.SantiMarket.benchmarks;
+
+import com.Api.SantiMarket.Entities.CarritoCompras;
+import com.Api.SantiMarket.Entities.ProductoCarrito;
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Interfaces.ProductoCarritoInterface;
+import com.Api.SantiMarket.Service.ProductosCarritoService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alta y modificación de productos en un carrito (incluye la reserva de stock).
+ * El carrito tiene una cantidad fija de líneas; agregar un producto que ya está
+ * en el carrito suma cantidad sobre la línea existente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CarritoBenchmark {
+
+    @Param({"10000"})
+    public int productos;
+
+    @Param({"20"})
+    public int lineas;
+
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    private ContextoBenchmark contexto;
+    private ProductosCarritoService carritoService;
+    private ProductoCarritoInterface productoCarritoRepository;
+    private CarritoCompras carrito;
+    private List<ProductoCarrito> enCarrito;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar(productos);
+        carritoService = contexto.bean(ProductosCarritoService.class);
+        productoCarritoRepository = contexto.bean(ProductoCarritoInterface.class);
+
+        carrito = contexto.crearCarrito();
+        contexto.llenarCarrito(carrito, contexto.productoIds().subList(0, lineas), 1);
+        enCarrito = productoCarritoRepository.findByCarritoIdConProductos(carrito.getId());
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.cerrar();
+    }
+
+    @Benchmark
+    public ProductoCarrito saveProductoCarritoExistente() {
+        ProductoCarrito linea = enCarrito.get(random.nextInt(enCarrito.size()));
+        return carritoService.saveProductoCarrito(nuevaLinea(linea.getProducto().getId(), 1));
+    }
+
+    @Benchmark
+    public ProductoCarrito updateProductoCarrito() {
+        ProductoCarrito linea = enCarrito.get(random.nextInt(enCarrito.size()));
+        return carritoService.updateProductoCarrito(linea.getId(),
+                nuevaLinea(linea.getProducto().getId(), 1 + random.nextInt(5)));
+    }
+
+    private ProductoCarrito nuevaLinea(Integer productoId, int cantidad) {
+        Productos producto = new Productos();
+        producto.setId(productoId);
+
+        ProductoCarrito pc = new ProductoCarrito();
+        pc.setCarrito(carrito);
+        pc.setProducto(producto);
+        pc.setCantidad(cantidad);
+        return pc;
+    }
+}
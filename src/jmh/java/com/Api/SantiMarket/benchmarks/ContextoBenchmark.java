@@ -0,0 +1,141 @@
+package com.Api.SantiMarket.benchmarks;
+
+import com.Api.SantiMarket.Entities.CarritoCompras;
+import com.Api.SantiMarket.Entities.ProductoCarrito;
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Entities.Usuarios;
+import com.Api.SantiMarket.Interfaces.CarritoComprasInteraface;
+import com.Api.SantiMarket.Interfaces.ProductoCarritoInterface;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import com.Api.SantiMarket.Interfaces.UsuariosInterface;
+import com.Api.SantiMarket.SantiMarketApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Levanta la aplicación sin servidor web sobre la base de benchmarks (H2 en memoria
+ * por defecto) y siembra el catálogo. Cada clase de benchmark crea su propio contexto
+ * en el setup de la prueba y lo cierra al terminar.
+ */
+final class ContextoBenchmark {
+
+    private static final String[] CATEGORIAS = {
+            "almacen", "bebidas", "limpieza", "lacteos", "congelados", "perfumeria", "frutas", "panaderia"
+    };
+    private static final int TAMANIO_LOTE = 1000;
+
+    // Stock suficiente para que ningún benchmark se quede sin unidades
+    static final int STOCK_INICIAL = 1_000_000_000;
+
+    private final ConfigurableApplicationContext contexto;
+    private final List<Integer> productoIds = new ArrayList<>();
+
+    private ContextoBenchmark(ConfigurableApplicationContext contexto) {
+        this.contexto = contexto;
+    }
+
+    /**
+     * Inicia el contexto y siembra la cantidad de productos indicada.
+     *
+     * @param productos tamaño del catálogo
+     */
+    static ContextoBenchmark iniciar(int productos) {
+        return iniciar(productos, new String[0]);
+    }
+
+    /**
+     * Inicia el contexto con propiedades adicionales ("clave=valor", con prioridad sobre
+     * application-benchmark.properties) y siembra la cantidad de productos indicada.
+     */
+    static ContextoBenchmark iniciar(int productos, String... propiedades) {
+        String[] argumentos = new String[propiedades.length];
+        for (int i = 0; i < propiedades.length; i++) {
+            argumentos[i] = "--" + propiedades[i];
+        }
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(SantiMarketApplication.class)
+                .profiles("benchmark")
+                .run(argumentos);
+        ContextoBenchmark ctx = new ContextoBenchmark(contexto);
+        ctx.sembrarProductos(productos);
+        return ctx;
+    }
+
+    <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+
+    List<Integer> productoIds() {
+        return productoIds;
+    }
+
+    Integer productoAlAzar(SplittableRandom random) {
+        return productoIds.get(random.nextInt(productoIds.size()));
+    }
+
+    void cerrar() {
+        contexto.close();
+    }
+
+    /**
+     * Crea un usuario nuevo con su carrito vacío.
+     */
+    CarritoCompras crearCarrito() {
+        Usuarios usuario = new Usuarios();
+        usuario.setEmail(UUID.randomUUID() + "@benchmark.com");
+        usuario.setPasswordHash("benchmark");
+        usuario.setFechaRegistro(LocalDateTime.now());
+        usuario = bean(UsuariosInterface.class).save(usuario);
+
+        CarritoCompras carrito = new CarritoCompras();
+        carrito.setUsuario(usuario);
+        return bean(CarritoComprasInteraface.class).save(carrito);
+    }
+
+    /**
+     * Agrega líneas directamente por repositorio (sin reservas de stock) para
+     * preparar un carrito antes de medir.
+     */
+    void llenarCarrito(CarritoCompras carrito, List<Integer> productos, int cantidad) {
+        ProductosInterface productosRepository = bean(ProductosInterface.class);
+        List<ProductoCarrito> lineas = new ArrayList<>(productos.size());
+        for (Integer productoId : productos) {
+            ProductoCarrito pc = new ProductoCarrito();
+            pc.setCarrito(carrito);
+            pc.setProducto(productosRepository.getReferenceById(productoId));
+            pc.setCantidad(cantidad);
+            lineas.add(pc);
+        }
+        bean(ProductoCarritoInterface.class).saveAll(lineas);
+    }
+
+    private void sembrarProductos(int cantidad) {
+        ProductosInterface productosRepository = bean(ProductosInterface.class);
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime ahora = LocalDateTime.now();
+
+        List<Productos> lote = new ArrayList<>(TAMANIO_LOTE);
+        for (int i = 0; i < cantidad; i++) {
+            Productos p = new Productos();
+            p.setCodigo("SKU-" + i);
+            p.setNombre("Producto " + i);
+            p.setDescripcion("Descripción del producto " + i + " para pruebas de rendimiento");
+            p.setCategoria(CATEGORIAS[random.nextInt(CATEGORIAS.length)]);
+            p.setPrecio(1 + random.nextInt(100_000) / 100.0);
+            p.setImagen("https://cdn.santimarket.com/productos/" + i + ".jpg");
+            p.setFechaCreacion(ahora.minusMinutes(i));
+            p.setStock(STOCK_INICIAL);
+            lote.add(p);
+
+            if (lote.size() == TAMANIO_LOTE || i == cantidad - 1) {
+                productosRepository.saveAll(lote).forEach(guardado -> productoIds.add(guardado.getId()));
+                lote.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.Api.SantiMarket.benchmarks;
+
+import com.Api.SantiMarket.Entities.CarritoCompras;
+import com.Api.SantiMarket.Entities.Venta;
+import com.Api.SantiMarket.Service.StockFlashService;
+import com.Api.SantiMarket.Service.TicketService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pagos concurrentes de un único producto en promoción, con y sin modo flash
+ * (stock repartido en shards). Cada hilo paga su propio carrito de una línea.
+ * Para resultados representativos conviene correrlo contra Postgres (ver
+ * application-benchmark.properties): H2 bloquea filas de forma distinta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Threads(16)
+@Fork(1)
+public class HotSkuBenchmark {
+
+    @Param({"false", "true"})
+    public boolean modoFlash;
+
+    @Param({"16"})
+    public int shards;
+
+    private ContextoBenchmark contexto;
+    private TicketService ticketService;
+    private Integer productoId;
+
+    @State(Scope.Thread)
+    public static class Comprador {
+        CarritoCompras carrito;
+
+        @Setup(Level.Invocation)
+        public void llenarCarrito(HotSkuBenchmark benchmark) {
+            if (carrito == null) {
+                carrito = benchmark.contexto.crearCarrito();
+            }
+            benchmark.contexto.llenarCarrito(carrito, List.of(benchmark.productoId), 1);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar(100);
+        ticketService = contexto.bean(TicketService.class);
+        productoId = contexto.productoIds().get(0);
+        if (modoFlash) {
+            contexto.bean(StockFlashService.class).activar(productoId, shards);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.cerrar();
+    }
+
+    @Benchmark
+    public Venta realizarPago(Comprador comprador) {
+        return ticketService.realizarPago(comprador.carrito.getId(), comprador.carrito.getUsuario().getId());
+    }
+}
@@ -0,0 +1,125 @@
+package com.Api.SantiMarket.benchmarks;
+
+import com.Api.SantiMarket.Config.JsonStreaming;
+import com.Api.SantiMarket.Dto.VentaResumen;
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import com.Api.SantiMarket.Service.ProductosService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialización JSON de listas de productos y ventas. Compara el ObjectMapper que
+ * configura Spring para las respuestas HTTP (con Blackbird) contra uno equivalente
+ * que accede por reflexión, y el catálogo completo armado en memoria contra el
+ * escrito en streaming desde la base, con y sin gzip.
+ * <p>
+ * Para ver también lo que aloca cada variante: {@code -Djmh.args="JsonBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"1000", "50000"})
+    public int tamanio;
+
+    private ContextoBenchmark contexto;
+    private ObjectMapper objectMapper;
+    private ObjectMapper reflexivo;
+    private ProductosInterface productosRepository;
+    private StreamingResponseBody catalogo;
+    private List<Productos> productos;
+    private List<VentaResumen> ventas;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar(tamanio);
+        objectMapper = contexto.bean(ObjectMapper.class);
+        reflexivo = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        productosRepository = contexto.bean(ProductosInterface.class);
+        catalogo = contexto.bean(JsonStreaming.class)
+                .<Productos>arreglo(contexto.bean(ProductosService.class)::recorrerCatalogo)
+                .getBody();
+        productos = productosRepository.findPaginaPorId(null, 0, Double.MAX_VALUE, 0, Limit.of(tamanio));
+
+        ventas = new ArrayList<>(tamanio);
+        LocalDateTime ahora = LocalDateTime.now();
+        for (int i = 0; i < tamanio; i++) {
+            ventas.add(new VentaResumen(i + 1, "Compra online", "Pendiente", ahora,
+                    "Rosario", "Santa Fe", "Argentina", "tarjeta", 1000.0 + i, 1));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.cerrar();
+    }
+
+    // ============================================================
+    // LISTAS YA CARGADAS
+    // ============================================================
+
+    @Benchmark
+    public byte[] serializarProductos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(productos);
+    }
+
+    @Benchmark
+    public byte[] serializarProductosReflexion() throws JsonProcessingException {
+        return reflexivo.writeValueAsBytes(productos);
+    }
+
+    @Benchmark
+    public byte[] serializarVentas() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ventas);
+    }
+
+    @Benchmark
+    public byte[] serializarVentasReflexion() throws JsonProcessingException {
+        return reflexivo.writeValueAsBytes(ventas);
+    }
+
+    // ============================================================
+    // CATÁLOGO COMPLETO DESDE LA BASE
+    // ============================================================
+
+    // Como antes de los listados en streaming: toda la lista en memoria y después el JSON entero
+    @Benchmark
+    public byte[] catalogoEnMemoria() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(productosRepository.findAll());
+    }
+
+    @Benchmark
+    public void catalogoEnStreaming() throws IOException {
+        catalogo.writeTo(OutputStream.nullOutputStream());
+    }
+
+    // Lo que agrega server.compression cuando el cliente acepta gzip
+    @Benchmark
+    public void catalogoEnStreamingGzip() throws IOException {
+        try (GZIPOutputStream gzip = new GZIPOutputStream(OutputStream.nullOutputStream(), 8192)) {
+            catalogo.writeTo(gzip);
+        }
+    }
+}
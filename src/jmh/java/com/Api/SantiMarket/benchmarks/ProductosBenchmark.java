@@ -0,0 +1,54 @@
+package com.Api.SantiMarket.benchmarks;
+
+import com.Api.SantiMarket.Dto.ProductoDetalle;
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Service.ProductosService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura de productos por ID: con caché (getProductosById) y directo a la base
+ * (getProductosByIdConStockActual), sobre un catálogo sembrado de tamaño configurable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductosBenchmark {
+
+    @Param({"10000"})
+    public int productos;
+
+    private ContextoBenchmark contexto;
+    private ProductosService productosService;
+
+    @State(Scope.Thread)
+    public static class Azar {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar(productos);
+        productosService = contexto.bean(ProductosService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.cerrar();
+    }
+
+    @Benchmark
+    public ProductoDetalle getProductosById(Azar azar) {
+        return productosService.getProductosById(contexto.productoAlAzar(azar.random));
+    }
+
+    @Benchmark
+    public Productos getProductosByIdConStockActual(Azar azar) {
+        return productosService.getProductosByIdConStockActual(contexto.productoAlAzar(azar.random));
+    }
+}
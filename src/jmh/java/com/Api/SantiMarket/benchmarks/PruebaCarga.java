@@ -0,0 +1,170 @@
+package com.Api.SantiMarket.benchmarks;
+
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prueba de carga HTTP que compara el modo de hilos de plataforma con el de hilos virtuales.
+ * Para cada modo levanta la aplicación con Tomcat en un puerto libre, siembra el catálogo
+ * y lanza {@code clientes} clientes concurrentes que alternan entre la página de productos
+ * y el stock disponible de un producto (ambos consultan la base) durante {@code segundos}.
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.main=com.Api.SantiMarket.benchmarks.PruebaCarga \
+ *     -Djmh.args="ambos 1000 30"
+ * </pre>
+ *
+ * Argumentos: modo (plataforma, virtual o ambos), clientes y segundos de medición.
+ * Sobre H2 en memoria casi no hay espera de E/S; para medir la diferencia real conviene
+ * apuntar a Postgres (ver application-benchmark.properties).
+ */
+public final class PruebaCarga {
+
+    private static final int PRODUCTOS = 2000;
+    private static final Duration CALENTAMIENTO = Duration.ofSeconds(5);
+
+    private PruebaCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String modo = args.length > 0 ? args[0] : "ambos";
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        List<Resultado> resultados = new ArrayList<>();
+        if (!modo.equals("virtual")) {
+            resultados.add(medir(false, clientes, Duration.ofSeconds(segundos)));
+        }
+        if (!modo.equals("plataforma")) {
+            resultados.add(medir(true, clientes, Duration.ofSeconds(segundos)));
+        }
+
+        System.out.printf("%n%-12s %9s %10s %9s %9s %9s %8s%n",
+                "modo", "clientes", "requests", "req/s", "p50 ms", "p99 ms", "errores");
+        for (Resultado r : resultados) {
+            System.out.printf("%-12s %9d %10d %9.0f %9.1f %9.1f %8d%n",
+                    r.modo(), clientes, r.requests(), r.porSegundo(), r.p50Ms(), r.p99Ms(), r.errores());
+        }
+    }
+
+    private static Resultado medir(boolean hilosVirtuales, int clientes, Duration duracion) throws Exception {
+        ContextoBenchmark contexto = ContextoBenchmark.iniciar(PRODUCTOS,
+                "spring.main.web-application-type=servlet",
+                "server.port=0",
+                "spring.threads.virtual.enabled=" + hilosVirtuales);
+        try {
+            String puerto = contexto.bean(Environment.class).getProperty("local.server.port");
+            List<Integer> productos = contexto.productoIds();
+            String base = "http://localhost:" + puerto + "/apiMarket/productos";
+
+            // Los clientes siempre usan hilos virtuales para que el generador de carga no sea el cuello de botella
+            try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient http = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .executor(pool)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+
+                correr(pool, http, base, productos, clientes, CALENTAMIENTO);
+                long inicio = System.nanoTime();
+                List<Medicion> mediciones = correr(pool, http, base, productos, clientes, duracion);
+                double segundos = (System.nanoTime() - inicio) / 1e9;
+
+                return Resultado.de(hilosVirtuales ? "virtual" : "plataforma", mediciones, segundos);
+            }
+        } finally {
+            contexto.cerrar();
+        }
+    }
+
+    private static List<Medicion> correr(ExecutorService pool, HttpClient http, String base, List<Integer> productos,
+                                         int clientes, Duration duracion) throws Exception {
+        long fin = System.nanoTime() + duracion.toNanos();
+        List<Future<Medicion>> tareas = new ArrayList<>(clientes);
+        for (int c = 0; c < clientes; c++) {
+            long semilla = c;
+            tareas.add(pool.submit(() -> cliente(http, base, productos, fin, new SplittableRandom(semilla))));
+        }
+        List<Medicion> mediciones = new ArrayList<>(clientes);
+        for (Future<Medicion> tarea : tareas) {
+            mediciones.add(tarea.get());
+        }
+        return mediciones;
+    }
+
+    private static Medicion cliente(HttpClient http, String base, List<Integer> productos,
+                                    long fin, SplittableRandom random) {
+        Medicion medicion = new Medicion();
+        while (System.nanoTime() < fin) {
+            String url = random.nextBoolean()
+                    ? base + "?limite=20&precioMin=" + random.nextInt(900)
+                    : base + "/" + productos.get(random.nextInt(productos.size())) + "/disponible";
+            long inicio = System.nanoTime();
+            try {
+                HttpResponse<Void> respuesta = http.send(
+                        HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                medicion.registrar(System.nanoTime() - inicio, respuesta.statusCode() == 200);
+            } catch (Exception e) {
+                medicion.registrar(System.nanoTime() - inicio, false);
+            }
+        }
+        return medicion;
+    }
+
+    /**
+     * Latencias de un cliente, en nanosegundos.
+     */
+    private static final class Medicion {
+        private long[] latencias = new long[1024];
+        private int cantidad;
+        private int errores;
+
+        private void registrar(long nanos, boolean ok) {
+            if (!ok) {
+                errores++;
+            }
+            if (cantidad == latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad * 2);
+            }
+            latencias[cantidad++] = nanos;
+        }
+    }
+
+    private record Resultado(String modo, long requests, double porSegundo, double p50Ms, double p99Ms, long errores) {
+
+        static Resultado de(String modo, List<Medicion> mediciones, double segundos) {
+            int total = mediciones.stream().mapToInt(m -> m.cantidad).sum();
+            long[] todas = new long[total];
+            int i = 0;
+            long errores = 0;
+            for (Medicion m : mediciones) {
+                System.arraycopy(m.latencias, 0, todas, i, m.cantidad);
+                i += m.cantidad;
+                errores += m.errores;
+            }
+            Arrays.sort(todas);
+            return new Resultado(modo, total, total / segundos,
+                    percentil(todas, 0.50), percentil(todas, 0.99), errores);
+        }
+
+        private static double percentil(long[] ordenadas, double p) {
+            if (ordenadas.length == 0) {
+                return 0;
+            }
+            return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1)] / 1e6;
+        }
+    }
+}
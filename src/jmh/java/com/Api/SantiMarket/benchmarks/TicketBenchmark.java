@@ -0,0 +1,65 @@
+package com.Api.SantiMarket.benchmarks;
+
+import com.Api.SantiMarket.Entities.CarritoCompras;
+import com.Api.SantiMarket.Entities.Venta;
+import com.Api.SantiMarket.Service.TicketService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pago completo de un carrito (TicketService.realizarPago) según la cantidad de líneas.
+ * El carrito se vuelve a llenar antes de cada invocación, fuera de la medición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicketBenchmark {
+
+    @Param({"10000"})
+    public int productos;
+
+    @Param({"1", "10", "30"})
+    public int lineas;
+
+    private final SplittableRandom random = new SplittableRandom(11);
+
+    private ContextoBenchmark contexto;
+    private TicketService ticketService;
+    private CarritoCompras carrito;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar(productos);
+        ticketService = contexto.bean(TicketService.class);
+        carrito = contexto.crearCarrito();
+    }
+
+    @Setup(Level.Invocation)
+    public void llenarCarrito() {
+        List<Integer> elegidos = new ArrayList<>(lineas);
+        while (elegidos.size() < lineas) {
+            Integer id = contexto.productoAlAzar(random);
+            if (!elegidos.contains(id)) {
+                elegidos.add(id);
+            }
+        }
+        contexto.llenarCarrito(carrito, elegidos, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.cerrar();
+    }
+
+    @Benchmark
+    public Venta realizarPago() {
+        return ticketService.realizarPago(carrito.getId(), carrito.getUsuario().getId());
+    }
+}
@@ -0,0 +1,50 @@
+package com.Api.SantiMarket.Config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Habilita el soporte de caché de Spring. El proveedor (Caffeine), el tamaño
+ * máximo y el tiempo de expiración se configuran en application.properties.
+ * <p>
+ * Define además las regiones de la caché de segundo nivel de Hibernate, cuyo tamaño
+ * y expiración están en hibernate-cache.conf, y publica la tasa de aciertos de cada una.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String REGION_PRODUCTOS = "santimarket-productos";
+    public static final String REGION_USUARIOS = "santimarket-usuarios";
+    public static final String REGION_USUARIOS_EMAIL = "santimarket-usuarios-email";
+
+    private static final List<String> REGIONES = List.of(REGION_PRODUCTOS, REGION_USUARIOS, REGION_USUARIOS_EMAIL);
+
+    @Bean
+    MeterBinder metricasCacheSegundoNivel(EntityManagerFactory entityManagerFactory) {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> REGIONES.forEach(region ->
+                Gauge.builder("santimarket.cache.l2.aciertos", estadisticas, e -> tasaAciertos(e, region))
+                        .description("Proporción de lecturas de la región resueltas sin ir a la base")
+                        .tag("region", region)
+                        .register(registry));
+    }
+
+    private static double tasaAciertos(Statistics estadisticas, String region) {
+        CacheRegionStatistics estadisticasRegion = estadisticas.getCacheRegionStatistics(region);
+        if (estadisticasRegion == null) {
+            return Double.NaN;
+        }
+        long lecturas = estadisticasRegion.getHitCount() + estadisticasRegion.getMissCount();
+        return lecturas == 0 ? Double.NaN : (double) estadisticasRegion.getHitCount() / lecturas;
+    }
+}
@@ -0,0 +1,79 @@
+package com.Api.SantiMarket.Config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cuenta las sentencias SQL ejecutadas por el hilo actual.
+ * Hibernate lo invoca por cada sentencia que prepara (se registra con la propiedad
+ * {@code hibernate.session_factory.statement_inspector}); las sentencias JDBC directas
+ * se suman con {@link #registrar(String)}. El contador se reinicia al comenzar cada request.
+ *
+ * Además recuerda cuántas veces se repitió cada sentencia, para detectar consultas N+1
+ * (la misma sentencia parametrizada ejecutada una vez por cada fila de otra consulta).
+ */
+public class ContadorSentencias implements StatementInspector {
+
+    // Tope de sentencias distintas que se recuerdan por hilo
+    private static final int MAX_SENTENCIAS_DISTINTAS = 200;
+
+    private static final ThreadLocal<Registro> REGISTRO = ThreadLocal.withInitial(Registro::new);
+
+    @Override
+    public String inspect(String sql) {
+        registrar(sql);
+        return sql;
+    }
+
+    /**
+     * Suma una sentencia ejecutada fuera de Hibernate (por ejemplo, un batch de JdbcTemplate).
+     *
+     * @param sql sentencia parametrizada
+     */
+    public static void registrar(String sql) {
+        Registro registro = REGISTRO.get();
+        registro.total++;
+        if (registro.porSentencia.size() < MAX_SENTENCIAS_DISTINTAS || registro.porSentencia.containsKey(sql)) {
+            registro.porSentencia.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Pone en cero el contador del hilo actual.
+     */
+    public static void reiniciar() {
+        Registro registro = REGISTRO.get();
+        registro.total = 0;
+        registro.porSentencia.clear();
+    }
+
+    /**
+     * @return sentencias ejecutadas por el hilo actual desde el último reinicio
+     */
+    public static int cantidad() {
+        return REGISTRO.get().total;
+    }
+
+    /**
+     * Sentencias que se ejecutaron al menos {@code umbral} veces desde el último reinicio.
+     *
+     * @param umbral repeticiones a partir de las cuales una sentencia se considera sospechosa
+     * @return sentencia -> cantidad de ejecuciones, en el orden en que se vieron por primera vez
+     */
+    public static Map<String, Integer> repetidas(int umbral) {
+        Map<String, Integer> repetidas = new LinkedHashMap<>();
+        REGISTRO.get().porSentencia.forEach((sql, veces) -> {
+            if (veces >= umbral) {
+                repetidas.put(sql, veces);
+            }
+        });
+        return repetidas;
+    }
+
+    private static final class Registro {
+        private int total;
+        private final Map<String, Integer> porSentencia = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,38 @@
+package com.Api.SantiMarket.Config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Envía las transacciones de solo lectura ({@code @Transactional(readOnly = true)}) a la
+ * réplica y todo lo demás a la primaria. Debe usarse detrás de un
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: la conexión real
+ * se pide recién en la primera sentencia, cuando la transacción ya está marcada como de lectura.
+ */
+public class DataSourceEnrutado extends AbstractRoutingDataSource {
+
+    enum Destino { PRIMARIA, REPLICA }
+
+    private final LecturaPropia lecturaPropia;
+
+    public DataSourceEnrutado(DataSource primaria, DataSource replica, LecturaPropia lecturaPropia) {
+        this.lecturaPropia = lecturaPropia;
+        setTargetDataSources(Map.of(Destino.PRIMARIA, primaria, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primaria);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return lecturaPropia.activa() ? Destino.PRIMARIA : Destino.REPLICA;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            lecturaPropia.registrarEscritura();
+        }
+        return Destino.PRIMARIA;
+    }
+}
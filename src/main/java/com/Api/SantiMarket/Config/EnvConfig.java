@@ -6,8 +6,16 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class EnvConfig {
     static {
-        Dotenv dotenv = Dotenv.load();
-        System.setProperty("SPRING_DATASOURCE_USERNAME", dotenv.get("SPRING_DATASOURCE_USERNAME"));
-        System.setProperty("SPRING_DATASOURCE_PASSWORD", dotenv.get("SPRING_DATASOURCE_PASSWORD"));
+        // Sin .env (tests, benchmarks, contenedores) las credenciales llegan por variables de entorno
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        establecer(dotenv, "SPRING_DATASOURCE_USERNAME");
+        establecer(dotenv, "SPRING_DATASOURCE_PASSWORD");
+    }
+
+    private static void establecer(Dotenv dotenv, String clave) {
+        String valor = dotenv.get(clave);
+        if (valor != null) {
+            System.setProperty(clave, valor);
+        }
     }
 }
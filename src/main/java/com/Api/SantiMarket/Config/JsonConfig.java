@@ -0,0 +1,21 @@
+package com.Api.SantiMarket.Config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Serialización JSON de las respuestas. Spring Boot registra en su ObjectMapper
+ * todos los beans {@link Module}.
+ */
+@Configuration
+public class JsonConfig {
+
+    // Blackbird reemplaza la reflexión de Jackson por accesos generados con LambdaMetafactory
+    // para getters, setters y constructores (entidades y records DTO)
+    @Bean
+    Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
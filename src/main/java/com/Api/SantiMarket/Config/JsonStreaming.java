@@ -0,0 +1,53 @@
+package com.Api.SantiMarket.Config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Respuestas JSON que se escriben a medida que se leen de la base, sin armar la lista
+ * completa en memoria. El recorrido corre en un hilo de Spring MVC async y mantiene la
+ * transacción (y su conexión) abierta mientras el cliente consume la respuesta.
+ */
+@Component
+public class JsonStreaming {
+
+    private final ObjectMapper objectMapper;
+
+    public JsonStreaming(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Arma una respuesta con un arreglo JSON cuyos elementos entrega el recorrido.
+     *
+     * @param recorrido recibe la acción que escribe cada elemento y la aplica a todos
+     *                  (normalmente un método de servicio que recorre un Stream de la base)
+     * @return respuesta 200 con el arreglo JSON
+     */
+    public <T> ResponseEntity<StreamingResponseBody> arreglo(Consumer<Consumer<T>> recorrido) {
+        StreamingResponseBody cuerpo = salida -> {
+            try (JsonGenerator generador = objectMapper.createGenerator(salida)) {
+                generador.writeStartArray();
+                recorrido.accept(elemento -> escribir(generador, elemento));
+                generador.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+    }
+
+    private void escribir(JsonGenerator generador, Object elemento) {
+        try {
+            objectMapper.writeValue(generador, elemento);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.Api.SantiMarket.Config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Garantiza "leer lo propio" con réplica de lectura: cuando un cliente escribe, la respuesta
+ * lleva la cookie {@value #COOKIE} con el instante hasta el que sus lecturas deben ir a la
+ * primaria (la ventana cubre el retraso de replicación). Mientras la cookie está vigente,
+ * y durante el resto de la request que escribió, {@link DataSourceEnrutado} no usa la réplica.
+ */
+public class LecturaPropia extends OncePerRequestFilter {
+
+    static final String COOKIE = "santimarket_escritura";
+
+    private final ThreadLocal<Boolean> usarPrimaria = new ThreadLocal<>();
+    private final Duration ventana;
+
+    public LecturaPropia(Duration ventana) {
+        this.ventana = ventana;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (escribioHacePoco(request)) {
+            usarPrimaria.set(Boolean.TRUE);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            usarPrimaria.remove();
+        }
+    }
+
+    /**
+     * @return true si las lecturas del hilo actual deben ir a la primaria
+     */
+    boolean activa() {
+        return Boolean.TRUE.equals(usarPrimaria.get());
+    }
+
+    /**
+     * Marca que la request actual escribió: sus próximas lecturas, y las del mismo cliente
+     * durante la ventana, van a la primaria. Fuera de una request (tareas programadas,
+     * pagos asíncronos) no hace nada.
+     */
+    void registrarEscritura() {
+        if (activa() || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos)) {
+            return;
+        }
+        usarPrimaria.set(Boolean.TRUE);
+
+        HttpServletResponse response = atributos.getResponse();
+        if (response != null && !response.isCommitted()) {
+            long hasta = System.currentTimeMillis() + ventana.toMillis();
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, Long.toString(hasta))
+                    .path("/")
+                    .maxAge(ventana)
+                    .httpOnly(true)
+                    .build()
+                    .toString());
+        }
+    }
+
+    private static boolean escribioHacePoco(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return System.currentTimeMillis() < Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,38 @@
+package com.Api.SantiMarket.Config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Métricas propias de la API, complementarias a las de Spring Boot
+ * (http.server.requests, hikaricp.*, hibernate.*), todas publicadas en /actuator/prometheus.
+ * Registra cuántas sentencias SQL ejecuta cada endpoint en {@code santimarket.http.sentencias}.
+ */
+@Configuration
+public class MetricasConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean advertir;
+    private final int presupuestoPorDefecto;
+    private final int umbralRepeticion;
+
+    public MetricasConfig(MeterRegistry meterRegistry,
+                          @Value("${santimarket.sentencias.advertir:false}") boolean advertir,
+                          @Value("${santimarket.sentencias.presupuesto:20}") int presupuestoPorDefecto,
+                          @Value("${santimarket.sentencias.umbral-repeticion:5}") int umbralRepeticion) {
+        this.meterRegistry = meterRegistry;
+        this.advertir = advertir;
+        this.presupuestoPorDefecto = presupuestoPorDefecto;
+        this.umbralRepeticion = umbralRepeticion;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SentenciasInterceptor(
+                        meterRegistry, advertir, presupuestoPorDefecto, umbralRepeticion))
+                .addPathPatterns("/apiMarket/**");
+    }
+}
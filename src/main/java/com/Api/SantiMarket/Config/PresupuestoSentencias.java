@@ -0,0 +1,21 @@
+package com.Api.SantiMarket.Config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Cantidad máxima de sentencias SQL que debería ejecutar un endpoint.
+ * Con {@code santimarket.sentencias.advertir=true} (perfil dev) se registra una advertencia
+ * en el log cuando una request lo supera. Los endpoints sin anotar usan
+ * {@code santimarket.sentencias.presupuesto}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PresupuestoSentencias {
+
+    int value();
+}
@@ -0,0 +1,66 @@
+package com.Api.SantiMarket.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Réplica de lectura, activa solo si se configura {@code santimarket.replica.url}.
+ * Define un pool para la primaria (spring.datasource.*) y otro para la réplica
+ * (santimarket.replica.*) y los expone como un único DataSource que enruta cada
+ * transacción según sea de solo lectura o no.
+ */
+@Configuration
+@ConditionalOnProperty(name = "santimarket.replica.url")
+public class ReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primariaDataSource(DataSourceProperties propiedades) {
+        HikariDataSource dataSource = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primaria");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("santimarket.replica.hikari")
+    HikariDataSource replicaDataSource(DataSourceProperties propiedades,
+                                       @Value("${santimarket.replica.url}") String url,
+                                       @Value("${santimarket.replica.username:${spring.datasource.username:}}") String usuario,
+                                       @Value("${santimarket.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(propiedades.determineDriverClassName())
+                .url(url)
+                .username(usuario)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    LecturaPropia lecturaPropia(@Value("${santimarket.replica.ventana-lectura-propia:5s}") Duration ventana) {
+        return new LecturaPropia(ventana);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primariaDataSource") DataSource primaria,
+                          @Qualifier("replicaDataSource") DataSource replica,
+                          LecturaPropia lecturaPropia) {
+        return new LazyConnectionDataSourceProxy(new DataSourceEnrutado(primaria, replica, lecturaPropia));
+    }
+}
@@ -0,0 +1,13 @@
+package com.Api.SantiMarket.Config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled) de la aplicación, como el
+ * vencimiento de reservas de stock y la limpieza de pagos asíncronos terminados.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,85 @@
+package com.Api.SantiMarket.Config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Mide las sentencias SQL de cada request con {@link ContadorSentencias}: las publica en
+ * {@code santimarket.http.sentencias} y, si está habilitado, advierte en el log cuando
+ * un endpoint supera su {@link PresupuestoSentencias} o repite una misma consulta (N+1).
+ */
+class SentenciasInterceptor implements HandlerInterceptor {
+
+    static final String METRICA_SENTENCIAS = "santimarket.http.sentencias";
+
+    private static final Logger log = LoggerFactory.getLogger(SentenciasInterceptor.class);
+
+    private final MeterRegistry meterRegistry;
+    private final boolean advertir;
+    private final int presupuestoPorDefecto;
+    private final int umbralRepeticion;
+
+    SentenciasInterceptor(MeterRegistry meterRegistry, boolean advertir,
+                          int presupuestoPorDefecto, int umbralRepeticion) {
+        this.meterRegistry = meterRegistry;
+        this.advertir = advertir;
+        this.presupuestoPorDefecto = presupuestoPorDefecto;
+        this.umbralRepeticion = umbralRepeticion;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ContadorSentencias.reiniciar();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        int sentencias = ContadorSentencias.cantidad();
+
+        // Se usa el patrón de la ruta (/apiMarket/productos/{id}) para no crear una serie por ID
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = patron != null ? patron.toString() : "UNKNOWN";
+
+        DistributionSummary.builder(METRICA_SENTENCIAS)
+                .description("Sentencias SQL ejecutadas por request")
+                .baseUnit("sentencias")
+                .tag("uri", uri)
+                .tag("method", request.getMethod())
+                .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100)
+                .register(meterRegistry)
+                .record(sentencias);
+
+        if (!advertir) {
+            return;
+        }
+        int presupuesto = presupuesto(handler);
+        if (sentencias > presupuesto) {
+            log.warn("{} {} ejecutó {} sentencias SQL (presupuesto: {})",
+                    request.getMethod(), uri, sentencias, presupuesto);
+        }
+        Map<String, Integer> repetidas = ContadorSentencias.repetidas(umbralRepeticion);
+        repetidas.forEach((sql, veces) ->
+                log.warn("Posible N+1 en {} {}: {} ejecuciones de [{}]", request.getMethod(), uri, veces, sql));
+    }
+
+    private int presupuesto(Object handler) {
+        if (handler instanceof HandlerMethod metodo) {
+            PresupuestoSentencias anotacion = metodo.getMethodAnnotation(PresupuestoSentencias.class);
+            if (anotacion != null) {
+                return anotacion.value();
+            }
+        }
+        return presupuestoPorDefecto;
+    }
+}
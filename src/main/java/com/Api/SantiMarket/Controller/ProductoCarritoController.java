@@ -1,5 +1,7 @@
 package com.Api.SantiMarket.Controller;
 
+import com.Api.SantiMarket.Config.PresupuestoSentencias;
+import com.Api.SantiMarket.Dto.LineaCarrito;
 import com.Api.SantiMarket.Entities.ProductoCarrito;
 import com.Api.SantiMarket.Service.ProductosCarritoService;
 import org.springframework.http.ResponseEntity;
@@ -26,7 +28,8 @@ public class ProductoCarritoController {
      * @return ResponseEntity con lista de productos en carritos
      */
     @GetMapping
-    public ResponseEntity<List<ProductoCarrito>> getAll() {
+    @PresupuestoSentencias(1)
+    public ResponseEntity<List<LineaCarrito>> getAll() {
         return ResponseEntity.ok(productosCarritoService.getAllProductoCarrito());
     }
 
@@ -40,7 +43,8 @@ public class ProductoCarritoController {
      * @return ResponseEntity con el producto en carrito encontrado
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductoCarrito> getById(@PathVariable Integer id) {
+    @PresupuestoSentencias(1)
+    public ResponseEntity<LineaCarrito> getById(@PathVariable Integer id) {
         return ResponseEntity.ok(productosCarritoService.getProductoCarritoById(id));
     }
 
@@ -54,8 +58,8 @@ public class ProductoCarritoController {
      * @return ResponseEntity con el producto en carrito creado
      */
     @PostMapping
-    public ResponseEntity<ProductoCarrito> create(@RequestBody ProductoCarrito productoCarrito) {
-        return ResponseEntity.ok(productosCarritoService.saveProductoCarrito(productoCarrito));
+    public ResponseEntity<LineaCarrito> create(@RequestBody ProductoCarrito productoCarrito) {
+        return ResponseEntity.ok(LineaCarrito.desde(productosCarritoService.saveProductoCarrito(productoCarrito)));
     }
 
     // ============================================================
@@ -69,11 +73,11 @@ public class ProductoCarritoController {
      * @return ResponseEntity con el producto en carrito actualizado
      */
     @PutMapping("/{id}")
-    public ResponseEntity<ProductoCarrito> update(
+    public ResponseEntity<LineaCarrito> update(
             @PathVariable Integer id,
             @RequestBody ProductoCarrito nuevosDatos
     ) {
-        return ResponseEntity.ok(productosCarritoService.updateProductoCarrito(id, nuevosDatos));
+        return ResponseEntity.ok(LineaCarrito.desde(productosCarritoService.updateProductoCarrito(id, nuevosDatos)));
     }
 
     // ============================================================
@@ -101,7 +105,8 @@ public class ProductoCarritoController {
      * @return ResponseEntity con lista de productos en el carrito
      */
     @GetMapping("/carrito/{carritoId}")
-    public ResponseEntity<List<ProductoCarrito>> getByCarritoId(@PathVariable Integer carritoId) {
+    @PresupuestoSentencias(1)
+    public ResponseEntity<List<LineaCarrito>> getByCarritoId(@PathVariable Integer carritoId) {
         return ResponseEntity.ok(productosCarritoService.getProductosCarritoByCarritoId(carritoId));
     }
 
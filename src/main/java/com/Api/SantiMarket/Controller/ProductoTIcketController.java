@@ -1,9 +1,16 @@
 package com.Api.SantiMarket.Controller;
 
+import com.Api.SantiMarket.Config.JsonStreaming;
+import com.Api.SantiMarket.Config.PresupuestoSentencias;
+import com.Api.SantiMarket.Dto.IngresoCategoria;
+import com.Api.SantiMarket.Dto.IngresoProducto;
+import com.Api.SantiMarket.Dto.LineaTicket;
 import com.Api.SantiMarket.Entities.ProductoTicket;
 import com.Api.SantiMarket.Service.ProductoTicketService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -13,6 +20,7 @@ import java.util.List;
 public class ProductoTIcketController {
 
     private final ProductoTicketService productoTicketService;
+    private final JsonStreaming jsonStreaming;
 
     // ============================================================
     // CREATE
@@ -25,21 +33,22 @@ public class ProductoTIcketController {
      * @return registro creado
      */
     @PostMapping
-    public ProductoTicket create(@RequestBody ProductoTicket productoTicket) {
-        return productoTicketService.create(productoTicket);
+    public LineaTicket create(@RequestBody ProductoTicket productoTicket) {
+        return LineaTicket.desde(productoTicketService.create(productoTicket));
     }
 
     // ============================================================
     // GET ALL
     // ============================================================
     /**
-     * Obtiene la lista completa de registros ProductoTicket.
+     * Obtiene la lista completa de registros ProductoTicket. La respuesta se
+     * escribe a medida que se leen las líneas, sin armar la lista en memoria.
      *
-     * @return lista de ProductoTicket
+     * @return arreglo JSON de ProductoTicket
      */
     @GetMapping
-    public List<ProductoTicket> getAll() {
-        return productoTicketService.getAll();
+    public ResponseEntity<StreamingResponseBody> getAll() {
+        return jsonStreaming.<LineaTicket>arreglo(productoTicketService::recorrerTodas);
     }
 
     // ============================================================
@@ -52,7 +61,8 @@ public class ProductoTIcketController {
      * @return registro encontrado
      */
     @GetMapping("/{id}")
-    public ProductoTicket getById(@PathVariable Integer id) {
+    @PresupuestoSentencias(1)
+    public LineaTicket getById(@PathVariable Integer id) {
         return productoTicketService.getById(id);
     }
 
@@ -67,8 +77,8 @@ public class ProductoTIcketController {
      * @return registro actualizado
      */
     @PutMapping("/{id}")
-    public ProductoTicket update(@PathVariable Integer id, @RequestBody ProductoTicket data) {
-        return productoTicketService.update(id, data);
+    public LineaTicket update(@PathVariable Integer id, @RequestBody ProductoTicket data) {
+        return LineaTicket.desde(productoTicketService.update(id, data));
     }
 
     // ============================================================
@@ -94,7 +104,39 @@ public class ProductoTIcketController {
      * @return lista de ProductoTicket para esa venta
      */
     @GetMapping("/venta/{ventaId}")
-    public List<ProductoTicket> findByVentaId(@PathVariable Integer ventaId) {
+    @PresupuestoSentencias(1)
+    public List<LineaTicket> findByVentaId(@PathVariable Integer ventaId) {
         return productoTicketService.findByVentaId(ventaId);
     }
+
+    // ============================================================
+    // INGRESOS POR PRODUCTO
+    // ============================================================
+    /**
+     * Obtiene los productos que más facturaron, calculado con el precio
+     * cobrado en cada línea de ticket (no con el precio actual).
+     *
+     * @param limite cantidad de productos (por defecto 20, máximo 100)
+     * @return productos con unidades vendidas e ingresos, de mayor a menor
+     */
+    @GetMapping("/ingresos/productos")
+    @PresupuestoSentencias(1)
+    public List<IngresoProducto> ingresosPorProducto(@RequestParam(required = false) Integer limite) {
+        return productoTicketService.ingresosPorProducto(limite);
+    }
+
+    // ============================================================
+    // INGRESOS POR CATEGORÍA
+    // ============================================================
+    /**
+     * Obtiene la facturación de cada categoría, según la categoría que tenía
+     * el producto al momento de la venta.
+     *
+     * @return categorías con unidades vendidas e ingresos, de mayor a menor
+     */
+    @GetMapping("/ingresos/categorias")
+    @PresupuestoSentencias(1)
+    public List<IngresoCategoria> ingresosPorCategoria() {
+        return productoTicketService.ingresosPorCategoria();
+    }
 }
@@ -1,10 +1,20 @@
 package com.Api.SantiMarket.Controller;
 
+import com.Api.SantiMarket.Config.JsonStreaming;
+import com.Api.SantiMarket.Config.PresupuestoSentencias;
+import com.Api.SantiMarket.Dto.EstadoFlash;
+import com.Api.SantiMarket.Dto.PaginaCursor;
+import com.Api.SantiMarket.Dto.ProductoDetalle;
+import com.Api.SantiMarket.Dto.ProductoMasVendido;
 import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Service.MasVendidosService;
+import com.Api.SantiMarket.Service.ProductosBusquedaService;
 import com.Api.SantiMarket.Service.ProductosService;
+import com.Api.SantiMarket.Service.StockFlashService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -13,22 +23,108 @@ import java.util.List;
 public class ProductosController {
 
     private final ProductosService productosService;
+    private final ProductosBusquedaService productosBusquedaService;
+    private final StockFlashService stockFlashService;
+    private final JsonStreaming jsonStreaming;
+    private final MasVendidosService masVendidosService;
 
-    public ProductosController(ProductosService productosService) {
+    public ProductosController(ProductosService productosService,
+                               ProductosBusquedaService productosBusquedaService,
+                               StockFlashService stockFlashService,
+                               JsonStreaming jsonStreaming,
+                               MasVendidosService masVendidosService) {
         this.productosService = productosService;
+        this.productosBusquedaService = productosBusquedaService;
+        this.stockFlashService = stockFlashService;
+        this.jsonStreaming = jsonStreaming;
+        this.masVendidosService = masVendidosService;
     }
 
     // ============================================================
-    // GET ALL PRODUCTOS
+    // GET ALL PRODUCTOS (PAGINADO)
     // ============================================================
     /**
-     * Obtiene la lista completa de productos registrados.
+     * Obtiene una página del catálogo con paginación por cursor.
+     * Para pedir la página siguiente se envía el {@code siguienteCursor}
+     * de la respuesta anterior manteniendo los mismos filtros y orden.
      *
-     * @return ResponseEntity con la lista de productos
+     * @param categoria categoría a filtrar (opcional)
+     * @param precioMin precio mínimo (opcional)
+     * @param precioMax precio máximo (opcional)
+     * @param orden     "id" (por defecto), "precio" o "fecha"
+     * @param cursor    cursor de la página anterior (opcional)
+     * @param limite    tamaño de página (por defecto 20, máximo 100)
+     * @return ResponseEntity con la página de productos
      */
     @GetMapping
-    public ResponseEntity<List<Productos>> getAllProductos() {
-        return ResponseEntity.ok(productosService.getAllProductos());
+    @PresupuestoSentencias(2)
+    public ResponseEntity<PaginaCursor<Productos>> getAllProductos(
+            @RequestParam(required = false) String categoria,
+            @RequestParam(required = false) Double precioMin,
+            @RequestParam(required = false) Double precioMax,
+            @RequestParam(defaultValue = "id") String orden,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite
+    ) {
+        return ResponseEntity.ok(
+                productosService.getAllProductos(categoria, precioMin, precioMax, orden, cursor, limite));
+    }
+
+    // ============================================================
+    // CATÁLOGO COMPLETO
+    // ============================================================
+    /**
+     * Exporta el catálogo completo en un único arreglo JSON, ordenado por ID.
+     * La respuesta se escribe a medida que se leen los productos, sin armar
+     * la lista en memoria; para navegar el catálogo usar el listado paginado.
+     *
+     * @return arreglo JSON con todos los productos
+     */
+    @GetMapping("/catalogo")
+    public ResponseEntity<StreamingResponseBody> getCatalogo() {
+        return jsonStreaming.<Productos>arreglo(productosService::recorrerCatalogo);
+    }
+
+    // ============================================================
+    // BUSCAR PRODUCTOS
+    // ============================================================
+    /**
+     * Busca productos por texto libre sobre nombre, descripción y categoría.
+     * Ignora mayúsculas y acentos, acepta prefijos ("choco" encuentra "Chocolate")
+     * y devuelve los resultados ordenados por relevancia.
+     *
+     * @param q      texto a buscar
+     * @param limite cantidad máxima de resultados (por defecto 20, máximo 100)
+     * @return ResponseEntity con los productos encontrados
+     */
+    @GetMapping("/search")
+    @PresupuestoSentencias(1)
+    public ResponseEntity<List<ProductoDetalle>> buscarProductos(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limite
+    ) {
+        return ResponseEntity.ok(productosBusquedaService.buscar(q, limite));
+    }
+
+    // ============================================================
+    // MÁS VENDIDOS
+    // ============================================================
+    /**
+     * Ranking de los productos más vendidos, calculado en memoria a medida que se
+     * confirman las ventas. Las unidades son aproximadas: las reales están entre
+     * {@code unidades - error} y {@code unidades}.
+     *
+     * @param ventana "hora", "dia" (por defecto) o "semana"
+     * @param limite  cantidad de productos (por defecto 10, máximo 100)
+     * @return ResponseEntity con los productos de mayor a menor unidades vendidas
+     */
+    @GetMapping("/top")
+    @PresupuestoSentencias(1)
+    public ResponseEntity<List<ProductoMasVendido>> getMasVendidos(
+            @RequestParam(defaultValue = "dia") String ventana,
+            @RequestParam(required = false) Integer limite
+    ) {
+        return ResponseEntity.ok(masVendidosService.top(ventana, limite));
     }
 
     // ============================================================
@@ -41,10 +137,26 @@ public class ProductosController {
      * @return ResponseEntity con el producto encontrado
      */
     @GetMapping("/{codigo}")
-    public ResponseEntity<Productos> getProductosById(@PathVariable Integer codigo) {
+    @PresupuestoSentencias(1)
+    public ResponseEntity<ProductoDetalle> getProductosById(@PathVariable Integer codigo) {
         return ResponseEntity.ok(productosService.getProductosById(codigo));
     }
 
+    // ============================================================
+    // GET STOCK DISPONIBLE
+    // ============================================================
+    /**
+     * Obtiene el stock disponible de un producto, descontando las unidades
+     * reservadas en carritos que todavía no se pagaron.
+     *
+     * @param codigo código del producto
+     * @return ResponseEntity con las unidades disponibles
+     */
+    @GetMapping("/{codigo}/disponible")
+    public ResponseEntity<Integer> getStockDisponible(@PathVariable Integer codigo) {
+        return ResponseEntity.ok(productosService.getStockDisponible(codigo));
+    }
+
     // ============================================================
     // CREATE PRODUCTO
     // ============================================================
@@ -96,6 +208,47 @@ public class ProductosController {
         return ResponseEntity.ok(productosService.actualizarStock(codigo, stock));
     }
 
+    // ============================================================
+    // MODO FLASH
+    // ============================================================
+    /**
+     * Activa el modo flash de un producto: su stock se reparte en shards para que
+     * los pagos concurrentes durante una promoción no se bloqueen entre sí.
+     *
+     * @param codigo código del producto
+     * @param shards cantidad de shards (por defecto 8, máximo 64)
+     * @return ResponseEntity con el stock de cada shard
+     */
+    @PostMapping("/{codigo}/flash")
+    public ResponseEntity<EstadoFlash> activarModoFlash(
+            @PathVariable Integer codigo,
+            @RequestParam(required = false) Integer shards
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(stockFlashService.activar(codigo, shards));
+    }
+
+    /**
+     * Obtiene el stock de cada shard de un producto en modo flash.
+     *
+     * @param codigo código del producto
+     * @return ResponseEntity con el estado del modo flash
+     */
+    @GetMapping("/{codigo}/flash")
+    public ResponseEntity<EstadoFlash> getModoFlash(@PathVariable Integer codigo) {
+        return ResponseEntity.ok(stockFlashService.estado(codigo));
+    }
+
+    /**
+     * Desactiva el modo flash: el stock de los shards vuelve al producto.
+     *
+     * @param codigo código del producto
+     * @return ResponseEntity con el stock consolidado
+     */
+    @DeleteMapping("/{codigo}/flash")
+    public ResponseEntity<EstadoFlash> desactivarModoFlash(@PathVariable Integer codigo) {
+        return ResponseEntity.ok(stockFlashService.desactivar(codigo));
+    }
+
     // ============================================================
     // DELETE PRODUCTO BY ID
     // ============================================================
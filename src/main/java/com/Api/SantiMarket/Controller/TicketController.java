@@ -1,12 +1,34 @@
 package com.Api.SantiMarket.Controller;
 
-import com.Api.SantiMarket.Entities.ProductoTicket;
+import com.Api.SantiMarket.Config.JsonStreaming;
+import com.Api.SantiMarket.Config.PresupuestoSentencias;
+import com.Api.SantiMarket.Dto.EstadisticasVentas;
+import com.Api.SantiMarket.Dto.EstadoPago;
+import com.Api.SantiMarket.Dto.LineaTicket;
+import com.Api.SantiMarket.Dto.PaginaCursor;
+import com.Api.SantiMarket.Dto.VentaResumen;
 import com.Api.SantiMarket.Entities.Venta;
+import com.Api.SantiMarket.Exceptions.ServicioSaturadoException;
+import com.Api.SantiMarket.Service.ExportacionVentasService;
+import com.Api.SantiMarket.Service.IdempotenciaService;
+import com.Api.SantiMarket.Service.PagoAsincronoService;
+import com.Api.SantiMarket.Service.ResumenVentasService;
 import com.Api.SantiMarket.Service.TicketService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/apiMarket/ticket")
@@ -14,18 +36,112 @@ import java.util.List;
 public class TicketController {
 
     private final TicketService ventaService;
+    private final IdempotenciaService idempotenciaService;
+    private final PagoAsincronoService pagoAsincronoService;
+    private final JsonStreaming jsonStreaming;
+    private final ResumenVentasService resumenVentasService;
+    private final ExportacionVentasService exportacionVentasService;
+
+    // Espera máxima del long-polling, por debajo del timeout de peticiones asíncronas de Spring MVC
+    private static final long ESPERA_MAXIMA_MS = 25_000;
 
     // ============================================================
     // GET ALL
     // ============================================================
     /**
-     * Obtiene la lista completa de tickets/ventas registradas.
+     * Obtiene la lista completa de tickets/ventas registradas. La respuesta se
+     * escribe a medida que se leen las ventas, sin armar la lista en memoria.
      *
-     * @return lista de ventas
+     * @return arreglo JSON de ventas (del usuario solo se devuelve el ID)
      */
     @GetMapping
-    public List<Venta> getAll() {
-        return ventaService.getAll();
+    public ResponseEntity<StreamingResponseBody> getAll() {
+        return jsonStreaming.<VentaResumen>arreglo(ventaService::recorrerTodas);
+    }
+
+    // ============================================================
+    // ESTADÍSTICAS
+    // ============================================================
+    /**
+     * Cantidad de ventas e ingresos de un período, leídos del resumen diario de
+     * ventas: el costo depende de los días consultados, no de la cantidad de ventas.
+     *
+     * @param desde      primer día (yyyy-MM-dd), inclusive
+     * @param hasta      último día (yyyy-MM-dd), inclusive
+     * @param agrupar    "dia" (por defecto), "pais", "provincia", "estado" o "metodoPago"
+     * @param pais       filtro por país (opcional)
+     * @param provincia  filtro por provincia (opcional)
+     * @param estado     filtro por estado (opcional)
+     * @param metodoPago filtro por método de pago (opcional)
+     * @return totales del período y detalle por grupo
+     */
+    @GetMapping("/stats")
+    @PresupuestoSentencias(1)
+    public EstadisticasVentas estadisticas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "dia") String agrupar,
+            @RequestParam(required = false) String pais,
+            @RequestParam(required = false) String provincia,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String metodoPago
+    ) {
+        return resumenVentasService.estadisticas(desde, hasta, agrupar, pais, provincia, estado, metodoPago);
+    }
+
+    // ============================================================
+    // EXPORTACIÓN CSV
+    // ============================================================
+    /**
+     * Descarga en CSV las ventas de un período con sus líneas de ticket, escritas a medida
+     * que se leen de la base. Se comprime con gzip si el cliente envía Accept-Encoding: gzip.
+     *
+     * @param desde primer día (yyyy-MM-dd), inclusive
+     * @param hasta último día (yyyy-MM-dd), inclusive
+     * @return archivo CSV adjunto, una fila por línea de ticket
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarCsv(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta
+    ) {
+        exportacionVentasService.validarPeriodo(desde, hasta);
+        StreamingResponseBody cuerpo = salida -> exportacionVentasService.exportarCsv(desde, hasta, salida);
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("ventas_" + desde + "_" + hasta + ".csv").build().toString())
+                .body(cuerpo);
+    }
+
+    // ============================================================
+    // HISTORIAL DE UN USUARIO (PAGINADO)
+    // ============================================================
+    /**
+     * Obtiene una página de las compras de un usuario, de la más nueva a la más vieja.
+     * Para pedir la página siguiente se envía el {@code siguienteCursor} de la
+     * respuesta anterior manteniendo los mismos filtros.
+     *
+     * @param usuarioId ID del usuario
+     * @param estado    estado a filtrar (opcional)
+     * @param desde     primer día (yyyy-MM-dd), inclusive (opcional)
+     * @param hasta     último día (yyyy-MM-dd), inclusive (opcional)
+     * @param cursor    cursor de la página anterior (opcional)
+     * @param limite    tamaño de página (por defecto 20, máximo 100)
+     * @return ResponseEntity con la página de ventas
+     */
+    @GetMapping("/usuario/{usuarioId}")
+    @PresupuestoSentencias(2)
+    public ResponseEntity<PaginaCursor<VentaResumen>> getHistorialUsuario(
+            @PathVariable Integer usuarioId,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite
+    ) {
+        return ResponseEntity.ok(
+                ventaService.historialUsuario(usuarioId, estado, desde, hasta, cursor, limite));
     }
 
     // ============================================================
@@ -38,7 +154,8 @@ public class TicketController {
      * @return venta encontrada
      */
     @GetMapping("/{id}")
-    public Venta getById(@PathVariable Integer id) {
+    @PresupuestoSentencias(1)
+    public VentaResumen getById(@PathVariable Integer id) {
         return ventaService.getById(id);
     }
 
@@ -54,8 +171,8 @@ public class TicketController {
      * @return venta creada
      */
     @PostMapping
-    public Venta create(@RequestBody Venta venta) {
-        return ventaService.create(venta);
+    public VentaResumen create(@RequestBody Venta venta) {
+        return VentaResumen.desde(ventaService.create(venta));
     }
 
     // ============================================================
@@ -69,8 +186,8 @@ public class TicketController {
      * @return venta actualizada
      */
     @PutMapping("/{id}")
-    public Venta update(@PathVariable Integer id, @RequestBody Venta ventaData) {
-        return ventaService.update(id, ventaData);
+    public VentaResumen update(@PathVariable Integer id, @RequestBody Venta ventaData) {
+        return VentaResumen.desde(ventaService.update(id, ventaData));
     }
 
     // ============================================================
@@ -92,19 +209,25 @@ public class TicketController {
     /**
      * Agrega un producto a un ticket ya existente.
      * También descuenta el stock y recalcula el total de la venta.
+     * Si se envía el header Idempotency-Key, los reintentos con la misma clave
+     * devuelven la respuesta original sin volver a descontar stock.
      *
-     * @param ventaId    ID de la venta
-     * @param productoId ID del producto a agregar
-     * @param cantidad   cantidad solicitada
+     * @param ventaId        ID de la venta
+     * @param productoId     ID del producto a agregar
+     * @param cantidad       cantidad solicitada
+     * @param idempotencyKey clave de idempotencia opcional
      * @return relación producto-ticket creada
      */
     @PostMapping("/{ventaId}/agregar-producto")
-    public ProductoTicket agregarProducto(
+    public LineaTicket agregarProducto(
             @PathVariable Integer ventaId,
             @RequestParam Integer productoId,
-            @RequestParam int cantidad
+            @RequestParam int cantidad,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
     ) {
-        return ventaService.agregarProducto(ventaId, productoId, cantidad);
+        return idempotenciaService.ejecutar("agregar-producto", idempotencyKey,
+                ventaId + ":" + productoId + ":" + cantidad,
+                () -> LineaTicket.desde(ventaService.agregarProducto(ventaId, productoId, cantidad)));
     }
 
     // ============================================================
@@ -120,12 +243,12 @@ public class TicketController {
      * @return venta actualizada
      */
     @PutMapping("/{ventaId}/actualizar-total")
-    public Venta actualizarTotal(
+    public VentaResumen actualizarTotal(
             @PathVariable Integer ventaId,
             @RequestParam int cantidad,
             @RequestParam double precioUnitario
     ) {
-        return ventaService.updateTotal(ventaId, cantidad, precioUnitario);
+        return VentaResumen.desde(ventaService.updateTotal(ventaId, cantidad, precioUnitario));
     }
 
     // ============================================================
@@ -140,15 +263,81 @@ public class TicketController {
      * - Registrar productos en la tabla ProductoTicket
      * - Vaciar el carrito
      *
-     * @param carritoId ID del carrito a procesar
-     * @param usuarioId ID del usuario que realiza la compra
+     * Si se envía el header Idempotency-Key, los reintentos con la misma clave
+     * devuelven la venta original en lugar de generar otra, y si la primera
+     * petición sigue en curso esperan a que termine.
+     *
+     * @param carritoId      ID del carrito a procesar
+     * @param usuarioId      ID del usuario que realiza la compra
+     * @param idempotencyKey clave de idempotencia opcional
      * @return venta generada
      */
     @PostMapping("/pago")
-    public Venta realizarPago(
+    @PresupuestoSentencias(8)
+    public VentaResumen realizarPago(
             @RequestParam Integer carritoId,
-            @RequestParam Integer usuarioId
+            @RequestParam Integer usuarioId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
+        return idempotenciaService.ejecutar("pago", idempotencyKey, carritoId + ":" + usuarioId,
+                () -> VentaResumen.desde(ventaService.realizarPago(carritoId, usuarioId)));
+    }
+
+    // ============================================================
+    // REALIZAR PAGO ASÍNCRONO
+    // ============================================================
+    /**
+     * Encola el pago de un carrito y responde de inmediato con 202 Accepted.
+     * El pago se procesa en segundo plano; su estado se consulta en
+     * /apiMarket/ticket/{id}/estado (indicado también en el header Location).
+     * Si la cola de pagos está llena responde 429 con el header Retry-After.
+     *
+     * Con el header Idempotency-Key, los reintentos devuelven el mismo trabajo
+     * en lugar de encolar otro pago.
+     *
+     * @param carritoId      ID del carrito a procesar
+     * @param usuarioId      ID del usuario que realiza la compra
+     * @param idempotencyKey clave de idempotencia opcional
+     * @return estado inicial del pago (EN_COLA)
+     */
+    @PostMapping("/pago/async")
+    public ResponseEntity<?> realizarPagoAsync(
+            @RequestParam Integer carritoId,
+            @RequestParam Integer usuarioId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
+        try {
+            EstadoPago estado = idempotenciaService.ejecutar("pago-async", idempotencyKey,
+                    carritoId + ":" + usuarioId,
+                    () -> pagoAsincronoService.encolar(carritoId, usuarioId));
+            return ResponseEntity.accepted()
+                    .location(URI.create("/apiMarket/ticket/" + estado.id() + "/estado"))
+                    .body(estado);
+        } catch (ServicioSaturadoException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "1")
+                    .body(e.getMessage());
+        }
+    }
+
+    // ============================================================
+    // ESTADO DE PAGO ASÍNCRONO
+    // ============================================================
+    /**
+     * Consulta el estado de un pago asíncrono. Con esperaMs mayor a 0 la respuesta
+     * se demora hasta que el pago termine o venza la espera (long-polling), sin
+     * ocupar un hilo del servidor mientras tanto.
+     *
+     * @param id       identificador del pago devuelto por /pago/async
+     * @param esperaMs tiempo máximo de espera en milisegundos (máximo 25000)
+     * @return estado del pago
+     */
+    @GetMapping("/{id}/estado")
+    public CompletableFuture<EstadoPago> estadoPago(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") long esperaMs
     ) {
-        return ventaService.realizarPago(carritoId, usuarioId);
+        long espera = Math.min(Math.max(esperaMs, 0), ESPERA_MAXIMA_MS);
+        return pagoAsincronoService.esperar(id, Duration.ofMillis(espera));
     }
 }
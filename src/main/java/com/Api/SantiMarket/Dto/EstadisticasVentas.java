@@ -0,0 +1,18 @@
+package com.Api.SantiMarket.Dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Estadísticas de ventas de un período, calculadas sobre el resumen diario.
+ *
+ * @param desde      primer día del período, inclusive
+ * @param hasta      último día del período, inclusive
+ * @param agrupacion criterio de agrupación de {@code grupos}
+ * @param ventas     cantidad total de ventas del período
+ * @param ingresos   suma de los totales del período
+ * @param grupos     ventas e ingresos por grupo
+ */
+public record EstadisticasVentas(LocalDate desde, LocalDate hasta, String agrupacion, long ventas,
+                                 double ingresos, List<GrupoVentas> grupos) {
+}
@@ -0,0 +1,14 @@
+package com.Api.SantiMarket.Dto;
+
+import java.util.List;
+
+/**
+ * Estado del modo flash de un producto.
+ *
+ * @param productoId ID del producto
+ * @param activo     true si el stock del producto está repartido en shards
+ * @param stockTotal suma del stock de todos los shards
+ * @param shards     stock de cada shard, en orden
+ */
+public record EstadoFlash(Integer productoId, boolean activo, int stockTotal, List<Integer> shards) {
+}
@@ -0,0 +1,23 @@
+package com.Api.SantiMarket.Dto;
+
+/**
+ * Estado de un pago procesado de forma asíncrona.
+ *
+ * @param id      identificador del trabajo de pago
+ * @param estado  etapa actual del trabajo
+ * @param ventaId ID de la venta generada (solo cuando el estado es COMPLETADO)
+ * @param error   motivo del fallo (solo cuando el estado es ERROR)
+ */
+public record EstadoPago(String id, Etapa estado, Integer ventaId, String error) {
+
+    public enum Etapa {
+        EN_COLA,
+        PROCESANDO,
+        COMPLETADO,
+        ERROR
+    }
+
+    public boolean terminado() {
+        return estado == Etapa.COMPLETADO || estado == Etapa.ERROR;
+    }
+}
@@ -0,0 +1,12 @@
+package com.Api.SantiMarket.Dto;
+
+/**
+ * Ventas e ingresos de un grupo dentro de las estadísticas de un período.
+ *
+ * @param clave    valor de la agrupación (día en formato ISO, país, provincia, estado o
+ *                 método de pago); null para las ventas sin ese dato
+ * @param ventas   cantidad de ventas
+ * @param ingresos suma de los totales
+ */
+public record GrupoVentas(String clave, long ventas, double ingresos) {
+}
@@ -0,0 +1,11 @@
+package com.Api.SantiMarket.Dto;
+
+/**
+ * Ingresos acumulados de una categoría, según la categoría del producto al momento de cada venta.
+ *
+ * @param categoria categoría (null para los productos sin categoría)
+ * @param unidades  unidades vendidas
+ * @param ingresos  suma de los subtotales de sus líneas
+ */
+public record IngresoCategoria(String categoria, long unidades, double ingresos) {
+}
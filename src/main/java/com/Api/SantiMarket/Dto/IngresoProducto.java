@@ -0,0 +1,11 @@
+package com.Api.SantiMarket.Dto;
+
+/**
+ * Ingresos acumulados de un producto, calculados con el precio cobrado en cada línea de ticket.
+ *
+ * @param productoId ID del producto
+ * @param unidades   unidades vendidas
+ * @param ingresos   suma de los subtotales de sus líneas
+ */
+public record IngresoProducto(Integer productoId, long unidades, double ingresos) {
+}
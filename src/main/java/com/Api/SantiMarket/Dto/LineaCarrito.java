@@ -0,0 +1,27 @@
+package com.Api.SantiMarket.Dto;
+
+import com.Api.SantiMarket.Entities.ProductoCarrito;
+import com.Api.SantiMarket.Entities.Productos;
+
+/**
+ * Línea de un carrito con los datos del producto necesarios para mostrarla.
+ *
+ * @param id         ID de la línea
+ * @param carritoId  ID del carrito
+ * @param productoId ID del producto
+ * @param codigo     código del producto
+ * @param nombre     nombre del producto
+ * @param imagen     imagen del producto
+ * @param precio     precio del producto
+ * @param cantidad   unidades en el carrito
+ */
+public record LineaCarrito(Integer id, Integer carritoId, Integer productoId, String codigo, String nombre,
+                           String imagen, double precio, Integer cantidad) {
+
+    public static LineaCarrito desde(ProductoCarrito linea) {
+        Productos producto = linea.getProducto();
+        return new LineaCarrito(linea.getId(), linea.getCarrito().getId(), producto.getId(),
+                producto.getCodigo(), producto.getNombre(), producto.getImagen(), producto.getPrecio(),
+                linea.getCantidad());
+    }
+}
@@ -0,0 +1,27 @@
+package com.Api.SantiMarket.Dto;
+
+import com.Api.SantiMarket.Entities.ProductoTicket;
+import com.Api.SantiMarket.Entities.Productos;
+
+/**
+ * Línea de un ticket con los datos del producto necesarios para mostrarla.
+ *
+ * @param id         ID de la línea
+ * @param ventaId    ID de la venta
+ * @param productoId ID del producto
+ * @param codigo     código del producto
+ * @param nombre     nombre del producto
+ * @param precio     precio unitario cobrado en la venta
+ * @param cantidad   unidades vendidas
+ * @param subtotal   precio por cantidad
+ */
+public record LineaTicket(Integer id, Integer ventaId, Integer productoId, String codigo, String nombre,
+                          double precio, int cantidad, double subtotal) {
+
+    public static LineaTicket desde(ProductoTicket linea) {
+        Productos producto = linea.getProducto();
+        return new LineaTicket(linea.getId(), linea.getVenta().getId(), producto.getId(),
+                producto.getCodigo(), producto.getNombre(), linea.getPrecioUnitario(), linea.getCantidad(),
+                linea.getSubtotal());
+    }
+}
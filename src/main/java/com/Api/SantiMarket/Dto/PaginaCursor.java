@@ -0,0 +1,47 @@
+package com.Api.SantiMarket.Dto;
+
+import com.Api.SantiMarket.Exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Página de resultados obtenida con paginación por cursor (keyset).
+ *
+ * @param items           elementos de la página actual
+ * @param siguienteCursor cursor opaco para pedir la página siguiente (null si no hay más)
+ * @param hayMas          indica si existen más resultados después de esta página
+ */
+public record PaginaCursor<T>(List<T> items, String siguienteCursor, boolean hayMas) {
+
+    /**
+     * Codifica la última clave de orden y el último ID de una página en un cursor opaco.
+     */
+    public static String codificar(String clave, Integer id) {
+        String valor = clave + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor en [clave, id]. Devuelve null si no se envió cursor.
+     *
+     * @throws BadRequestException si el cursor no tiene el formato esperado
+     */
+    public static String[] decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\|", -1);
+            if (partes.length != 2) {
+                throw new BadRequestException("Cursor inválido.");
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor inválido.");
+        }
+    }
+}
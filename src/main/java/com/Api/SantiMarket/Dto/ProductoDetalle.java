@@ -0,0 +1,30 @@
+package com.Api.SantiMarket.Dto;
+
+import com.Api.SantiMarket.Entities.Productos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Copia inmutable de un producto, con los mismos campos que su JSON. Es lo que guarda
+ * la caché de productos: quien la lee no puede modificar el valor compartido ni
+ * arrastra una entidad desconectada de su sesión.
+ *
+ * @param id            ID del producto
+ * @param codigo        código del producto
+ * @param nombre        nombre del producto
+ * @param descripcion   descripción del producto
+ * @param precio        precio actual
+ * @param imagen        imagen del producto
+ * @param fechaCreacion fecha de alta (null en productos anteriores a su registro)
+ * @param categoria     categoría del producto
+ * @param stock         stock al momento de la lectura
+ */
+public record ProductoDetalle(Integer id, String codigo, String nombre, String descripcion, double precio,
+                              String imagen, LocalDateTime fechaCreacion, String categoria, int stock) {
+
+    public static ProductoDetalle desde(Productos producto) {
+        return new ProductoDetalle(producto.getId(), producto.getCodigo(), producto.getNombre(),
+                producto.getDescripcion(), producto.getPrecio(), producto.getImagen(),
+                producto.getFechaCreacion(), producto.getCategoria(), producto.getStock());
+    }
+}
@@ -0,0 +1,13 @@
+package com.Api.SantiMarket.Dto;
+
+/**
+ * Posición de un producto en el ranking de más vendidos. Las unidades son una estimación
+ * que nunca queda por debajo de las reales: las reales están entre unidades - error y unidades.
+ *
+ * @param productoId ID del producto
+ * @param nombre     nombre del producto
+ * @param unidades   unidades vendidas en la ventana (cota superior)
+ * @param error      sobreestimación máxima de unidades
+ */
+public record ProductoMasVendido(Integer productoId, String nombre, long unidades, long error) {
+}
@@ -0,0 +1,13 @@
+package com.Api.SantiMarket.Dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Unidades de un producto vendidas en una línea de ticket, con la fecha de su venta.
+ *
+ * @param productoId ID del producto
+ * @param cantidad   unidades vendidas
+ * @param fecha      fecha de creación de la venta
+ */
+public record UnidadesVendidas(Integer productoId, int cantidad, LocalDateTime fecha) {
+}
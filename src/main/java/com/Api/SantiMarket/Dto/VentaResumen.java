@@ -0,0 +1,36 @@
+package com.Api.SantiMarket.Dto;
+
+import com.Api.SantiMarket.Entities.Venta;
+
+import java.time.LocalDateTime;
+
+/**
+ * Venta tal como la devuelven los endpoints de /apiMarket/ticket. Del usuario
+ * solo se expone el ID: nunca sus datos personales ni el hash de la contraseña.
+ *
+ * @param id            ID de la venta
+ * @param descripcion   descripción libre
+ * @param estado        estado de la venta
+ * @param fechaCreacion fecha de creación
+ * @param ciudad        ciudad de entrega
+ * @param provincia     provincia de entrega
+ * @param pais          país de entrega
+ * @param metodoPago    método de pago
+ * @param total         total de la venta
+ * @param usuarioId     ID del usuario que compró
+ */
+public record VentaResumen(Integer id, String descripcion, String estado, LocalDateTime fechaCreacion,
+                           String ciudad, String provincia, String pais, String metodoPago,
+                           Double total, Integer usuarioId) {
+
+    /**
+     * Arma el resumen desde la entidad. El ID del usuario sale de la clave foránea,
+     * así que no inicializa el usuario si está sin cargar.
+     */
+    public static VentaResumen desde(Venta venta) {
+        return new VentaResumen(venta.getId(), venta.getDescripcion(), venta.getEstado(),
+                venta.getFechaCreacion(), venta.getCiudad(), venta.getProvincia(), venta.getPais(),
+                venta.getMetodoPago(), venta.getTotal(),
+                venta.getUsuario() == null ? null : venta.getUsuario().getId());
+    }
+}
@@ -5,7 +5,11 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 @Entity
-@Table(name = "ProductoCarrito")
+@Table(name = "ProductoCarrito", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_producto_carrito_carrito_producto", columnNames = {"carrito_id", "producto_id"})
+}, indexes = {
+        @Index(name = "idx_producto_carrito_producto", columnList = "producto_id")
+})
 @Data
 @EqualsAndHashCode
 public class ProductoCarrito {
@@ -15,11 +19,11 @@ public class ProductoCarrito {
     private Integer id;
     private Integer cantidad;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "producto_id", nullable = false)
     private Productos producto;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "carrito_id",nullable = false)
     private CarritoCompras carrito;
 
@@ -5,7 +5,12 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 @Entity
-@Table(name = "ProductoTicket")
+@Table(name = "ProductoTicket", indexes = {
+        @Index(name = "idx_producto_ticket_venta", columnList = "venta_id"),
+        @Index(name = "idx_producto_ticket_producto", columnList = "producto_id"),
+        @Index(name = "idx_producto_ticket_producto_ingresos", columnList = "producto_id, cantidad, subtotal"),
+        @Index(name = "idx_producto_ticket_categoria", columnList = "categoria, cantidad, subtotal")
+})
 @Data
 @EqualsAndHashCode
 public class ProductoTicket {
@@ -16,11 +21,30 @@ public class ProductoTicket {
 
     private int cantidad;
 
-    @ManyToOne
+    // Precio y categoría del producto al momento de la venta; no cambian si después cambia el producto
+    private double precioUnitario;
+    private double subtotal;
+    private String categoria;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "producto_id",nullable = false)
     private Productos producto;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "venta_id",nullable = false)
     private Venta venta;
+
+    /**
+     * Crea una línea de la venta con el precio y la categoría actuales del producto.
+     */
+    public static ProductoTicket de(Venta venta, Productos producto, int cantidad) {
+        ProductoTicket linea = new ProductoTicket();
+        linea.setVenta(venta);
+        linea.setProducto(producto);
+        linea.setCantidad(cantidad);
+        linea.setPrecioUnitario(producto.getPrecio());
+        linea.setCategoria(producto.getCategoria());
+        linea.setSubtotal(producto.getPrecio() * cantidad);
+        return linea;
+    }
 }
@@ -1,15 +1,26 @@
 package com.Api.SantiMarket.Entities;
 
+import com.Api.SantiMarket.Config.CacheConfig;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "Productos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.REGION_PRODUCTOS)
+@Table(name = "Productos", indexes = {
+        @Index(name = "idx_productos_categoria_id", columnList = "categoria, id"),
+        @Index(name = "idx_productos_precio_id", columnList = "precio, id"),
+        @Index(name = "idx_productos_categoria_precio_id", columnList = "categoria, precio, id"),
+        @Index(name = "idx_productos_fecha_creacion_id", columnList = "fecha_creacion, id"),
+        @Index(name = "idx_productos_codigo", columnList = "codigo")
+})
 @Data
 @EqualsAndHashCode
 
@@ -30,6 +41,11 @@ public class Productos {
 
     private int stock;
 
+    // Lo escribe StockFlashService por JDBC; la entidad solo lo usa en las consultas
+    @Column(name = "modo_flash", insertable = false, updatable = false)
+    @JsonIgnore
+    private boolean modoFlash;
+
     @OneToMany(mappedBy = "producto", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
     private List<ProductoCarrito> productoCarrito;
@@ -0,0 +1,28 @@
+package com.Api.SantiMarket.Entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+// Porción del stock de un producto en modo flash: el stock se reparte en varias
+// filas para que los pagos concurrentes no se bloqueen sobre la misma fila
+@Entity
+@Table(name = "StockShard", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_shard_producto_shard", columnNames = {"producto_id", "shard"})
+})
+@Data
+@EqualsAndHashCode
+public class StockShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_shard_seq")
+    @SequenceGenerator(name = "stock_shard_seq", sequenceName = "stock_shard_seq", allocationSize = 50)
+    private Integer id;
+
+    @Column(name = "producto_id", nullable = false)
+    private Integer productoId;
+
+    @Column(nullable = false)
+    private int shard;
+
+    private int stock;
+}
@@ -1,15 +1,20 @@
 package com.Api.SantiMarket.Entities;
 
 
+import com.Api.SantiMarket.Config.CacheConfig;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.REGION_USUARIOS)
 @Table(name = "usuarios")
 @Data
 @EqualsAndHashCode
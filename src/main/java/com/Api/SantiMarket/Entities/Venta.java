@@ -9,7 +9,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "venta")
+@Table(name = "venta", indexes = {
+        @Index(name = "idx_venta_usuario", columnList = "usuario_id"),
+        @Index(name = "idx_venta_fecha_creacion", columnList = "fecha_creacion"),
+        @Index(name = "idx_venta_usuario_fecha_id", columnList = "usuario_id, fecha_creacion, id"),
+        @Index(name = "idx_venta_usuario_estado_fecha_id", columnList = "usuario_id, estado, fecha_creacion, id")
+})
 @Data
 @EqualsAndHashCode
 public class Venta {
@@ -29,7 +34,7 @@ public class Venta {
 
     private Double total;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     private Usuarios usuario;
 
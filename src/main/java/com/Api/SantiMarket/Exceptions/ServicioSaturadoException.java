@@ -0,0 +1,7 @@
+package com.Api.SantiMarket.Exceptions;
+
+public class ServicioSaturadoException extends RuntimeException {
+    public ServicioSaturadoException(String message) {
+        super(message);
+    }
+}
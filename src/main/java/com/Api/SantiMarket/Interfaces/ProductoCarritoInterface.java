@@ -1,19 +1,50 @@
 package com.Api.SantiMarket.Interfaces;
 
+import com.Api.SantiMarket.Dto.LineaCarrito;
 import com.Api.SantiMarket.Entities.ProductoCarrito;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface ProductoCarritoInterface extends JpaRepository<ProductoCarrito, Integer> {
 
-    List<ProductoCarrito> findByCarrito_Id(Integer carritoId);
-
-    void deleteByCarrito_Id(Integer carritoId);
+    // Carga las líneas del carrito con su producto, el carrito y su usuario en una sola consulta
+    @Query("""
+            SELECT pc FROM ProductoCarrito pc
+            JOIN FETCH pc.producto
+            JOIN FETCH pc.carrito c
+            LEFT JOIN FETCH c.usuario
+            WHERE c.id = :carritoId
+            """)
+    List<ProductoCarrito> findByCarritoIdConProductos(@Param("carritoId") Integer carritoId);
+
+    // Borra todas las líneas del carrito en una sola sentencia
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM ProductoCarrito pc WHERE pc.carrito.id = :carritoId")
+    void deleteByCarrito_Id(@Param("carritoId") Integer carritoId);
 
     Optional<ProductoCarrito> findByCarritoIdAndProductoId(Integer carritoId, Integer productoId);
 
+    // Línea + columnas del producto en una sola consulta, sin cargar el carrito ni su usuario
+    String SELECT_LINEA = """
+            SELECT new com.Api.SantiMarket.Dto.LineaCarrito(
+                pc.id, pc.carrito.id, p.id, p.codigo, p.nombre, p.imagen, p.precio, pc.cantidad)
+            FROM ProductoCarrito pc JOIN pc.producto p
+            """;
+
+    @Query(SELECT_LINEA + "ORDER BY pc.id")
+    List<LineaCarrito> findLineas();
+
+    @Query(SELECT_LINEA + "WHERE pc.id = :id")
+    Optional<LineaCarrito> findLineaById(@Param("id") Integer id);
+
+    @Query(SELECT_LINEA + "WHERE pc.carrito.id = :carritoId ORDER BY pc.id")
+    List<LineaCarrito> findLineasByCarritoId(@Param("carritoId") Integer carritoId);
+
 
 }
@@ -1,10 +1,70 @@
 package com.Api.SantiMarket.Interfaces;
 
+import com.Api.SantiMarket.Dto.IngresoCategoria;
+import com.Api.SantiMarket.Dto.IngresoProducto;
+import com.Api.SantiMarket.Dto.LineaTicket;
+import com.Api.SantiMarket.Dto.UnidadesVendidas;
 import com.Api.SantiMarket.Entities.ProductoTicket;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductoTicketInterface extends JpaRepository<ProductoTicket, Integer> {
     List<ProductoTicket> findByVenta_Id(Integer ventaId);
+
+    // Línea + columnas del producto en una sola consulta, sin cargar la venta ni su usuario.
+    // El precio es el cobrado en la venta, no el actual del producto.
+    String SELECT_LINEA = """
+            SELECT new com.Api.SantiMarket.Dto.LineaTicket(
+                pt.id, pt.venta.id, p.id, p.codigo, p.nombre, pt.precioUnitario, pt.cantidad, pt.subtotal)
+            FROM ProductoTicket pt JOIN pt.producto p
+            """;
+
+    // Recorre todas las líneas de a bloques del cursor JDBC; hay que cerrarlo dentro de la transacción
+    @Query(SELECT_LINEA + "ORDER BY pt.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<LineaTicket> streamLineas();
+
+    @Query(SELECT_LINEA + "WHERE pt.id = :id")
+    Optional<LineaTicket> findLineaById(@Param("id") Integer id);
+
+    @Query(SELECT_LINEA + "WHERE pt.venta.id = :ventaId ORDER BY pt.id")
+    List<LineaTicket> findLineasByVentaId(@Param("ventaId") Integer ventaId);
+
+    // Ingresos por producto y por categoría solo con columnas de producto_ticket: se resuelven
+    // recorriendo los índices (producto_id | categoria, cantidad, subtotal), sin JOIN
+    @Query("""
+            SELECT new com.Api.SantiMarket.Dto.IngresoProducto(pt.producto.id, SUM(pt.cantidad), SUM(pt.subtotal))
+            FROM ProductoTicket pt
+            GROUP BY pt.producto.id
+            ORDER BY SUM(pt.subtotal) DESC, pt.producto.id
+            """)
+    List<IngresoProducto> sumarIngresosPorProducto(Limit limite);
+
+    @Query("""
+            SELECT new com.Api.SantiMarket.Dto.IngresoCategoria(pt.categoria, SUM(pt.cantidad), SUM(pt.subtotal))
+            FROM ProductoTicket pt
+            GROUP BY pt.categoria
+            ORDER BY SUM(pt.subtotal) DESC
+            """)
+    List<IngresoCategoria> sumarIngresosPorCategoria();
+
+    // Unidades vendidas desde una fecha (índice venta(fecha_creacion)), para reconstruir el
+    // ranking de más vendidos al iniciar; hay que cerrarlo dentro de la transacción
+    @Query("""
+            SELECT new com.Api.SantiMarket.Dto.UnidadesVendidas(pt.producto.id, pt.cantidad, v.fechaCreacion)
+            FROM ProductoTicket pt JOIN pt.venta v
+            WHERE v.fechaCreacion >= :desde
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<UnidadesVendidas> streamUnidadesVendidasDesde(@Param("desde") LocalDateTime desde);
 }
@@ -1,7 +1,119 @@
 package com.Api.SantiMarket.Interfaces;
 
 import com.Api.SantiMarket.Entities.Productos;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface ProductosInterface extends JpaRepository<Productos, Integer> {
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ProductosInterface extends JpaRepository<Productos, Integer>, ProductosStockInterface,
+        ReservaStockInterface {
+
+    // Descuenta stock en una sola sentencia solo si alcanza para la cantidad pedida
+    // y quedan al menos las unidades reservadas por otros carritos.
+    // Devuelve 1 si se descontó y 0 si el stock era insuficiente, el producto está
+    // en modo flash o no existe.
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE Productos p SET p.stock = p.stock - :cantidad
+            WHERE p.id = :id AND p.stock - :cantidad >= :reservado AND p.modoFlash = false
+            """)
+    int descontarStock(@Param("id") Integer id, @Param("cantidad") int cantidad, @Param("reservado") int reservado);
+
+    default int descontarStock(Integer id, int cantidad) {
+        return descontarStock(id, cantidad, 0);
+    }
+
+    // Lee el producto bloqueando su fila hasta el fin de la transacción
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Productos p WHERE p.id = :id")
+    Optional<Productos> findByIdParaActualizar(@Param("id") Integer id);
+
+    // Paginación keyset ordenada por id ascendente (índice productos(categoria, id) / PK)
+    @Query("""
+            SELECT p FROM Productos p
+            WHERE (:categoria IS NULL OR p.categoria = :categoria)
+              AND p.precio BETWEEN :precioMin AND :precioMax
+              AND p.id > :ultimoId
+            ORDER BY p.id ASC
+            """)
+    List<Productos> findPaginaPorId(@Param("categoria") String categoria,
+                                    @Param("precioMin") double precioMin,
+                                    @Param("precioMax") double precioMax,
+                                    @Param("ultimoId") Integer ultimoId,
+                                    Limit limite);
+
+    // Paginación keyset ordenada por (precio, id) ascendente (índice productos(precio, id))
+    @Query("""
+            SELECT p FROM Productos p
+            WHERE (:categoria IS NULL OR p.categoria = :categoria)
+              AND p.precio BETWEEN :precioMin AND :precioMax
+              AND (p.precio > :ultimoPrecio OR (p.precio = :ultimoPrecio AND p.id > :ultimoId))
+            ORDER BY p.precio ASC, p.id ASC
+            """)
+    List<Productos> findPaginaPorPrecio(@Param("categoria") String categoria,
+                                        @Param("precioMin") double precioMin,
+                                        @Param("precioMax") double precioMax,
+                                        @Param("ultimoPrecio") double ultimoPrecio,
+                                        @Param("ultimoId") Integer ultimoId,
+                                        Limit limite);
+
+    // Paginación keyset ordenada por (fechaCreacion, id) descendente: primero los más nuevos
+    @Query("""
+            SELECT p FROM Productos p
+            WHERE (:categoria IS NULL OR p.categoria = :categoria)
+              AND p.precio BETWEEN :precioMin AND :precioMax
+              AND (p.fechaCreacion < :ultimaFecha OR (p.fechaCreacion = :ultimaFecha AND p.id < :ultimoId))
+            ORDER BY p.fechaCreacion DESC, p.id DESC
+            """)
+    List<Productos> findPaginaPorFecha(@Param("categoria") String categoria,
+                                       @Param("precioMin") double precioMin,
+                                       @Param("precioMax") double precioMax,
+                                       @Param("ultimaFecha") LocalDateTime ultimaFecha,
+                                       @Param("ultimoId") Integer ultimoId,
+                                       Limit limite);
+
+    // Continuación de la paginación por fecha con los productos sin fecha de creación,
+    // por id descendente (mismo índice productos(fecha_creacion, id))
+    @Query("""
+            SELECT p FROM Productos p
+            WHERE (:categoria IS NULL OR p.categoria = :categoria)
+              AND p.precio BETWEEN :precioMin AND :precioMax
+              AND p.fechaCreacion IS NULL AND p.id < :ultimoId
+            ORDER BY p.id DESC
+            """)
+    List<Productos> findPaginaSinFecha(@Param("categoria") String categoria,
+                                       @Param("precioMin") double precioMin,
+                                       @Param("precioMax") double precioMax,
+                                       @Param("ultimoId") Integer ultimoId,
+                                       Limit limite);
+
+    // Lectura para validar stock: no pasa por la caché de segundo nivel, que es local a cada
+    // instancia y puede conservar el stock previo a una venta hecha en otra
+    @Query("SELECT p FROM Productos p WHERE p.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    Optional<Productos> findByIdSinCache(@Param("id") Integer id);
+
+    // Catálogo completo para exportar: entidades de solo lectura que no pasan por la caché
+    // de segundo nivel, así un recorrido entero no desplaza a los productos más consultados
+    @Query("SELECT p FROM Productos p ORDER BY p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    Stream<Productos> streamCatalogo();
 }
@@ -0,0 +1,45 @@
+package com.Api.SantiMarket.Interfaces;
+
+import java.util.List;
+
+/**
+ * Operaciones de stock que se ejecutan en lote por JDBC, fuera del ciclo de
+ * vida de las entidades. Se combina con {@link ProductosInterface}.
+ */
+public interface ProductosStockInterface {
+
+    /**
+     * Línea de descuento de stock: producto, cantidad a descontar y unidades que
+     * deben quedar después del descuento porque están reservadas por otros carritos.
+     */
+    record LineaStock(Integer productoId, int cantidad, int reservadoPorOtros) {
+
+        public LineaStock(Integer productoId, int cantidad) {
+            this(productoId, cantidad, 0);
+        }
+    }
+
+    /**
+     * Descuenta stock de varias líneas en un único batch JDBC. Cada línea es un
+     * UPDATE condicional que solo se aplica si el stock alcanza para la cantidad
+     * pedida sin tocar lo reservado por otros carritos.
+     *
+     * @param lineas líneas a descontar, idealmente ordenadas por ID de producto
+     * @return por cada línea, 1 si se descontó y 0 si el stock era insuficiente o
+     *         el producto está en modo flash
+     */
+    int[] descontarStockEnLote(List<LineaStock> lineas);
+
+    /**
+     * Marca o desmarca el modo flash del producto (columna modo_flash), visible para
+     * todas las instancias en cuanto se confirma la transacción.
+     */
+    void marcarModoFlash(Integer productoId, boolean activo);
+
+    /**
+     * Lee el modo flash del producto de la base, sin pasar por ninguna caché.
+     *
+     * @return true si está en modo flash, false si no o si el producto no existe
+     */
+    boolean esModoFlash(Integer productoId);
+}
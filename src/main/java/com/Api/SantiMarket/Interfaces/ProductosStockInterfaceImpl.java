@@ -0,0 +1,61 @@
+package com.Api.SantiMarket.Interfaces;
+
+import com.Api.SantiMarket.Config.ContadorSentencias;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+public class ProductosStockInterfaceImpl implements ProductosStockInterface {
+
+    private static final String DESCONTAR_STOCK_SQL =
+            "UPDATE productos SET stock = stock - ? WHERE id = ? AND stock >= ? AND modo_flash = FALSE";
+
+    private static final String MARCAR_MODO_FLASH_SQL = "UPDATE productos SET modo_flash = ? WHERE id = ?";
+
+    private static final String ES_MODO_FLASH_SQL = "SELECT modo_flash FROM productos WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductosStockInterfaceImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] descontarStockEnLote(List<LineaStock> lineas) {
+        if (lineas.isEmpty()) {
+            return new int[0];
+        }
+        // El batch viaja en un único round trip; Hibernate no lo ve, así que se cuenta a mano
+        ContadorSentencias.registrar(DESCONTAR_STOCK_SQL);
+        return jdbcTemplate.batchUpdate(DESCONTAR_STOCK_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                LineaStock linea = lineas.get(i);
+                ps.setInt(1, linea.cantidad());
+                ps.setInt(2, linea.productoId());
+                ps.setInt(3, linea.cantidad() + linea.reservadoPorOtros());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lineas.size();
+            }
+        });
+    }
+
+    @Override
+    public void marcarModoFlash(Integer productoId, boolean activo) {
+        ContadorSentencias.registrar(MARCAR_MODO_FLASH_SQL);
+        jdbcTemplate.update(MARCAR_MODO_FLASH_SQL, activo, productoId);
+    }
+
+    @Override
+    public boolean esModoFlash(Integer productoId) {
+        ContadorSentencias.registrar(ES_MODO_FLASH_SQL);
+        List<Boolean> resultado = jdbcTemplate.queryForList(ES_MODO_FLASH_SQL, Boolean.class, productoId);
+        return !resultado.isEmpty() && Boolean.TRUE.equals(resultado.get(0));
+    }
+}
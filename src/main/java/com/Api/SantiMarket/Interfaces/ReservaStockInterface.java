@@ -0,0 +1,54 @@
+package com.Api.SantiMarket.Interfaces;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reservas de stock de los carritos (tabla reserva_stock), mantenidas por JDBC. Las
+ * consultas solo cuentan las reservas que vencen después del instante indicado. Se
+ * combina con {@link ProductosInterface}.
+ */
+public interface ReservaStockInterface {
+
+    /**
+     * Bloquea la fila del producto hasta el fin de la transacción y devuelve su stock,
+     * así las reservas de un mismo producto se validan de a una.
+     *
+     * @return stock del producto, vacío si no existe
+     */
+    Optional<Integer> bloquearStock(Integer productoId);
+
+    /**
+     * Unidades de un producto reservadas por carritos distintos al indicado.
+     *
+     * @param carritoId carrito a excluir, o null para contar todas las reservas
+     */
+    int sumarReservas(Integer productoId, Integer carritoId, LocalDateTime ahora);
+
+    /**
+     * Como {@link #sumarReservas} para varios productos en una sola consulta.
+     *
+     * @return unidades reservadas por producto; los productos sin reservas no aparecen
+     */
+    Map<Integer, Integer> sumarReservasEnLote(Collection<Integer> productoIds, Integer carritoId,
+                                              LocalDateTime ahora);
+
+    /**
+     * Crea o reemplaza la reserva de un carrito sobre un producto.
+     */
+    void guardarReserva(Integer productoId, Integer carritoId, int cantidad, LocalDateTime expiraEn);
+
+    /**
+     * Borra las reservas de un carrito sobre los productos indicados.
+     */
+    void borrarReservas(Integer carritoId, Collection<Integer> productoIds);
+
+    /**
+     * Borra las reservas que vencieron hasta el instante indicado.
+     *
+     * @return cantidad de reservas borradas
+     */
+    int borrarReservasVencidas(LocalDateTime ahora);
+}
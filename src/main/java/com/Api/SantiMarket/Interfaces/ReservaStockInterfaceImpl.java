@@ -0,0 +1,136 @@
+package com.Api.SantiMarket.Interfaces;
+
+import com.Api.SantiMarket.Config.ContadorSentencias;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class ReservaStockInterfaceImpl implements ReservaStockInterface {
+
+    private static final String BLOQUEAR_STOCK_SQL = "SELECT stock FROM productos WHERE id = ? FOR UPDATE";
+
+    private static final String SUMAR_SQL =
+            "SELECT COALESCE(SUM(cantidad), 0) FROM reserva_stock WHERE producto_id = ? AND expira_en > ?";
+
+    private static final String SUMAR_OTROS_SQL = SUMAR_SQL + " AND carrito_id <> ?";
+
+    // PostgreSQL: upsert atómico aunque dos transacciones creen la misma reserva a la vez
+    private static final String GUARDAR_POSTGRES_SQL = """
+            INSERT INTO reserva_stock (producto_id, carrito_id, cantidad, expira_en)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (producto_id, carrito_id)
+            DO UPDATE SET cantidad = EXCLUDED.cantidad, expira_en = EXCLUDED.expira_en
+            """;
+
+    // H2 (tests y benchmarks) no implementa ON CONFLICT ... DO UPDATE
+    private static final String GUARDAR_MERGE_SQL = """
+            MERGE INTO reserva_stock (producto_id, carrito_id, cantidad, expira_en)
+            KEY (producto_id, carrito_id)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private static final String BORRAR_VENCIDAS_SQL = "DELETE FROM reserva_stock WHERE expira_en <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public ReservaStockInterfaceImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<Integer> bloquearStock(Integer productoId) {
+        ContadorSentencias.registrar(BLOQUEAR_STOCK_SQL);
+        List<Integer> stock = jdbcTemplate.queryForList(BLOQUEAR_STOCK_SQL, Integer.class, productoId);
+        return stock.stream().findFirst();
+    }
+
+    @Override
+    public int sumarReservas(Integer productoId, Integer carritoId, LocalDateTime ahora) {
+        // Sentencias por JDBC que Hibernate no ve, así que se cuentan a mano
+        if (carritoId == null) {
+            ContadorSentencias.registrar(SUMAR_SQL);
+            return jdbcTemplate.queryForObject(SUMAR_SQL, Integer.class, productoId, Timestamp.valueOf(ahora));
+        }
+        ContadorSentencias.registrar(SUMAR_OTROS_SQL);
+        return jdbcTemplate.queryForObject(SUMAR_OTROS_SQL, Integer.class,
+                productoId, Timestamp.valueOf(ahora), carritoId);
+    }
+
+    @Override
+    public Map<Integer, Integer> sumarReservasEnLote(Collection<Integer> productoIds, Integer carritoId,
+                                                     LocalDateTime ahora) {
+        if (productoIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        StringBuilder sql = new StringBuilder("SELECT producto_id, SUM(cantidad) FROM reserva_stock WHERE producto_id IN (")
+                .append(marcadores(productoIds.size()))
+                .append(") AND expira_en > ?");
+        List<Object> parametros = new ArrayList<>(productoIds);
+        parametros.add(Timestamp.valueOf(ahora));
+        if (carritoId != null) {
+            sql.append(" AND carrito_id <> ?");
+            parametros.add(carritoId);
+        }
+        sql.append(" GROUP BY producto_id");
+
+        ContadorSentencias.registrar(sql.toString());
+        Map<Integer, Integer> reservadas = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            reservadas.put(rs.getInt(1), rs.getInt(2));
+        }, parametros.toArray());
+        return reservadas;
+    }
+
+    @Override
+    public void guardarReserva(Integer productoId, Integer carritoId, int cantidad, LocalDateTime expiraEn) {
+        String sql = esPostgres() ? GUARDAR_POSTGRES_SQL : GUARDAR_MERGE_SQL;
+        ContadorSentencias.registrar(sql);
+        jdbcTemplate.update(sql, productoId, carritoId, cantidad, Timestamp.valueOf(expiraEn));
+    }
+
+    @Override
+    public void borrarReservas(Integer carritoId, Collection<Integer> productoIds) {
+        if (productoIds.isEmpty()) {
+            return;
+        }
+        String sql = "DELETE FROM reserva_stock WHERE carrito_id = ? AND producto_id IN ("
+                + marcadores(productoIds.size()) + ")";
+        List<Object> parametros = new ArrayList<>(productoIds.size() + 1);
+        parametros.add(carritoId);
+        parametros.addAll(productoIds);
+
+        ContadorSentencias.registrar(sql);
+        jdbcTemplate.update(sql, parametros.toArray());
+    }
+
+    @Override
+    public int borrarReservasVencidas(LocalDateTime ahora) {
+        ContadorSentencias.registrar(BORRAR_VENCIDAS_SQL);
+        return jdbcTemplate.update(BORRAR_VENCIDAS_SQL, Timestamp.valueOf(ahora));
+    }
+
+    private static String marcadores(int cantidad) {
+        return String.join(", ", Collections.nCopies(cantidad, "?"));
+    }
+
+    private boolean esPostgres() {
+        Boolean resultado = postgres;
+        if (resultado == null) {
+            resultado = jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion ->
+                    conexion.isWrapperFor(PGConnection.class));
+            postgres = resultado;
+        }
+        return resultado;
+    }
+}
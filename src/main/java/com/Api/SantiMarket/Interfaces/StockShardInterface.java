@@ -0,0 +1,45 @@
+package com.Api.SantiMarket.Interfaces;
+
+import com.Api.SantiMarket.Entities.StockShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface StockShardInterface extends JpaRepository<StockShard, Integer> {
+
+    // Descuenta de un solo shard si alcanza. Devuelve 1 si se descontó y 0 si no.
+    @Modifying
+    @Query("""
+            UPDATE StockShard s SET s.stock = s.stock - :cantidad
+            WHERE s.productoId = :productoId AND s.shard = :shard AND s.stock >= :cantidad
+            """)
+    int descontar(@Param("productoId") Integer productoId,
+                  @Param("shard") int shard,
+                  @Param("cantidad") int cantidad);
+
+    // Bloquea todos los shards del producto, en orden, para descontar entre varios
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StockShard s WHERE s.productoId = :productoId ORDER BY s.shard")
+    List<StockShard> findParaActualizar(@Param("productoId") Integer productoId);
+
+    List<StockShard> findByProductoIdOrderByShard(Integer productoId);
+
+    // Stock total del producto sin bloquear los shards
+    @Query("SELECT COALESCE(SUM(s.stock), 0) FROM StockShard s WHERE s.productoId = :productoId")
+    int sumarStock(@Param("productoId") Integer productoId);
+
+    boolean existsByProductoId(Integer productoId);
+
+    // Productos en modo flash y cantidad de shards de cada uno
+    @Query("SELECT s.productoId, COUNT(s) FROM StockShard s GROUP BY s.productoId")
+    List<Object[]> contarPorProducto();
+
+    @Modifying
+    @Query("DELETE FROM StockShard s WHERE s.productoId = :productoId")
+    int deleteByProductoId(@Param("productoId") Integer productoId);
+}
@@ -1,11 +1,21 @@
 package com.Api.SantiMarket.Interfaces;
 
+import com.Api.SantiMarket.Config.CacheConfig;
 import com.Api.SantiMarket.Entities.Usuarios;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
 public interface UsuariosInterface extends JpaRepository<Usuarios, Integer> {
+
+    // Cache de consultas: se invalida sola cuando cambia la tabla usuarios
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.REGION_USUARIOS_EMAIL)
+    })
     Optional<Usuarios> findByEmail(String email);
 
 }
@@ -0,0 +1,74 @@
+package com.Api.SantiMarket.Interfaces;
+
+import com.Api.SantiMarket.Dto.GrupoVentas;
+import com.Api.SantiMarket.Entities.Venta;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Resumen diario de ventas (tabla venta_diaria), mantenido por JDBC con los cambios
+ * que ResumenVentasService junta en cada transacción. Se combina con {@link VentaInterface}.
+ */
+public interface VentaDiariaInterface {
+
+    /**
+     * Fila del resumen a la que suma una venta. Los datos faltantes se guardan como ''.
+     */
+    record ClaveVentaDiaria(LocalDate dia, String pais, String provincia, String estado, String metodoPago) {
+
+        /**
+         * @return la clave de la venta, o null si no tiene fecha de creación
+         */
+        public static ClaveVentaDiaria de(Venta venta) {
+            if (venta.getFechaCreacion() == null) {
+                return null;
+            }
+            return new ClaveVentaDiaria(venta.getFechaCreacion().toLocalDate(), valor(venta.getPais()),
+                    valor(venta.getProvincia()), valor(venta.getEstado()), valor(venta.getMetodoPago()));
+        }
+
+        private static String valor(String dato) {
+            return dato == null ? "" : dato;
+        }
+    }
+
+    /**
+     * Cambio a aplicar sobre una fila del resumen. Valores negativos restan.
+     */
+    record DeltaVentaDiaria(ClaveVentaDiaria clave, long ventas, double ingresos) {
+    }
+
+    /**
+     * Criterios de agrupación de las estadísticas y la columna de venta_diaria de cada uno.
+     */
+    enum AgrupacionVentas {
+        DIA("dia"), PAIS("pais"), PROVINCIA("provincia"), ESTADO("estado"), METODO_PAGO("metodo_pago");
+
+        final String columna;
+
+        AgrupacionVentas(String columna) {
+            this.columna = columna;
+        }
+    }
+
+    /**
+     * Suma cada cambio a su fila del resumen, creándola si no existe (upsert en un
+     * solo batch). Las filas se escriben en el orden recibido.
+     */
+    void acumularVentasDiarias(List<DeltaVentaDiaria> cambios);
+
+    /**
+     * Recalcula las filas de un día a partir de las ventas de ese día.
+     *
+     * @return cantidad de filas del resumen escritas para el día
+     */
+    int reconstruirVentaDiaria(LocalDate dia);
+
+    /**
+     * Suma el resumen de un período agrupado por el criterio indicado. Los filtros
+     * nulos no se aplican; los grupos sin ventas no se devuelven.
+     */
+    List<GrupoVentas> sumarVentaDiaria(LocalDate desde, LocalDate hasta, AgrupacionVentas agrupacion,
+                                       String pais, String provincia, String estado, String metodoPago);
+}
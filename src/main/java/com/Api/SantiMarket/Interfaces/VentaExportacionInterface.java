@@ -0,0 +1,30 @@
+package com.Api.SantiMarket.Interfaces;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Exportación de ventas con sus líneas en CSV, escrita por JDBC directamente en la
+ * salida sin cargar entidades. Se combina con {@link VentaInterface}.
+ */
+public interface VentaExportacionInterface {
+
+    /**
+     * Columnas del CSV, en el orden en que se escriben (la primera fila es este encabezado).
+     */
+    String ENCABEZADO_CSV = "venta_id,fecha_creacion,descripcion,estado,metodo_pago,ciudad,provincia,pais,"
+            + "usuario_id,total,linea_id,producto_id,categoria,cantidad,precio_unitario,subtotal";
+
+    /**
+     * Escribe una fila por línea de ticket de las ventas creadas en el período, ordenadas
+     * por fecha; las ventas sin líneas salen en una sola fila con las columnas de línea vacías.
+     * Debe llamarse dentro de una transacción.
+     *
+     * @param desde  inicio del período, inclusive
+     * @param hasta  fin del período, exclusivo
+     * @param salida destino del CSV (UTF-8); no se cierra
+     * @throws IOException si falla la escritura, por ejemplo porque el cliente cortó la descarga
+     */
+    void exportarVentasCsv(LocalDateTime desde, LocalDateTime hasta, OutputStream salida) throws IOException;
+}
@@ -0,0 +1,134 @@
+package com.Api.SantiMarket.Interfaces;
+
+import com.Api.SantiMarket.Config.ContadorSentencias;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+public class VentaExportacionInterfaceImpl implements VentaExportacionInterface {
+
+    // La fecha se formatea en SQL para que COPY y el recorrido por cursor escriban lo mismo.
+    // %1$s y %2$s son los límites del período: literales en COPY, que no acepta parámetros
+    private static final String CONSULTA_SQL = """
+            SELECT v.id AS venta_id, TO_CHAR(v.fecha_creacion, 'YYYY-MM-DD HH24:MI:SS') AS fecha_creacion,
+                   v.descripcion, v.estado, v.metodo_pago, v.ciudad, v.provincia, v.pais, v.usuario_id, v.total,
+                   pt.id AS linea_id, pt.producto_id, pt.categoria, pt.cantidad, pt.precio_unitario, pt.subtotal
+            FROM venta v
+            LEFT JOIN producto_ticket pt ON pt.venta_id = v.id
+            WHERE v.fecha_creacion >= %1$s AND v.fecha_creacion < %2$s
+            ORDER BY v.fecha_creacion, v.id, pt.id
+            """;
+
+    private static final DateTimeFormatter FORMATO_LITERAL = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    // Filas que el driver trae por viaje cuando no hay COPY
+    private static final int TAMANIO_FETCH = 1000;
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VentaExportacionInterfaceImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void exportarVentasCsv(LocalDateTime desde, LocalDateTime hasta, OutputStream salida) throws IOException {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) conexion -> {
+                try {
+                    if (conexion.isWrapperFor(PGConnection.class)) {
+                        exportarConCopy(conexion.unwrap(PGConnection.class), desde, hasta, salida);
+                    } else {
+                        exportarConCursor(conexion, desde, hasta, salida);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * PostgreSQL arma el CSV y el driver copia cada fila a la salida a medida que llega.
+     */
+    private static void exportarConCopy(PGConnection conexion, LocalDateTime desde, LocalDateTime hasta,
+                                        OutputStream salida) throws SQLException, IOException {
+        String sql = "COPY (" + CONSULTA_SQL.formatted(literal(desde), literal(hasta)).strip()
+                + ") TO STDOUT WITH (FORMAT csv, HEADER true, ENCODING 'UTF8')";
+        ContadorSentencias.registrar(sql);
+        conexion.getCopyAPI().copyOut(sql, salida);
+    }
+
+    /**
+     * Bases sin COPY (H2): cursor de solo avance leído de a {@value #TAMANIO_FETCH} filas,
+     * escribiendo el mismo CSV que produce COPY.
+     */
+    private static void exportarConCursor(Connection conexion, LocalDateTime desde, LocalDateTime hasta,
+                                          OutputStream salida) throws SQLException, IOException {
+        String sql = CONSULTA_SQL.formatted("?", "?");
+        ContadorSentencias.registrar(sql);
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANIO_BUFFER);
+        escritor.write(ENCABEZADO_CSV);
+        escritor.write('\n');
+        try (PreparedStatement consulta = conexion.prepareStatement(
+                sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            consulta.setFetchSize(TAMANIO_FETCH);
+            consulta.setTimestamp(1, Timestamp.valueOf(desde));
+            consulta.setTimestamp(2, Timestamp.valueOf(hasta));
+            try (ResultSet rs = consulta.executeQuery()) {
+                int columnas = rs.getMetaData().getColumnCount();
+                while (rs.next()) {
+                    for (int i = 1; i <= columnas; i++) {
+                        if (i > 1) {
+                            escritor.write(',');
+                        }
+                        campo(escritor, rs.getString(i));
+                    }
+                    escritor.write('\n');
+                }
+            }
+        }
+        escritor.flush();
+    }
+
+    // Igual que COPY en formato csv: NULL vacío, y entre comillas los textos vacíos o con separadores
+    private static void campo(Writer escritor, String valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        boolean comillas = valor.isEmpty();
+        for (int i = 0; i < valor.length() && !comillas; i++) {
+            char c = valor.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!comillas) {
+            escritor.write(valor);
+            return;
+        }
+        escritor.write('"');
+        escritor.write(valor.replace("\"", "\"\""));
+        escritor.write('"');
+    }
+
+    private static String literal(LocalDateTime fecha) {
+        return "TIMESTAMP '" + FORMATO_LITERAL.format(fecha) + "'";
+    }
+}
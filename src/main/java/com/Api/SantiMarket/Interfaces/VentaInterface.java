@@ -1,7 +1,64 @@
 package com.Api.SantiMarket.Interfaces;
 
+import com.Api.SantiMarket.Dto.VentaResumen;
 import com.Api.SantiMarket.Entities.Venta;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface VentaInterface extends JpaRepository<Venta, Integer> {
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface VentaInterface extends JpaRepository<Venta, Integer>, VentaDiariaInterface,
+        VentaExportacionInterface {
+
+    // Solo las columnas de la venta; el ID del usuario sale de la clave foránea, sin JOIN
+    String SELECT_RESUMEN = """
+            SELECT new com.Api.SantiMarket.Dto.VentaResumen(
+                v.id, v.descripcion, v.estado, v.fechaCreacion, v.ciudad, v.provincia, v.pais,
+                v.metodoPago, v.total, v.usuario.id)
+            FROM Venta v
+            """;
+
+    // Recorre todas las ventas de a bloques del cursor JDBC; hay que cerrarlo dentro de la transacción
+    @Query(SELECT_RESUMEN + "ORDER BY v.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<VentaResumen> streamResumenes();
+
+    @Query(SELECT_RESUMEN + "WHERE v.id = :id")
+    Optional<VentaResumen> findResumenById(@Param("id") Integer id);
+
+    // Historial de un usuario, keyset por (fechaCreacion, id) descendente (índices venta(usuario_id,
+    // fecha_creacion, id) y venta(usuario_id, estado, fecha_creacion, id)). La condición
+    // fechaCreacion <= :ultimaFecha es redundante, pero le da al índice el punto de partida
+    // de la página en lugar de recorrer y descartar las páginas anteriores.
+    @Query(SELECT_RESUMEN + """
+            WHERE v.usuario.id = :usuarioId
+              AND (:estado IS NULL OR v.estado = :estado)
+              AND v.fechaCreacion >= :desde
+              AND v.fechaCreacion < :hasta
+              AND v.fechaCreacion <= :ultimaFecha
+              AND (v.fechaCreacion < :ultimaFecha OR (v.fechaCreacion = :ultimaFecha AND v.id < :ultimoId))
+            ORDER BY v.fechaCreacion DESC, v.id DESC
+            """)
+    List<VentaResumen> findHistorialUsuario(@Param("usuarioId") Integer usuarioId,
+                                            @Param("estado") String estado,
+                                            @Param("desde") LocalDateTime desde,
+                                            @Param("hasta") LocalDateTime hasta,
+                                            @Param("ultimaFecha") LocalDateTime ultimaFecha,
+                                            @Param("ultimoId") Integer ultimoId,
+                                            Limit limite);
+
+    // Rango de fechas a reconstruir en el resumen diario; null si no hay ventas con fecha
+    @Query("SELECT MIN(v.fechaCreacion) FROM Venta v")
+    LocalDateTime primeraFechaCreacion();
+
+    @Query("SELECT MAX(v.fechaCreacion) FROM Venta v")
+    LocalDateTime ultimaFechaCreacion();
 }
@@ -2,12 +2,17 @@ package com.Api.SantiMarket;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class SantiMarketApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(SantiMarketApplication.class, args);
+		ConfigurableApplicationContext contexto = SpringApplication.run(SantiMarketApplication.class, args);
+		// Los perfiles de tareas (generador, resumen-ventas) terminan cuando su runner vuelve
+		if (contexto.getEnvironment().getProperty("santimarket.salir-al-terminar", Boolean.class, false)) {
+			System.exit(SpringApplication.exit(contexto));
+		}
 	}
 
 }
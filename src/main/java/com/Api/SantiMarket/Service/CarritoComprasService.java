@@ -7,6 +7,7 @@ import com.Api.SantiMarket.Exceptions.ResourceNotFoundException;
 import com.Api.SantiMarket.Interfaces.CarritoComprasInteraface;
 import com.Api.SantiMarket.Interfaces.UsuariosInterface;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -30,6 +31,7 @@ public class CarritoComprasService {
      *
      * @return lista de carritos
      */
+    @Transactional(readOnly = true)
     public List<CarritoCompras> getAllCarritos() {
         return carritoComprasRepository.findAll();
     }
@@ -44,6 +46,7 @@ public class CarritoComprasService {
      * @return carrito encontrado
      * @throws ResourceNotFoundException si no existe el carrito
      */
+    @Transactional(readOnly = true)
     public CarritoCompras getCarritoById(Integer id) {
         return carritoComprasRepository.findById(id)
                 .orElseThrow(() ->
@@ -60,6 +63,7 @@ public class CarritoComprasService {
      * @return carrito del usuario
      * @throws ResourceNotFoundException si el usuario no tiene carrito
      */
+    @Transactional(readOnly = true)
     public CarritoCompras getCarritoByUsuarioId(Integer usuarioId) {
         CarritoCompras carrito = carritoComprasRepository.findByUsuarioId(usuarioId);
 
@@ -0,0 +1,54 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Exceptions.BadRequestException;
+import com.Api.SantiMarket.Interfaces.VentaInterface;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * Exportación contable de ventas con sus líneas en CSV. El archivo se escribe a medida
+ * que la base entrega las filas, así la memoria usada no depende del período exportado.
+ */
+@Service
+public class ExportacionVentasService {
+
+    private final VentaInterface ventaRepository;
+
+    public ExportacionVentasService(VentaInterface ventaRepository) {
+        this.ventaRepository = ventaRepository;
+    }
+
+    /**
+     * Valida el período antes de empezar a escribir la respuesta, cuando todavía se
+     * puede devolver un error.
+     *
+     * @throws BadRequestException si falta una fecha o desde es posterior a hasta
+     */
+    public void validarPeriodo(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null) {
+            throw new BadRequestException("Los parámetros desde y hasta son obligatorios.");
+        }
+        if (desde.isAfter(hasta)) {
+            throw new BadRequestException("La fecha desde no puede ser posterior a hasta.");
+        }
+    }
+
+    /**
+     * Escribe en CSV las ventas creadas entre desde y hasta, una fila por línea de ticket.
+     * En PostgreSQL el CSV lo arma COPY ... TO STDOUT; en otras bases se recorre un cursor.
+     *
+     * @param desde  primer día, inclusive
+     * @param hasta  último día, inclusive
+     * @param salida destino del CSV
+     * @throws IOException si falla la escritura (por ejemplo, el cliente cortó la descarga)
+     */
+    @Transactional(readOnly = true)
+    public void exportarCsv(LocalDate desde, LocalDate hasta, OutputStream salida) throws IOException {
+        validarPeriodo(desde, hasta);
+        ventaRepository.exportarVentasCsv(desde.atStartOfDay(), hasta.plusDays(1).atStartOfDay(), salida);
+    }
+}
@@ -0,0 +1,698 @@
+package com.Api.SantiMarket.Service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Generador de datos sintéticos para pruebas de carga y benchmarks. Se activa con el
+ * perfil "generador" y carga productos, usuarios con su carrito, líneas de carrito y
+ * ventas históricas con sus líneas de ticket:
+ *
+ * <pre>
+ * java -jar SantiMarket.jar --spring.profiles.active=generador --santimarket.generador.productos=1000000
+ * </pre>
+ *
+ * La popularidad de productos y usuarios sigue una distribución de Zipf y las ventas se
+ * reparten con tendencia creciente, más compras los fines de semana y picos por la
+ * tarde-noche. Con la misma semilla y los mismos volúmenes el resultado es idéntico.
+ * Sobre PostgreSQL las filas se cargan con COPY; sobre otras bases, con inserts en batch.
+ * Al terminar reconstruye venta_diaria para los días generados, porque las ventas se
+ * insertan sin pasar por TicketService.
+ */
+@Service
+@Profile("generador")
+public class GeneradorDatosService implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneradorDatosService.class);
+
+    private static final int TAMANIO_LOTE = 1000;
+
+    private static final String[] CATEGORIAS = {
+            "almacen", "bebidas", "limpieza", "lacteos", "congelados",
+            "perfumeria", "frutas", "panaderia", "mascotas", "bazar"
+    };
+    private static final double[] PRECIO_BASE_CATEGORIA = {
+            1800, 2500, 3200, 1500, 4200, 3800, 900, 1200, 6500, 9000
+    };
+    private static final String[][] PRODUCTOS_CATEGORIA = {
+            {"Arroz", "Fideos", "Aceite", "Harina", "Yerba", "Azúcar", "Café"},
+            {"Gaseosa", "Agua", "Jugo", "Cerveza", "Vino", "Soda"},
+            {"Detergente", "Lavandina", "Jabón en polvo", "Limpiador", "Esponja"},
+            {"Leche", "Yogur", "Queso", "Manteca", "Crema", "Dulce de leche"},
+            {"Helado", "Hamburguesas", "Papas congeladas", "Verduras congeladas", "Pizza"},
+            {"Shampoo", "Acondicionador", "Desodorante", "Pasta dental", "Jabón"},
+            {"Manzana", "Banana", "Naranja", "Tomate", "Papa", "Cebolla"},
+            {"Pan", "Facturas", "Galletitas", "Budín", "Tostadas"},
+            {"Alimento para perro", "Alimento para gato", "Piedras sanitarias", "Snack"},
+            {"Vaso", "Plato", "Sartén", "Cuchillo", "Taza", "Repasador"}
+    };
+    private static final String[] MARCAS = {
+            "La Serenísima", "Marolio", "Arcor", "Molinos", "Ledesma", "Quilmes", "Natura", "Cif", "Ala", "Dove",
+            "Sancor", "Knorr", "Taragüí", "Bagley", "Cunnington", "Dog Chow", "Tramontina", "Granix"
+    };
+    private static final String[] PRESENTACIONES = {"250 g", "500 g", "1 kg", "1 L", "1.5 L", "2 L", "x6", "x12"};
+
+    // ciudad, provincia, pais y peso relativo de cada ubicación
+    private static final String[][] UBICACIONES = {
+            {"Buenos Aires", "CABA", "Argentina"},
+            {"La Plata", "Buenos Aires", "Argentina"},
+            {"Mar del Plata", "Buenos Aires", "Argentina"},
+            {"Córdoba", "Córdoba", "Argentina"},
+            {"Rosario", "Santa Fe", "Argentina"},
+            {"Santa Fe", "Santa Fe", "Argentina"},
+            {"Mendoza", "Mendoza", "Argentina"},
+            {"San Miguel de Tucumán", "Tucumán", "Argentina"},
+            {"Salta", "Salta", "Argentina"},
+            {"Neuquén", "Neuquén", "Argentina"},
+            {"Montevideo", "Montevideo", "Uruguay"},
+            {"Asunción", "Central", "Paraguay"}
+    };
+    private static final double[] PESO_UBICACIONES = {30, 8, 5, 12, 10, 4, 7, 4, 3, 3, 4, 2};
+
+    private static final String[] METODOS_PAGO = {"tarjeta", "debito", "mercadopago", "transferencia", "efectivo"};
+    private static final double[] PESO_METODOS_PAGO = {40, 25, 20, 10, 5};
+
+    private static final String[] ESTADOS_HISTORICOS = {"Entregado", "Cancelado", "Enviado"};
+    private static final double[] PESO_ESTADOS_HISTORICOS = {90, 6, 4};
+    private static final String[] ESTADOS_RECIENTES = {"Pendiente", "Pagado", "Enviado"};
+    private static final double[] PESO_ESTADOS_RECIENTES = {30, 40, 30};
+
+    // Peso de cada hora del día: poco movimiento de madrugada, picos al mediodía y a la noche
+    private static final double[] PESO_HORAS = {
+            1, 0.6, 0.4, 0.3, 0.3, 0.5, 1, 2, 3, 4, 5, 6,
+            7, 6, 5, 5, 5, 6, 7, 8, 9, 8, 5, 2
+    };
+
+    private final DataSource dataSource;
+    private final ResumenVentasService resumenVentasService;
+
+    private final long semilla;
+    private final int cantidadProductos;
+    private final int cantidadUsuarios;
+    private final int cantidadVentas;
+    private final int lineasVentaMaximo;
+    private final double carritosConProductos;
+    private final int lineasCarritoMaximo;
+    private final double zipfProductos;
+    private final double zipfUsuarios;
+    private final int dias;
+    private final LocalDateTime fechaFin;
+
+    /**
+     * Cantidad de filas generadas por tabla.
+     */
+    public record Resumen(int productos, int usuarios, long lineasCarrito, int ventas, long lineasVenta,
+                          Duration duracion) {
+    }
+
+    public GeneradorDatosService(DataSource dataSource,
+                                 ResumenVentasService resumenVentasService,
+                                 @Value("${santimarket.generador.semilla:42}") long semilla,
+                                 @Value("${santimarket.generador.productos:100000}") int cantidadProductos,
+                                 @Value("${santimarket.generador.usuarios:20000}") int cantidadUsuarios,
+                                 @Value("${santimarket.generador.ventas:200000}") int cantidadVentas,
+                                 @Value("${santimarket.generador.lineas-venta-max:6}") int lineasVentaMaximo,
+                                 @Value("${santimarket.generador.carritos-con-productos:0.3}") double carritosConProductos,
+                                 @Value("${santimarket.generador.lineas-carrito-max:5}") int lineasCarritoMaximo,
+                                 @Value("${santimarket.generador.zipf-productos:1.1}") double zipfProductos,
+                                 @Value("${santimarket.generador.zipf-usuarios:0.8}") double zipfUsuarios,
+                                 @Value("${santimarket.generador.dias:730}") int dias,
+                                 @Value("${santimarket.generador.fecha-fin:2026-01-01T00:00:00}") String fechaFin) {
+        this.dataSource = dataSource;
+        this.resumenVentasService = resumenVentasService;
+        this.semilla = semilla;
+        this.cantidadProductos = cantidadProductos;
+        this.cantidadUsuarios = cantidadUsuarios;
+        this.cantidadVentas = cantidadVentas;
+        this.lineasVentaMaximo = lineasVentaMaximo;
+        this.carritosConProductos = carritosConProductos;
+        this.lineasCarritoMaximo = lineasCarritoMaximo;
+        this.zipfProductos = zipfProductos;
+        this.zipfUsuarios = zipfUsuarios;
+        this.dias = dias;
+        this.fechaFin = LocalDateTime.parse(fechaFin);
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        Resumen resumen = generar();
+        log.info("Datos generados: {}", resumen);
+
+        long comienzo = System.nanoTime();
+        long filas = resumenVentasService.reconstruir(fechaFin.minusDays(dias).toLocalDate(), fechaFin.toLocalDate());
+        log.info("Resumen de ventas reconstruido: {} filas en {}", filas, Duration.ofNanos(System.nanoTime() - comienzo));
+    }
+
+    // ============================================================
+    // GENERACIÓN
+    // ============================================================
+    /**
+     * Genera el conjunto de datos completo. Las filas se agregan a las existentes: los
+     * IDs arrancan después del máximo actual de cada tabla y de los bloques que Hibernate
+     * ya reservó de la secuencia, y al final se ajustan las secuencias para que Hibernate
+     * siga asignando IDs libres.
+     *
+     * @return cantidad de filas generadas por tabla
+     * @throws SQLException si falla la carga en la base
+     */
+    public Resumen generar() throws SQLException {
+        long inicio = System.nanoTime();
+
+        try (Connection conexion = dataSource.getConnection()) {
+            conexion.setAutoCommit(true);
+
+            int baseProductos = primerIdLibre(conexion, "productos");
+            int baseUsuarios = primerIdLibre(conexion, "usuarios");
+            int baseCarritos = primerIdLibre(conexion, "carrito_compras");
+            int baseLineasCarrito = primerIdLibre(conexion, "producto_carrito");
+            int baseVentas = primerIdLibre(conexion, "venta");
+            int baseLineasVenta = primerIdLibre(conexion, "producto_ticket");
+
+            // Cada etapa usa su propio generador derivado de la semilla, así cambiar
+            // el volumen de una tabla no altera los valores de las demás
+            int[] categorias = new int[cantidadProductos];
+            double[] precios = generarProductos(conexion, baseProductos, categorias, new SplittableRandom(semilla));
+            int[] ubicacionUsuario = generarUsuarios(conexion, baseUsuarios, new SplittableRandom(semilla + 1));
+
+            MuestreoZipf popularidadProductos = new MuestreoZipf(
+                    cantidadProductos, zipfProductos, new SplittableRandom(semilla + 2));
+            MuestreoZipf popularidadUsuarios = new MuestreoZipf(
+                    cantidadUsuarios, zipfUsuarios, new SplittableRandom(semilla + 3));
+
+            long lineasCarrito = generarCarritos(conexion, baseUsuarios, baseCarritos, baseLineasCarrito,
+                    baseProductos, precios, popularidadProductos);
+
+            long[] fechas = generarFechasVentas(new SplittableRandom(semilla + 5));
+            long lineasVenta = generarVentas(conexion, baseUsuarios, baseVentas, baseLineasVenta, baseProductos,
+                    precios, categorias, ubicacionUsuario, fechas, popularidadProductos, popularidadUsuarios);
+
+            ajustarSecuencia(conexion, "productos");
+            ajustarSecuencia(conexion, "usuarios");
+            ajustarSecuencia(conexion, "carrito_compras");
+            ajustarSecuencia(conexion, "producto_carrito");
+            ajustarSecuencia(conexion, "venta");
+            ajustarSecuencia(conexion, "producto_ticket");
+
+            return new Resumen(cantidadProductos, cantidadUsuarios, lineasCarrito, cantidadVentas, lineasVenta,
+                    Duration.ofNanos(System.nanoTime() - inicio));
+        }
+    }
+
+    // ============================================================
+    // PRODUCTOS
+    // ============================================================
+    /**
+     * Genera el catálogo y deja en {@code categorias} el índice de categoría de cada producto.
+     *
+     * @return precio de cada producto, para las líneas de carrito y de ticket
+     */
+    private double[] generarProductos(Connection conexion, int base, int[] categorias, SplittableRandom random)
+            throws SQLException {
+        double[] precios = new double[cantidadProductos];
+        LocalDateTime desde = fechaFin.minusDays(dias);
+
+        try (Escritor escritor = escritor(conexion, "productos",
+                "id", "codigo", "nombre", "descripcion", "precio", "imagen", "fecha_creacion", "categoria", "stock")) {
+            for (int i = 0; i < cantidadProductos; i++) {
+                int id = base + i + 1;
+                int c = random.nextInt(CATEGORIAS.length);
+                categorias[i] = c;
+                String[] nombres = PRODUCTOS_CATEGORIA[c];
+                String nombre = nombres[random.nextInt(nombres.length)] + " "
+                        + MARCAS[random.nextInt(MARCAS.length)] + " "
+                        + PRESENTACIONES[random.nextInt(PRESENTACIONES.length)];
+
+                // Precio log-normal alrededor del precio típico de la categoría
+                double precio = Math.round(PRECIO_BASE_CATEGORIA[c] * Math.exp(gaussiana(random) * 0.6) * 100) / 100.0;
+                precios[i] = precio;
+
+                escritor.fila(
+                        id,
+                        String.format("SKU-%08d", id),
+                        nombre,
+                        nombre + " - " + CATEGORIAS[c],
+                        precio,
+                        "https://cdn.santimarket.com/productos/" + id + ".jpg",
+                        desde.plusSeconds(random.nextLong(dias * 86_400L)),
+                        CATEGORIAS[c],
+                        random.nextInt(501)
+                );
+            }
+        }
+        log.info("Productos generados: {}", cantidadProductos);
+        return precios;
+    }
+
+    // ============================================================
+    // USUARIOS
+    // ============================================================
+    private int[] generarUsuarios(Connection conexion, int base, SplittableRandom random) throws SQLException {
+        int[] ubicacion = new int[cantidadUsuarios];
+        double[] cdfUbicaciones = acumulada(PESO_UBICACIONES);
+        LocalDateTime desde = fechaFin.minusDays(dias);
+
+        try (Escritor escritor = escritor(conexion, "usuarios",
+                "id", "apodo", "email", "descripcion", "fecha_registro", "ciudad", "provincia", "pais", "password_hash")) {
+            for (int i = 0; i < cantidadUsuarios; i++) {
+                int id = base + i + 1;
+                int u = elegir(cdfUbicaciones, random);
+                ubicacion[i] = u;
+
+                escritor.fila(
+                        id,
+                        "usuario" + id,
+                        "usuario" + id + "@santimarket.test",
+                        null,
+                        desde.plusSeconds(random.nextLong(dias * 86_400L)),
+                        UBICACIONES[u][0],
+                        UBICACIONES[u][1],
+                        UBICACIONES[u][2],
+                        "generado"
+                );
+            }
+        }
+        log.info("Usuarios generados: {}", cantidadUsuarios);
+        return ubicacion;
+    }
+
+    // ============================================================
+    // CARRITOS Y LÍNEAS DE CARRITO
+    // ============================================================
+    /**
+     * Un carrito por usuario. Las líneas se generan dos veces con el mismo generador:
+     * la primera pasada calcula el total de cada carrito y la segunda escribe las
+     * líneas, de modo que cada tabla se carga con un único COPY.
+     */
+    private long generarCarritos(Connection conexion, int baseUsuarios, int baseCarritos, int baseLineas,
+                                 int baseProductos, double[] precios, MuestreoZipf popularidad) throws SQLException {
+
+        try (Escritor escritor = escritor(conexion, "carrito_compras", "id", "total", "usuario_id")) {
+            SplittableRandom random = new SplittableRandom(semilla + 4);
+            int[] productos = new int[lineasCarritoMaximo];
+            int[] cantidades = new int[lineasCarritoMaximo];
+
+            for (int i = 0; i < cantidadUsuarios; i++) {
+                int lineas = lineasCarrito(random, popularidad, productos, cantidades);
+                double total = 0;
+                for (int l = 0; l < lineas; l++) {
+                    total += precios[productos[l]] * cantidades[l];
+                }
+                escritor.fila(baseCarritos + i + 1, Math.round(total * 100) / 100.0, baseUsuarios + i + 1);
+            }
+        }
+
+        long generadas = 0;
+        try (Escritor escritor = escritor(conexion, "producto_carrito", "id", "cantidad", "producto_id", "carrito_id")) {
+            SplittableRandom random = new SplittableRandom(semilla + 4);
+            int[] productos = new int[lineasCarritoMaximo];
+            int[] cantidades = new int[lineasCarritoMaximo];
+
+            for (int i = 0; i < cantidadUsuarios; i++) {
+                int lineas = lineasCarrito(random, popularidad, productos, cantidades);
+                for (int l = 0; l < lineas; l++) {
+                    generadas++;
+                    escritor.fila((int) (baseLineas + generadas), cantidades[l], baseProductos + productos[l] + 1,
+                            baseCarritos + i + 1);
+                }
+            }
+        }
+        log.info("Líneas de carrito generadas: {}", generadas);
+        return generadas;
+    }
+
+    private int lineasCarrito(SplittableRandom random, MuestreoZipf popularidad, int[] productos, int[] cantidades) {
+        if (random.nextDouble() >= carritosConProductos) {
+            return 0;
+        }
+        int lineas = 1 + random.nextInt(lineasCarritoMaximo);
+        return elegirProductos(random, popularidad, lineas, productos, cantidades);
+    }
+
+    // ============================================================
+    // VENTAS Y LÍNEAS DE TICKET
+    // ============================================================
+    /**
+     * Genera las fechas de todas las ventas ordenadas, para que los IDs crezcan con
+     * el tiempo como en producción.
+     */
+    private long[] generarFechasVentas(SplittableRandom random) {
+        // Peso por día: crecimiento lineal del negocio y más compras el fin de semana
+        double[] pesoDias = new double[dias];
+        LocalDateTime desde = fechaFin.minusDays(dias);
+        for (int d = 0; d < dias; d++) {
+            int diaSemana = desde.plusDays(d).getDayOfWeek().getValue();
+            pesoDias[d] = (1.0 + 2.0 * d / dias) * (diaSemana >= 6 ? 1.3 : 1.0);
+        }
+        double[] cdfDias = acumulada(pesoDias);
+        double[] cdfHoras = acumulada(PESO_HORAS);
+
+        long inicio = desde.toEpochSecond(ZoneOffset.UTC);
+        long[] fechas = new long[cantidadVentas];
+        for (int i = 0; i < cantidadVentas; i++) {
+            fechas[i] = inicio
+                    + elegir(cdfDias, random) * 86_400L
+                    + elegir(cdfHoras, random) * 3_600L
+                    + random.nextInt(3_600);
+        }
+        Arrays.sort(fechas);
+        return fechas;
+    }
+
+    /**
+     * Igual que con los carritos, las líneas de ticket se generan dos veces con el
+     * mismo generador: una para el total de cada venta y otra para escribirlas.
+     */
+    private long generarVentas(Connection conexion, int baseUsuarios, int baseVentas, int baseLineas,
+                               int baseProductos, double[] precios, int[] categorias, int[] ubicacionUsuario,
+                               long[] fechas,
+                               MuestreoZipf popularidadProductos, MuestreoZipf popularidadUsuarios)
+            throws SQLException {
+
+        double[] cdfMetodos = acumulada(PESO_METODOS_PAGO);
+        double[] cdfHistoricos = acumulada(PESO_ESTADOS_HISTORICOS);
+        double[] cdfRecientes = acumulada(PESO_ESTADOS_RECIENTES);
+        long limiteReciente = fechaFin.minusDays(3).toEpochSecond(ZoneOffset.UTC);
+
+        int[] productos = new int[lineasVentaMaximo];
+        int[] cantidades = new int[lineasVentaMaximo];
+
+        try (Escritor escritor = escritor(conexion, "venta", "id", "descripcion", "estado", "fecha_creacion",
+                "ciudad", "provincia", "pais", "metodo_pago", "total", "usuario_id")) {
+            SplittableRandom lineasRandom = new SplittableRandom(semilla + 6);
+            SplittableRandom random = new SplittableRandom(semilla + 7);
+
+            for (int i = 0; i < cantidadVentas; i++) {
+                int usuario = popularidadUsuarios.siguiente(lineasRandom);
+                int lineas = elegirProductos(lineasRandom, popularidadProductos,
+                        1 + lineasRandom.nextInt(lineasVentaMaximo), productos, cantidades);
+                double total = 0;
+                for (int l = 0; l < lineas; l++) {
+                    total += precios[productos[l]] * cantidades[l];
+                }
+
+                String estado = fechas[i] >= limiteReciente
+                        ? ESTADOS_RECIENTES[elegir(cdfRecientes, random)]
+                        : ESTADOS_HISTORICOS[elegir(cdfHistoricos, random)];
+                String[] ubicacion = UBICACIONES[ubicacionUsuario[usuario]];
+
+                escritor.fila(
+                        baseVentas + i + 1,
+                        "Compra online",
+                        estado,
+                        LocalDateTime.ofEpochSecond(fechas[i], 0, ZoneOffset.UTC),
+                        ubicacion[0],
+                        ubicacion[1],
+                        ubicacion[2],
+                        METODOS_PAGO[elegir(cdfMetodos, random)],
+                        Math.round(total * 100) / 100.0,
+                        baseUsuarios + usuario + 1
+                );
+            }
+        }
+        log.info("Ventas generadas: {}", cantidadVentas);
+
+        long generadas = 0;
+        // Las líneas históricas usan el precio con el que se generó el producto
+        try (Escritor escritor = escritor(conexion, "producto_ticket",
+                "id", "cantidad", "producto_id", "venta_id", "precio_unitario", "subtotal", "categoria")) {
+            SplittableRandom lineasRandom = new SplittableRandom(semilla + 6);
+
+            for (int i = 0; i < cantidadVentas; i++) {
+                popularidadUsuarios.siguiente(lineasRandom);
+                int lineas = elegirProductos(lineasRandom, popularidadProductos,
+                        1 + lineasRandom.nextInt(lineasVentaMaximo), productos, cantidades);
+                for (int l = 0; l < lineas; l++) {
+                    generadas++;
+                    double precio = precios[productos[l]];
+                    escritor.fila((int) (baseLineas + generadas), cantidades[l], baseProductos + productos[l] + 1,
+                            baseVentas + i + 1, precio, precio * cantidades[l], CATEGORIAS[categorias[productos[l]]]);
+                }
+            }
+        }
+        log.info("Líneas de ticket generadas: {}", generadas);
+        return generadas;
+    }
+
+    // ============================================================
+    // HELPERS DE MUESTREO
+    // ============================================================
+    /**
+     * Elige productos distintos según su popularidad, con cantidades de 1 a 3
+     * (la mayoría de las líneas lleva una sola unidad).
+     *
+     * @return cantidad de líneas elegidas
+     */
+    private static int elegirProductos(SplittableRandom random, MuestreoZipf popularidad, int lineas,
+                                       int[] productos, int[] cantidades) {
+        int elegidas = 0;
+        int intentos = 0;
+        while (elegidas < lineas && intentos++ < lineas * 4) {
+            int producto = popularidad.siguiente(random);
+            boolean repetido = false;
+            for (int j = 0; j < elegidas; j++) {
+                repetido |= productos[j] == producto;
+            }
+            if (!repetido) {
+                productos[elegidas] = producto;
+                cantidades[elegidas] = random.nextDouble() < 0.7 ? 1 : 2 + random.nextInt(2);
+                elegidas++;
+            }
+        }
+        return elegidas;
+    }
+
+    private static double[] acumulada(double[] pesos) {
+        double[] cdf = new double[pesos.length];
+        double suma = 0;
+        for (int i = 0; i < pesos.length; i++) {
+            suma += pesos[i];
+            cdf[i] = suma;
+        }
+        for (int i = 0; i < cdf.length; i++) {
+            cdf[i] /= suma;
+        }
+        return cdf;
+    }
+
+    private static int elegir(double[] cdf, SplittableRandom random) {
+        int i = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(i >= 0 ? i : -i - 1, cdf.length - 1);
+    }
+
+    // Box-Muller: normal estándar a partir de dos uniformes
+    private static double gaussiana(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    /**
+     * Muestreo de una distribución de Zipf sobre n elementos por búsqueda binaria en la
+     * distribución acumulada. El rango (1 = el más popular) se asigna a una permutación
+     * aleatoria de los elementos, para que los más populares no sean los primeros IDs.
+     */
+    static final class MuestreoZipf {
+        private final double[] cdf;
+        private final int[] elementoPorRango;
+
+        MuestreoZipf(int n, double exponente, SplittableRandom random) {
+            double[] pesos = new double[n];
+            for (int k = 0; k < n; k++) {
+                pesos[k] = 1.0 / Math.pow(k + 1, exponente);
+            }
+            this.cdf = acumulada(pesos);
+
+            this.elementoPorRango = new int[n];
+            for (int i = 0; i < n; i++) {
+                elementoPorRango[i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = elementoPorRango[i];
+                elementoPorRango[i] = elementoPorRango[j];
+                elementoPorRango[j] = tmp;
+            }
+        }
+
+        /**
+         * @return índice del elemento elegido (0 a n - 1)
+         */
+        int siguiente(SplittableRandom random) {
+            return elementoPorRango[elegir(cdf, random)];
+        }
+
+        int elementoEnRango(int rango) {
+            return elementoPorRango[rango];
+        }
+    }
+
+    // ============================================================
+    // HELPERS DE BASE DE DATOS
+    // ============================================================
+    private static int maximoId(Connection conexion, String tabla) throws SQLException {
+        try (Statement st = conexion.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + tabla)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Primer ID que se puede cargar sin chocar con filas existentes ni con los bloques de
+     * 50 IDs que una aplicación en marcha ya tomó de la secuencia y todavía no usó.
+     * Reservar un valor propio garantiza que esos bloques quedan por debajo.
+     */
+    private static int primerIdLibre(Connection conexion, String tabla) throws SQLException {
+        String sql = esPostgres(conexion)
+                ? "SELECT nextval('" + tabla + "_seq')"
+                : "SELECT NEXT VALUE FOR " + tabla + "_seq";
+        try (Statement st = conexion.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return Math.max(maximoId(conexion, tabla), rs.getInt(1) + 50);
+        }
+    }
+
+    /**
+     * Deja la secuencia de la tabla para que el próximo bloque de 50 IDs que reserve
+     * Hibernate empiece después del máximo ID cargado.
+     */
+    private static void ajustarSecuencia(Connection conexion, String tabla) throws SQLException {
+        int maximo = maximoId(conexion, tabla);
+        String sql = esPostgres(conexion)
+                ? "SELECT setval('" + tabla + "_seq', " + Math.max(maximo, 1) + ")"
+                : "ALTER SEQUENCE " + tabla + "_seq RESTART WITH " + (maximo + 50);
+        try (Statement st = conexion.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    private static boolean esPostgres(Connection conexion) throws SQLException {
+        return conexion.isWrapperFor(PGConnection.class);
+    }
+
+    private static Escritor escritor(Connection conexion, String tabla, String... columnas) throws SQLException {
+        return esPostgres(conexion)
+                ? new EscritorCopy(conexion.unwrap(PGConnection.class), tabla, columnas)
+                : new EscritorLote(conexion, tabla, columnas);
+    }
+
+    /**
+     * Destino de las filas generadas de una tabla.
+     */
+    private interface Escritor extends AutoCloseable {
+        void fila(Object... valores) throws SQLException;
+
+        @Override
+        void close() throws SQLException;
+    }
+
+    /**
+     * Carga con COPY ... FROM STDIN en formato texto, enviando el buffer cada 64 KB.
+     */
+    private static final class EscritorCopy implements Escritor {
+        private static final int TAMANIO_BUFFER = 64 * 1024;
+
+        private final CopyIn copy;
+        private final StringBuilder buffer = new StringBuilder(TAMANIO_BUFFER * 2);
+
+        EscritorCopy(PGConnection conexion, String tabla, String... columnas) throws SQLException {
+            this.copy = conexion.getCopyAPI()
+                    .copyIn("COPY " + tabla + " (" + String.join(", ", columnas) + ") FROM STDIN");
+        }
+
+        @Override
+        public void fila(Object... valores) throws SQLException {
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    buffer.append('\t');
+                }
+                escapar(valores[i]);
+            }
+            buffer.append('\n');
+            if (buffer.length() >= TAMANIO_BUFFER) {
+                enviar();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            enviar();
+            copy.endCopy();
+        }
+
+        private void escapar(Object valor) {
+            if (valor == null) {
+                buffer.append("\\N");
+                return;
+            }
+            String texto = valor.toString();
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                switch (c) {
+                    case '\\' -> buffer.append("\\\\");
+                    case '\t' -> buffer.append("\\t");
+                    case '\n' -> buffer.append("\\n");
+                    case '\r' -> buffer.append("\\r");
+                    default -> buffer.append(c);
+                }
+            }
+        }
+
+        private void enviar() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copy.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    /**
+     * Carga con INSERT en batch de {@value #TAMANIO_LOTE} filas, para bases sin COPY (H2).
+     */
+    private static final class EscritorLote implements Escritor {
+        private final PreparedStatement insert;
+        private int pendientes;
+
+        EscritorLote(Connection conexion, String tabla, String... columnas) throws SQLException {
+            String marcadores = String.join(", ", Arrays.stream(columnas).map(c -> "?").toList());
+            this.insert = conexion.prepareStatement(
+                    "INSERT INTO " + tabla + " (" + String.join(", ", columnas) + ") VALUES (" + marcadores + ")");
+        }
+
+        @Override
+        public void fila(Object... valores) throws SQLException {
+            for (int i = 0; i < valores.length; i++) {
+                insert.setObject(i + 1, valores[i]);
+            }
+            insert.addBatch();
+            if (++pendientes == TAMANIO_LOTE) {
+                insert.executeBatch();
+                pendientes = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (pendientes > 0) {
+                insert.executeBatch();
+            }
+            insert.close();
+        }
+    }
+}
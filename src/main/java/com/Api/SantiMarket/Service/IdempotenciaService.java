@@ -0,0 +1,129 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Exceptions.BadRequestException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Almacén en memoria de claves de idempotencia (header {@code Idempotency-Key}).
+ * La primera petición con una clave ejecuta la operación y guarda su respuesta;
+ * las repeticiones devuelven esa misma respuesta sin volver a ejecutarla, y las
+ * que llegan mientras la primera sigue en curso esperan su resultado.
+ *
+ * Las claves se guardan en una caché de Caffeine que las descarta al vencer el TTL y
+ * que nunca supera {@code santimarket.idempotencia.maximo-claves} claves terminadas:
+ * ante una ráfaga de claves distintas se descartan las menos usadas en lugar de agotar
+ * la memoria. Las claves en curso pesan 0 y el tope nunca las descarta, así una
+ * repetición no puede volver a ejecutar una operación que todavía no terminó.
+ *
+ * El TTL se cuenta desde que la operación termina y no debe superar la retención de
+ * los pagos asíncronos ({@code santimarket.checkout.async.retencion}): una repetición
+ * devuelve el ID del trabajo original, que tiene que seguir existiendo.
+ */
+@Service
+public class IdempotenciaService {
+
+    static final int LONGITUD_MAXIMA_CLAVE = 255;
+
+    private final Cache<String, Registro> registros;
+
+    /**
+     * Resultado (en curso o terminado) asociado a una clave.
+     *
+     * @param huella    parámetros de la petición original, para detectar reutilización de la clave
+     * @param resultado respuesta de la operación; se completa al terminar la primera ejecución
+     */
+    private record Registro(String huella, CompletableFuture<Object> resultado) {
+    }
+
+    public IdempotenciaService(@Value("${santimarket.idempotencia.ttl:1h}") Duration ttl,
+                               @Value("${santimarket.idempotencia.maximo-claves:100000}") long maximoClaves) {
+        this.registros = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maximoClaves)
+                .<String, Registro>weigher((id, registro) -> registro.resultado().isDone() ? 1 : 0)
+                .build();
+    }
+
+    // ============================================================
+    // EJECUTAR CON IDEMPOTENCIA
+    // ============================================================
+    /**
+     * Ejecuta una operación una sola vez por clave de idempotencia.
+     * Si la clave es nula o vacía, la operación se ejecuta normalmente.
+     * Si la operación falla, la clave se libera para que el cliente pueda reintentar.
+     *
+     * @param operacion nombre de la operación (separa el espacio de claves entre endpoints)
+     * @param clave     valor del header Idempotency-Key
+     * @param huella    parámetros de la petición; una clave repetida debe traer los mismos
+     * @param accion    operación a ejecutar
+     * @return respuesta de la operación, nueva o previamente guardada
+     * @throws BadRequestException si la clave es demasiado larga o ya se usó con otros parámetros
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T ejecutar(String operacion, String clave, String huella, Supplier<T> accion) {
+        if (clave == null || clave.isBlank()) {
+            return accion.get();
+        }
+        if (clave.length() > LONGITUD_MAXIMA_CLAVE) {
+            throw new BadRequestException("La clave de idempotencia no puede superar "
+                    + LONGITUD_MAXIMA_CLAVE + " caracteres.");
+        }
+
+        String id = operacion + ":" + clave;
+        Registro propio = new Registro(huella, new CompletableFuture<>());
+
+        // Las claves vencidas ya no son visibles: putIfAbsent las trata como libres
+        Registro anterior = registros.asMap().putIfAbsent(id, propio);
+        Registro vigente = anterior == null ? propio : anterior;
+
+        if (vigente != propio) {
+            if (!Objects.equals(vigente.huella(), huella)) {
+                throw new BadRequestException("La clave de idempotencia ya se usó con otros parámetros.");
+            }
+            return (T) esperar(vigente.resultado());
+        }
+
+        try {
+            T resultado = accion.get();
+            propio.resultado().complete(resultado);
+            // Reescribir el registro lo vuelve a pesar (ya cuenta para el tope) y su TTL
+            // empieza a correr desde ahora
+            registros.asMap().replace(id, propio, propio);
+            return resultado;
+        } catch (Throwable e) {
+            // También ante un Error: si el futuro quedara sin completar, las repeticiones
+            // de la clave esperarían para siempre
+            registros.asMap().remove(id, propio);
+            propio.resultado().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    long cantidadClaves() {
+        registros.cleanUp();
+        return registros.estimatedSize();
+    }
+
+    private static Object esperar(CompletableFuture<Object> resultado) {
+        try {
+            return resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+}
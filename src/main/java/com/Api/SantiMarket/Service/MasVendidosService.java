@@ -0,0 +1,348 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Dto.ProductoMasVendido;
+import com.Api.SantiMarket.Dto.UnidadesVendidas;
+import com.Api.SantiMarket.Entities.ProductoTicket;
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Exceptions.BadRequestException;
+import com.Api.SantiMarket.Interfaces.ProductoTicketInterface;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Ranking en memoria de los productos más vendidos de la última hora, día y semana.
+ * Cada ventana se divide en cubetas de tiempo y cada cubeta resume las unidades vendidas
+ * con el algoritmo Space-Saving: sigue como mucho {@code capacidad} productos, así que la
+ * memoria no depende de cuántos productos ni ventas haya. {@link TicketService} le informa
+ * cada línea de ticket confirmada y al iniciar se reconstruye desde producto_ticket.
+ */
+@Service
+public class MasVendidosService {
+
+    static final int LIMITE_POR_DEFECTO = 10;
+    static final int LIMITE_MAXIMO = 100;
+
+    /**
+     * Ventanas del ranking. La ventana avanza de a una cubeta: cubre entre
+     * {@code duracion - granularidad} y {@code duracion} hacia atrás.
+     */
+    enum Ventana {
+        HORA(Duration.ofHours(1), Duration.ofMinutes(5)),
+        DIA(Duration.ofDays(1), Duration.ofHours(1)),
+        SEMANA(Duration.ofDays(7), Duration.ofHours(6));
+
+        final Duration duracion;
+        final Duration granularidad;
+
+        Ventana(Duration duracion, Duration granularidad) {
+            this.duracion = duracion;
+            this.granularidad = granularidad;
+        }
+    }
+
+    private final ProductoTicketInterface productoTicketRepository;
+    private final ProductosInterface productosRepository;
+    private final int capacidad;
+
+    private final Map<Ventana, RankingDeslizante> rankings = new EnumMap<>(Ventana.class);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MasVendidosService(ProductoTicketInterface productoTicketRepository,
+                              ProductosInterface productosRepository,
+                              @Value("${santimarket.mas-vendidos.capacidad:200}") int capacidad) {
+        this.productoTicketRepository = productoTicketRepository;
+        this.productosRepository = productosRepository;
+        this.capacidad = capacidad;
+        for (Ventana ventana : Ventana.values()) {
+            rankings.put(ventana, new RankingDeslizante(ventana.duracion, ventana.granularidad, capacidad));
+        }
+    }
+
+    // ============================================================
+    // RECONSTRUCCIÓN AL INICIAR
+    // ============================================================
+    /**
+     * Carga las líneas de ticket de la última semana, leídas de a bloques del cursor JDBC.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruir() {
+        LocalDateTime desde = LocalDateTime.now().minus(Ventana.SEMANA.duracion);
+        try (Stream<UnidadesVendidas> lineas = productoTicketRepository.streamUnidadesVendidasDesde(desde)) {
+            lineas.forEach(linea -> sumar(linea.productoId(), linea.cantidad(), instante(linea.fecha())));
+        }
+    }
+
+    // ============================================================
+    // ACTUALIZACIÓN
+    // ============================================================
+    /**
+     * Suma las líneas vendidas al ranking cuando se confirma la transacción actual; si el
+     * pago se revierte no cuentan. Fuera de una transacción se suman en el momento.
+     *
+     * @param lineas líneas de ticket recién guardadas
+     */
+    public void registrar(List<ProductoTicket> lineas) {
+        List<int[]> vendidas = lineas.stream()
+                .map(pt -> new int[]{pt.getProducto().getId(), pt.getCantidad()})
+                .toList();
+        Runnable sumarTodas = () -> {
+            long ahora = System.currentTimeMillis();
+            vendidas.forEach(v -> sumar(v[0], v[1], ahora));
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sumarTodas.run();
+                }
+            });
+        } else {
+            sumarTodas.run();
+        }
+    }
+
+    private void sumar(int productoId, long unidades, long instante) {
+        lock.writeLock().lock();
+        try {
+            rankings.values().forEach(ranking -> ranking.sumar(productoId, unidades, instante));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ============================================================
+    // CONSULTA
+    // ============================================================
+    /**
+     * Productos más vendidos de una ventana, de mayor a menor cantidad de unidades.
+     * Los productos que ya no existen se omiten.
+     *
+     * @param ventana "hora", "dia" (por defecto) o "semana"
+     * @param limite  cantidad de productos, acotada a {@value #LIMITE_MAXIMO} y a la capacidad
+     * @return ranking con las unidades estimadas y su error máximo
+     * @throws BadRequestException si la ventana es inválida
+     */
+    @Transactional(readOnly = true)
+    public List<ProductoMasVendido> top(String ventana, Integer limite) {
+        Ventana criterio = ventana(ventana);
+        int tamanio = limite == null
+                ? LIMITE_POR_DEFECTO
+                : Math.min(Math.max(limite, 1), Math.min(LIMITE_MAXIMO, capacidad));
+
+        List<Estimacion> estimaciones;
+        lock.readLock().lock();
+        try {
+            estimaciones = rankings.get(criterio).top(tamanio, System.currentTimeMillis());
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (estimaciones.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, String> nombres = productosRepository
+                .findAllById(estimaciones.stream().map(Estimacion::productoId).toList()).stream()
+                .collect(Collectors.toMap(Productos::getId, p -> p.getNombre() == null ? "" : p.getNombre()));
+        return estimaciones.stream()
+                .filter(e -> nombres.containsKey(e.productoId()))
+                .map(e -> new ProductoMasVendido(e.productoId(), nombres.get(e.productoId()), e.unidades(), e.error()))
+                .toList();
+    }
+
+    private static Ventana ventana(String ventana) {
+        String normalizada = ventana == null ? "dia" : ventana.trim().toLowerCase(Locale.ROOT);
+        return switch (normalizada) {
+            case "hora" -> Ventana.HORA;
+            case "dia" -> Ventana.DIA;
+            case "semana" -> Ventana.SEMANA;
+            default -> throw new BadRequestException("Ventana inválida: " + ventana
+                    + ". Valores permitidos: hora, dia, semana.");
+        };
+    }
+
+    private static long instante(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // ============================================================
+    // ESTRUCTURAS
+    // ============================================================
+    /**
+     * Unidades estimadas de un producto: las reales están entre unidades - error y unidades.
+     */
+    record Estimacion(int productoId, long unidades, long error) {
+    }
+
+    /**
+     * Ventana deslizante formada por un anillo de cubetas Space-Saving, una por período de
+     * {@code granularidad}. Una cubeta se vacía cuando el anillo vuelve a usarla para un
+     * período nuevo. No es thread-safe.
+     */
+    static final class RankingDeslizante {
+        private final long granularidad;
+        private final ResumenSpaceSaving[] cubetas;
+        private final long[] periodos;
+
+        RankingDeslizante(Duration duracion, Duration granularidad, int capacidad) {
+            this.granularidad = granularidad.toMillis();
+            int cantidad = (int) (duracion.toMillis() / this.granularidad);
+            this.cubetas = new ResumenSpaceSaving[cantidad];
+            this.periodos = new long[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                cubetas[i] = new ResumenSpaceSaving(capacidad);
+            }
+            Arrays.fill(periodos, Long.MIN_VALUE);
+        }
+
+        /**
+         * @param instante momento de la venta, en milisegundos desde epoch
+         */
+        void sumar(int productoId, long unidades, long instante) {
+            long periodo = Math.floorDiv(instante, granularidad);
+            int indice = (int) Math.floorMod(periodo, (long) cubetas.length);
+            if (periodos[indice] > periodo) {
+                // La cubeta ya pasó a un período más nuevo: la venta quedó fuera de la ventana
+                return;
+            }
+            if (periodos[indice] < periodo) {
+                cubetas[indice].vaciar();
+                periodos[indice] = periodo;
+            }
+            cubetas[indice].sumar(productoId, unidades);
+        }
+
+        /**
+         * Combina las cubetas de la ventana que termina en {@code instante}. Un producto que
+         * no aparece en una cubeta llena pudo vender ahí hasta el mínimo de esa cubeta, así
+         * que ese mínimo se suma a su estimación y a su error.
+         */
+        List<Estimacion> top(int limite, long instante) {
+            long actual = Math.floorDiv(instante, granularidad);
+            Map<Integer, long[]> combinados = new HashMap<>();
+            long sumaMinimos = 0;
+            for (int i = 0; i < cubetas.length; i++) {
+                if (periodos[i] <= actual - cubetas.length || periodos[i] > actual) {
+                    continue;
+                }
+                long minimo = cubetas[i].minimo();
+                sumaMinimos += minimo;
+                cubetas[i].contadores().forEach(c -> {
+                    long[] acumulado = combinados.computeIfAbsent(c.productoId, id -> new long[3]);
+                    acumulado[0] += c.cuenta;
+                    acumulado[1] += c.error;
+                    acumulado[2] += minimo;
+                });
+            }
+            long minimos = sumaMinimos;
+            List<Estimacion> estimaciones = new ArrayList<>(combinados.size());
+            combinados.forEach((productoId, a) -> estimaciones.add(
+                    new Estimacion(productoId, a[0] + minimos - a[2], a[1] + minimos - a[2])));
+            estimaciones.sort(Comparator.comparingLong(Estimacion::unidades).reversed()
+                    .thenComparingInt(Estimacion::productoId));
+            return estimaciones.subList(0, Math.min(limite, estimaciones.size()));
+        }
+
+        /**
+         * @return productos seguidos entre todas las cubetas (como mucho cubetas * capacidad)
+         */
+        int contadores() {
+            return Arrays.stream(cubetas).mapToInt(ResumenSpaceSaving::tamanio).sum();
+        }
+    }
+
+    /**
+     * Space-Saving ponderado (Metwally et al.): sigue como mucho {@code capacidad} productos.
+     * Cuando llega uno nuevo con la estructura llena, reemplaza al de menor cuenta y hereda
+     * esa cuenta como error. Ningún conteo se sobreestima en más de total / capacidad.
+     */
+    static final class ResumenSpaceSaving {
+
+        static final class Contador {
+            final int productoId;
+            long cuenta;
+            final long error;
+
+            Contador(int productoId, long cuenta, long error) {
+                this.productoId = productoId;
+                this.cuenta = cuenta;
+                this.error = error;
+            }
+        }
+
+        private static final Comparator<Contador> POR_CUENTA = Comparator
+                .comparingLong((Contador c) -> c.cuenta)
+                .thenComparingInt(c -> c.productoId);
+
+        private final int capacidad;
+        private final Map<Integer, Contador> porProducto = new HashMap<>();
+        private final TreeSet<Contador> porCuenta = new TreeSet<>(POR_CUENTA);
+
+        ResumenSpaceSaving(int capacidad) {
+            this.capacidad = capacidad;
+        }
+
+        void sumar(int productoId, long unidades) {
+            Contador contador = porProducto.get(productoId);
+            if (contador != null) {
+                // Se saca y se vuelve a insertar porque la cuenta es parte del orden
+                porCuenta.remove(contador);
+                contador.cuenta += unidades;
+                porCuenta.add(contador);
+                return;
+            }
+            long heredado = 0;
+            if (porProducto.size() == capacidad) {
+                Contador minimo = porCuenta.pollFirst();
+                porProducto.remove(minimo.productoId);
+                heredado = minimo.cuenta;
+            }
+            Contador nuevo = new Contador(productoId, heredado + unidades, heredado);
+            porProducto.put(productoId, nuevo);
+            porCuenta.add(nuevo);
+        }
+
+        /**
+         * @return cota de lo vendido por un producto no seguido (0 si todavía hay lugar)
+         */
+        long minimo() {
+            return porProducto.size() < capacidad ? 0 : porCuenta.first().cuenta;
+        }
+
+        Iterable<Contador> contadores() {
+            return porCuenta;
+        }
+
+        int tamanio() {
+            return porProducto.size();
+        }
+
+        void vaciar() {
+            porProducto.clear();
+            porCuenta.clear();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Dto.EstadoPago;
+import com.Api.SantiMarket.Dto.EstadoPago.Etapa;
+import com.Api.SantiMarket.Entities.Venta;
+import com.Api.SantiMarket.Exceptions.BadRequestException;
+import com.Api.SantiMarket.Exceptions.ResourceNotFoundException;
+import com.Api.SantiMarket.Exceptions.ServicioSaturadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Procesa pagos de carrito fuera del hilo de la petición HTTP. Los pagos se encolan
+ * en una cola acotada y los ejecuta un pool de hilos dedicado; cuando la cola está
+ * llena se rechazan de inmediato para que el cliente reintente más tarde.
+ *
+ * Con {@code spring.threads.virtual.enabled=true} los trabajadores son hilos virtuales:
+ * el pool solo acota cuántos pagos se admiten a la vez, y la concurrencia real contra
+ * la base la limita el pool de conexiones de Hikari.
+ */
+@Service
+public class PagoAsincronoService {
+
+    private static final Logger log = LoggerFactory.getLogger(PagoAsincronoService.class);
+
+    /** Motivo que se publica cuando el pago falla por un error que no es de negocio. */
+    static final String ERROR_INTERNO = "No se pudo procesar el pago. Intente nuevamente más tarde.";
+
+    private final TicketService ticketService;
+    private final ThreadPoolExecutor executor;
+    private final Counter rechazados;
+    private final long retencionMillis;
+
+    private final ConcurrentHashMap<String, Trabajo> trabajos = new ConcurrentHashMap<>();
+
+    /**
+     * Pago encolado. El estado se publica en un campo volátil para que las consultas
+     * lo lean sin bloquear, y {@code terminado} se completa al finalizar el trabajo.
+     */
+    private static final class Trabajo {
+        private final String id;
+        private final CompletableFuture<EstadoPago> terminado = new CompletableFuture<>();
+        private volatile EstadoPago estado;
+        private volatile long finalizadoEn;
+
+        private Trabajo(String id) {
+            this.id = id;
+            this.estado = new EstadoPago(id, Etapa.EN_COLA, null, null);
+        }
+
+        private void finalizar(EstadoPago resultado) {
+            estado = resultado;
+            finalizadoEn = System.currentTimeMillis();
+            terminado.complete(resultado);
+        }
+    }
+
+    public PagoAsincronoService(TicketService ticketService,
+                                MeterRegistry meterRegistry,
+                                @Value("${santimarket.checkout.async.hilos:4}") int hilos,
+                                @Value("${santimarket.checkout.async.capacidad-cola:200}") int capacidadCola,
+                                @Value("${santimarket.checkout.async.retencion:${santimarket.idempotencia.ttl:1h}}") Duration retencion,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean hilosVirtuales,
+                                @Value("${santimarket.checkout.async.hilos-virtuales:64}") int cantidadHilosVirtuales) {
+        this.ticketService = ticketService;
+        this.retencionMillis = retencion.toMillis();
+
+        int trabajadores = hilosVirtuales ? cantidadHilosVirtuales : hilos;
+        ThreadFactory fabrica = hilosVirtuales
+                ? Thread.ofVirtual().name("checkout-", 1).factory()
+                : new CustomizableThreadFactory("checkout-");
+        this.executor = new ThreadPoolExecutor(
+                trabajadores, trabajadores, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                fabrica,
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("santimarket.checkout.cola", executor, e -> e.getQueue().size())
+                .description("Pagos asíncronos esperando en la cola")
+                .register(meterRegistry);
+        Gauge.builder("santimarket.checkout.cola.capacidad", executor,
+                        e -> e.getQueue().size() + e.getQueue().remainingCapacity())
+                .description("Capacidad máxima de la cola de pagos asíncronos")
+                .register(meterRegistry);
+        Gauge.builder("santimarket.checkout.activos", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Pagos asíncronos en proceso")
+                .register(meterRegistry);
+        this.rechazados = Counter.builder("santimarket.checkout.rechazados")
+                .description("Pagos asíncronos rechazados por cola llena")
+                .register(meterRegistry);
+    }
+
+    // ============================================================
+    // ENCOLAR PAGO
+    // ============================================================
+    /**
+     * Encola el pago de un carrito y devuelve de inmediato el trabajo creado.
+     *
+     * @param carritoId ID del carrito a pagar
+     * @param usuarioId ID del usuario que paga
+     * @return estado inicial del trabajo (EN_COLA)
+     * @throws ServicioSaturadoException si la cola de pagos está llena
+     */
+    public EstadoPago encolar(Integer carritoId, Integer usuarioId) {
+        Trabajo trabajo = new Trabajo(UUID.randomUUID().toString());
+        trabajos.put(trabajo.id, trabajo);
+
+        try {
+            executor.execute(() -> procesar(trabajo, carritoId, usuarioId));
+        } catch (RejectedExecutionException e) {
+            trabajos.remove(trabajo.id);
+            rechazados.increment();
+            throw new ServicioSaturadoException("Hay demasiados pagos en proceso. Intente nuevamente en unos segundos.");
+        }
+        return trabajo.estado;
+    }
+
+    // ============================================================
+    // CONSULTAR ESTADO
+    // ============================================================
+    /**
+     * Devuelve el estado actual de un pago asíncrono.
+     *
+     * @param id identificador del trabajo
+     * @return estado del trabajo
+     * @throws ResourceNotFoundException si el trabajo no existe o ya fue descartado
+     */
+    public EstadoPago estado(String id) {
+        return buscar(id).estado;
+    }
+
+    /**
+     * Espera (sin bloquear el hilo de la petición) a que el pago termine, como máximo
+     * el tiempo indicado. Al vencer la espera devuelve el estado en ese momento.
+     *
+     * @param id     identificador del trabajo
+     * @param espera tiempo máximo de espera
+     * @return futuro con el estado final o el estado al vencer la espera
+     * @throws ResourceNotFoundException si el trabajo no existe o ya fue descartado
+     */
+    public CompletableFuture<EstadoPago> esperar(String id, Duration espera) {
+        Trabajo trabajo = buscar(id);
+        if (trabajo.estado.terminado() || espera.isZero() || espera.isNegative()) {
+            return CompletableFuture.completedFuture(trabajo.estado);
+        }
+        return trabajo.terminado.copy()
+                .completeOnTimeout(null, espera.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(resultado -> resultado != null ? resultado : trabajo.estado);
+    }
+
+    // ============================================================
+    // LIMPIEZA DE TRABAJOS TERMINADOS
+    // ============================================================
+    /**
+     * Descarta los trabajos que terminaron hace más tiempo que la retención configurada.
+     */
+    @Scheduled(fixedDelayString = "${santimarket.checkout.async.limpieza:PT1M}")
+    public void limpiarTerminados() {
+        long limite = System.currentTimeMillis() - retencionMillis;
+        trabajos.values().removeIf(t -> t.estado.terminado() && t.finalizadoEn <= limite);
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    // ============================================================
+    // HELPERS
+    // ============================================================
+    private void procesar(Trabajo trabajo, Integer carritoId, Integer usuarioId) {
+        trabajo.estado = new EstadoPago(trabajo.id, Etapa.PROCESANDO, null, null);
+        try {
+            Venta venta = ticketService.realizarPago(carritoId, usuarioId);
+            trabajo.finalizar(new EstadoPago(trabajo.id, Etapa.COMPLETADO, venta.getId(), null));
+        } catch (BadRequestException | ResourceNotFoundException e) {
+            trabajo.finalizar(new EstadoPago(trabajo.id, Etapa.ERROR, null, e.getMessage()));
+        } catch (Throwable e) {
+            // El mensaje de una excepción inesperada puede exponer SQL o detalles internos:
+            // el cliente solo ve un motivo genérico y el detalle queda en el log. También
+            // ante un Error, que dejaría el trabajo en PROCESANDO para siempre
+            log.error("Falló el pago asíncrono {} del carrito {}", trabajo.id, carritoId, e);
+            trabajo.finalizar(new EstadoPago(trabajo.id, Etapa.ERROR, null, ERROR_INTERNO));
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    private Trabajo buscar(String id) {
+        Trabajo trabajo = trabajos.get(id);
+        if (trabajo == null) {
+            throw new ResourceNotFoundException("Pago asíncrono no encontrado con ID: " + id);
+        }
+        return trabajo;
+    }
+}
@@ -1,49 +1,71 @@
 package com.Api.SantiMarket.Service;
 
+import com.Api.SantiMarket.Dto.IngresoCategoria;
+import com.Api.SantiMarket.Dto.IngresoProducto;
+import com.Api.SantiMarket.Dto.LineaTicket;
 import com.Api.SantiMarket.Entities.ProductoTicket;
-
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Exceptions.BadRequestException;
 import com.Api.SantiMarket.Exceptions.ResourceNotFoundException;
 import com.Api.SantiMarket.Interfaces.ProductoTicketInterface;
-
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ProductoTicketService {
 
     private final ProductoTicketInterface productoTicketRepository;
+    private final ProductosInterface productosRepository;
 
+    static final int LIMITE_INGRESOS_POR_DEFECTO = 20;
+    static final int LIMITE_INGRESOS_MAXIMO = 100;
 
     public ProductoTicketService(
-            ProductoTicketInterface productoTicketRepository
+            ProductoTicketInterface productoTicketRepository,
+            ProductosInterface productosRepository
     ) {
         this.productoTicketRepository = productoTicketRepository;
+        this.productosRepository = productosRepository;
     }
 
     // --------------------------------------------------------------------
     // CREAR REGISTRO DE PRODUCTO DENTRO DE UN TICKET
     // --------------------------------------------------------------------
-    // Este método guarda un nuevo producto asociado a un ticket de venta.
+    // Este método guarda un nuevo producto asociado a un ticket de venta,
+    // con el precio y la categoría actuales del producto.
     // Se asume que el objeto viene validado desde el controlador.
+    @Transactional
     public ProductoTicket create(ProductoTicket productoTicket) {
-        return productoTicketRepository.save(productoTicket);
+        Productos producto = buscarProducto(productoTicket.getProducto());
+        return productoTicketRepository.save(
+                ProductoTicket.de(productoTicket.getVenta(), producto, productoTicket.getCantidad()));
     }
 
     // --------------------------------------------------------------------
     // OBTENER TODOS LOS PRODUCTOS-TICKET
     // --------------------------------------------------------------------
-    // Devuelve una lista completa de los registros en la tabla intermedia.
-    public List<ProductoTicket> getAll() {
-        return productoTicketRepository.findAll();
+    // Recorre todos los registros de la tabla intermedia, con los datos del
+    // producto leídos en la misma consulta, sin armar la lista en memoria.
+    @Transactional(readOnly = true)
+    public void recorrerTodas(Consumer<LineaTicket> accion) {
+        try (Stream<LineaTicket> lineas = productoTicketRepository.streamLineas()) {
+            lineas.forEach(accion);
+        }
     }
 
     // --------------------------------------------------------------------
     // OBTENER PRODUCTO-TICKET POR ID
     // --------------------------------------------------------------------
     // Busca un registro por ID y arroja una excepción si no existe.
-    public ProductoTicket getById(Integer id) {
-        return productoTicketRepository.findById(id)
+    @Transactional(readOnly = true)
+    public LineaTicket getById(Integer id) {
+        return productoTicketRepository.findLineaById(id)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("ProductoTicket no encontrado con ID: " + id));
     }
@@ -52,13 +74,23 @@ public class ProductoTicketService {
     // ACTUALIZAR DATOS DEL PRODUCTO EN EL TICKET
     // --------------------------------------------------------------------
     // Permite cambiar la cantidad, el producto asociado o la venta asociada.
-    // Siempre verifica que el registro exista antes de modificarlo.
+    // Siempre verifica que el registro exista antes de modificarlo. Si cambia
+    // el producto se toma su precio actual; si no, se conserva el cobrado.
+    @Transactional
     public ProductoTicket update(Integer id, ProductoTicket data) {
 
-        ProductoTicket existente = getById(id);
+        ProductoTicket existente = productoTicketRepository.findById(id)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("ProductoTicket no encontrado con ID: " + id));
 
+        Productos producto = buscarProducto(data.getProducto());
+        if (!producto.getId().equals(existente.getProducto().getId())) {
+            existente.setProducto(producto);
+            existente.setPrecioUnitario(producto.getPrecio());
+            existente.setCategoria(producto.getCategoria());
+        }
         existente.setCantidad(data.getCantidad());
-        existente.setProducto(data.getProducto());
+        existente.setSubtotal(existente.getPrecioUnitario() * data.getCantidad());
         existente.setVenta(data.getVenta());
 
         return productoTicketRepository.save(existente);
@@ -81,7 +113,40 @@ public class ProductoTicketService {
     // LISTAR PRODUCTOS DE UN TICKET (VENTA)
     // --------------------------------------------------------------------
     // Permite filtrar todos los productos pertenecientes a una venta específica.
-    public List<ProductoTicket> findByVentaId(Integer ventaId) {
-        return productoTicketRepository.findByVenta_Id(ventaId);
+    @Transactional(readOnly = true)
+    public List<LineaTicket> findByVentaId(Integer ventaId) {
+        return productoTicketRepository.findLineasByVentaId(ventaId);
+    }
+
+    // --------------------------------------------------------------------
+    // INGRESOS POR PRODUCTO
+    // --------------------------------------------------------------------
+    // Productos que más facturaron, con el precio cobrado en cada venta.
+    // El límite se acota entre 1 y LIMITE_INGRESOS_MAXIMO.
+    @Transactional(readOnly = true)
+    public List<IngresoProducto> ingresosPorProducto(Integer limite) {
+        int tamanio = limite == null
+                ? LIMITE_INGRESOS_POR_DEFECTO
+                : Math.min(Math.max(limite, 1), LIMITE_INGRESOS_MAXIMO);
+        return productoTicketRepository.sumarIngresosPorProducto(Limit.of(tamanio));
+    }
+
+    // --------------------------------------------------------------------
+    // INGRESOS POR CATEGORÍA
+    // --------------------------------------------------------------------
+    // Facturación de cada categoría, de mayor a menor. La categoría es la
+    // que tenía el producto al momento de la venta.
+    @Transactional(readOnly = true)
+    public List<IngresoCategoria> ingresosPorCategoria() {
+        return productoTicketRepository.sumarIngresosPorCategoria();
+    }
+
+    private Productos buscarProducto(Productos referencia) {
+        if (referencia == null || referencia.getId() == null) {
+            throw new BadRequestException("El producto es obligatorio.");
+        }
+        return productosRepository.findById(referencia.getId())
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("Producto no encontrado con ID: " + referencia.getId()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,312 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Dto.ProductoDetalle;
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Índice invertido en memoria sobre nombre, descripción y categoría de los productos.
+ * Se construye al iniciar la aplicación y se actualiza de forma incremental desde
+ * {@link ProductosService}, de modo que las búsquedas nunca recorren la tabla de productos.
+ *
+ * El índice es local a cada instancia: las altas y cambios hechos en otra instancia solo
+ * llegan con la reconstrucción periódica desde la base
+ * ({@code santimarket.busqueda.reconstruccion}), que arma un índice nuevo sin bloquear
+ * las búsquedas y lo reemplaza de una vez.
+ */
+@Service
+public class ProductosBusquedaService {
+
+    static final int LIMITE_POR_DEFECTO = 20;
+    static final int LIMITE_MAXIMO = 100;
+
+    private static final int TAMANIO_LOTE_CARGA = 1000;
+
+    // Cantidad máxima de términos a los que se expande un prefijo corto
+    private static final int MAX_EXPANSION_PREFIJO = 200;
+
+    // Las coincidencias por prefijo puntúan menos que las coincidencias exactas
+    private static final double FACTOR_PREFIJO = 0.5;
+
+    private static final double PESO_NOMBRE = 3.0;
+    private static final double PESO_CATEGORIA = 2.0;
+    private static final double PESO_DESCRIPCION = 1.0;
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+    private static final Set<String> STOPWORDS = Set.of(
+            "de", "del", "la", "las", "el", "los", "y", "o", "en", "con", "para", "por", "un", "una", "al", "a"
+    );
+
+    private final ProductosInterface productosRepository;
+
+    // Se reemplaza entero al reconstruir; se lee y modifica solo con el lock tomado
+    private Indice indice = new Indice();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static final class Indice {
+        // término -> (id de producto -> peso del término en el producto)
+        private final TreeMap<String, Map<Integer, Double>> postings = new TreeMap<>();
+
+        // id de producto -> términos indexados, necesario para borrar o reindexar
+        private final Map<Integer, Set<String>> terminosPorProducto = new HashMap<>();
+    }
+
+    public ProductosBusquedaService(ProductosInterface productosRepository) {
+        this.productosRepository = productosRepository;
+    }
+
+    // ============================================================
+    // CONSTRUCCIÓN DEL ÍNDICE
+    // ============================================================
+    /**
+     * Carga todos los productos en un índice nuevo y reemplaza al actual. Se ejecuta al
+     * iniciar la aplicación y después periódicamente, para recoger los cambios hechos en
+     * otras instancias. Recorre la tabla por lotes ordenados por ID para no materializar
+     * el catálogo completo; un cambio local confirmado durante el recorrido puede quedar
+     * afuera hasta la reconstrucción siguiente.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${santimarket.busqueda.reconstruccion:PT5M}",
+            initialDelayString = "${santimarket.busqueda.reconstruccion:PT5M}")
+    public void reconstruir() {
+        Indice nuevo = new Indice();
+        int ultimoId = 0;
+        List<Productos> lote;
+        do {
+            lote = productosRepository.findPaginaPorId(
+                    null, -Double.MAX_VALUE, Double.MAX_VALUE, ultimoId, Limit.of(TAMANIO_LOTE_CARGA));
+            lote.forEach(p -> agregar(nuevo, p.getId(), pesos(p)));
+            if (!lote.isEmpty()) {
+                ultimoId = lote.get(lote.size() - 1).getId();
+            }
+        } while (lote.size() == TAMANIO_LOTE_CARGA);
+
+        lock.writeLock().lock();
+        try {
+            indice = nuevo;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ============================================================
+    // ACTUALIZACIÓN INCREMENTAL
+    // ============================================================
+    /**
+     * Indexa un producto nuevo o reemplaza los términos de uno existente.
+     *
+     * @param producto producto persistido (con ID asignado)
+     */
+    public void indexar(Productos producto) {
+        Map<String, Double> pesos = pesos(producto);
+
+        lock.writeLock().lock();
+        try {
+            quitarTerminos(indice, producto.getId());
+            agregar(indice, producto.getId(), pesos);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un producto del índice.
+     *
+     * @param id ID del producto eliminado
+     */
+    public void eliminar(Integer id) {
+        lock.writeLock().lock();
+        try {
+            quitarTerminos(indice, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ============================================================
+    // BÚSQUEDA
+    // ============================================================
+    /**
+     * Busca productos por texto libre y los devuelve ordenados por relevancia.
+     *
+     * @param consulta texto a buscar
+     * @param limite   cantidad máxima de resultados (acotada a {@value #LIMITE_MAXIMO})
+     * @return productos encontrados, del más relevante al menos relevante
+     */
+    public List<ProductoDetalle> buscar(String consulta, Integer limite) {
+        List<Integer> ids = buscarIds(consulta, limite);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Carga por clave primaria y respeta el orden de relevancia
+        Map<Integer, Productos> porId = productosRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Productos::getId, Function.identity()));
+
+        List<ProductoDetalle> resultado = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Productos p = porId.get(id);
+            if (p != null) {
+                resultado.add(ProductoDetalle.desde(p));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Resuelve una consulta contra el índice y devuelve los IDs ordenados por relevancia.
+     * Todos los términos de la consulta deben coincidir, de forma exacta o como prefijo.
+     *
+     * @param consulta texto a buscar
+     * @param limite   cantidad máxima de resultados
+     * @return IDs de producto ordenados por puntaje descendente
+     */
+    List<Integer> buscarIds(String consulta, Integer limite) {
+        List<String> terminos = tokenizar(consulta);
+        if (terminos.isEmpty()) {
+            return List.of();
+        }
+        int tamanio = limite == null ? LIMITE_POR_DEFECTO : Math.min(Math.max(limite, 1), LIMITE_MAXIMO);
+
+        Map<Integer, Double> puntajes = null;
+
+        lock.readLock().lock();
+        try {
+            int totalProductos = Math.max(indice.terminosPorProducto.size(), 1);
+
+            for (String termino : new HashSet<>(terminos)) {
+                Map<Integer, Double> puntajeTermino = puntuarTermino(termino, totalProductos);
+
+                if (puntajes == null) {
+                    puntajes = puntajeTermino;
+                } else {
+                    // Intersección: solo sobreviven los productos que coinciden con todos los términos
+                    puntajes.keySet().retainAll(puntajeTermino.keySet());
+                    puntajes.replaceAll((id, puntaje) -> puntaje + puntajeTermino.get(id));
+                }
+                if (puntajes.isEmpty()) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return puntajes.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(tamanio)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // ============================================================
+    // HELPERS
+    // ============================================================
+    /**
+     * Calcula el puntaje de cada producto para un término de la consulta, considerando
+     * la coincidencia exacta y las expansiones por prefijo (se queda con la mejor).
+     */
+    private Map<Integer, Double> puntuarTermino(String termino, int totalProductos) {
+        Map<Integer, Double> puntajes = new HashMap<>();
+
+        NavigableMap<String, Map<Integer, Double>> coincidencias =
+                indice.postings.subMap(termino, true, termino + Character.MAX_VALUE, false);
+
+        int expandidos = 0;
+        for (Map.Entry<String, Map<Integer, Double>> entrada : coincidencias.entrySet()) {
+            if (expandidos++ >= MAX_EXPANSION_PREFIJO) {
+                break;
+            }
+            Map<Integer, Double> productos = entrada.getValue();
+            double idf = Math.log(1.0 + (double) totalProductos / productos.size());
+            double factor = entrada.getKey().equals(termino) ? 1.0 : FACTOR_PREFIJO;
+
+            productos.forEach((id, peso) -> puntajes.merge(id, peso * idf * factor, Math::max));
+        }
+        return puntajes;
+    }
+
+    private static void agregar(Indice destino, Integer id, Map<String, Double> pesos) {
+        pesos.forEach((termino, peso) ->
+                destino.postings.computeIfAbsent(termino, t -> new HashMap<>()).put(id, peso));
+        destino.terminosPorProducto.put(id, pesos.keySet());
+    }
+
+    private static void quitarTerminos(Indice origen, Integer id) {
+        Set<String> anteriores = origen.terminosPorProducto.remove(id);
+        if (anteriores == null) {
+            return;
+        }
+        for (String termino : anteriores) {
+            Map<Integer, Double> productos = origen.postings.get(termino);
+            if (productos != null) {
+                productos.remove(id);
+                if (productos.isEmpty()) {
+                    origen.postings.remove(termino);
+                }
+            }
+        }
+    }
+
+    private static Map<String, Double> pesos(Productos producto) {
+        Map<String, Double> pesos = new HashMap<>();
+        acumular(pesos, producto.getNombre(), PESO_NOMBRE);
+        acumular(pesos, producto.getCategoria(), PESO_CATEGORIA);
+        acumular(pesos, producto.getDescripcion(), PESO_DESCRIPCION);
+        return pesos;
+    }
+
+    private static void acumular(Map<String, Double> pesos, String texto, double peso) {
+        for (String termino : tokenizar(texto)) {
+            pesos.merge(termino, peso, Double::sum);
+        }
+    }
+
+    /**
+     * Normaliza un texto a términos indexables: minúsculas, sin acentos
+     * (por ejemplo "Café" → "cafe"), sin signos de puntuación y sin stopwords.
+     *
+     * @param texto texto original
+     * @return lista de términos en el orden en que aparecen
+     */
+    static List<String> tokenizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        String normalizado = DIACRITICOS
+                .matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        List<String> terminos = new ArrayList<>();
+        for (String termino : SEPARADORES.split(normalizado)) {
+            if (!termino.isEmpty() && !STOPWORDS.contains(termino)) {
+                terminos.add(termino);
+            }
+        }
+        return terminos;
+    }
+}
@@ -1,12 +1,13 @@
 package com.Api.SantiMarket.Service;
 
+import com.Api.SantiMarket.Dto.LineaCarrito;
 import com.Api.SantiMarket.Entities.ProductoCarrito;
 import com.Api.SantiMarket.Entities.Productos;
 import com.Api.SantiMarket.Exceptions.BadRequestException;
 import com.Api.SantiMarket.Exceptions.ResourceNotFoundException;
 import com.Api.SantiMarket.Interfaces.ProductoCarritoInterface;
-import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -15,11 +16,14 @@ public class ProductosCarritoService {
 
     private final ProductoCarritoInterface productoCarritoRepository;
     private final ProductosService productosService;
+    private final ReservaStockService reservaStockService;
 
     public ProductosCarritoService(ProductoCarritoInterface productoCarritoRepository,
-                                   ProductosService productosService) {
+                                   ProductosService productosService,
+                                   ReservaStockService reservaStockService) {
         this.productoCarritoRepository = productoCarritoRepository;
         this.productosService = productosService;
+        this.reservaStockService = reservaStockService;
     }
 
     // ============================================================
@@ -28,10 +32,11 @@ public class ProductosCarritoService {
     /**
      * Obtiene la lista completa de productos en carritos registrados.
      *
-     * @return lista de productos en carritos
+     * @return lista de líneas de carrito con los datos de su producto
      */
-    public List<ProductoCarrito> getAllProductoCarrito() {
-        return productoCarritoRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<LineaCarrito> getAllProductoCarrito() {
+        return productoCarritoRepository.findLineas();
     }
 
     // ============================================================
@@ -41,11 +46,12 @@ public class ProductosCarritoService {
      * Obtiene un producto en carrito por su ID.
      *
      * @param id identificador del producto en carrito
-     * @return producto en carrito encontrado
+     * @return línea de carrito encontrada
      * @throws ResourceNotFoundException si no existe el producto en carrito
      */
-    public ProductoCarrito getProductoCarritoById(Integer id) {
-        return productoCarritoRepository.findById(id)
+    @Transactional(readOnly = true)
+    public LineaCarrito getProductoCarritoById(Integer id) {
+        return productoCarritoRepository.findLineaById(id)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("ProductoCarrito no encontrado con ID: " + id));
     }
@@ -55,12 +61,16 @@ public class ProductosCarritoService {
     // ============================================================
     /**
      * Guarda un nuevo producto en carrito o actualiza la cantidad si ya existe.
-     * Aplica validaciones de stock y cantidad.
+     * Reserva la cantidad total del producto en el carrito, validando contra el
+     * stock que no está reservado por otros carritos. Si el guardado falla (por
+     * ejemplo, otro pedido agregó el mismo producto al carrito a la vez) la
+     * transacción se revierte y la reserva vuelve a como estaba.
      *
      * @param nuevo datos del producto en carrito nuevo
      * @return producto en carrito guardado
      * @throws BadRequestException si el stock es insuficiente o datos inválidos
      */
+    @Transactional
     public ProductoCarrito saveProductoCarrito(ProductoCarrito nuevo) {
 
         Integer carritoId = nuevo.getCarrito().getId();
@@ -69,8 +79,8 @@ public class ProductosCarritoService {
         // Buscar si ya existe ese producto en ese carrito
         var existente = productoCarritoRepository.findByCarritoIdAndProductoId(carritoId, productoId);
 
-        // Obtener el producto real para validar stock
-        Productos producto = productosService.getProductosById(productoId);
+        // Obtener el producto real (sin caché) para validar stock
+        Productos producto = productosService.getProductosByIdConStockActual(productoId);
         int cantidadSolicitada = nuevo.getCantidad();
 
         if (existente.isPresent()) {
@@ -78,15 +88,15 @@ public class ProductosCarritoService {
             ProductoCarrito pc = existente.get();
             int nuevaCantidad = pc.getCantidad() + cantidadSolicitada;
 
-            // Validar stock
-            validarStock(producto, nuevaCantidad);
+            // Validar stock y reservar
+            reservaStockService.reservar(productoId, carritoId, nuevaCantidad);
 
             pc.setCantidad(nuevaCantidad);
             return productoCarritoRepository.save(pc);
         }
 
-        // Si no existe → validar stock antes de crear
-        validarStock(producto, cantidadSolicitada);
+        // Si no existe → reservar stock antes de crear
+        reservaStockService.reservar(productoId, carritoId, cantidadSolicitada);
 
         return productoCarritoRepository.save(nuevo);
     }
@@ -96,7 +106,9 @@ public class ProductosCarritoService {
     // ============================================================
     /**
      * Actualiza los datos de un producto en carrito existente.
-     * Recalcula el total del carrito basado en cambios de cantidad.
+     * Recalcula el total del carrito basado en cambios de cantidad y ajusta la
+     * reserva de stock a la nueva cantidad; si la transacción se revierte, la
+     * reserva vuelve a como estaba.
      *
      * @param id          ID del producto en carrito a actualizar
      * @param nuevosDatos datos nuevos aplicables
@@ -104,6 +116,7 @@ public class ProductosCarritoService {
      * @throws ResourceNotFoundException si el producto en carrito no existe
      * @throws BadRequestException       si los datos son inválidos o stock insuficiente
      */
+    @Transactional
     public ProductoCarrito updateProductoCarrito(Integer id, ProductoCarrito nuevosDatos) {
 
         ProductoCarrito existente = productoCarritoRepository.findById(id)
@@ -113,8 +126,18 @@ public class ProductosCarritoService {
         validarProductoCarrito(nuevosDatos);
 
         int nuevaCantidad = nuevosDatos.getCantidad();
-        Productos producto = productosService.getProductosById(nuevosDatos.getProducto().getId());
-        validarStock(producto, nuevaCantidad);
+        Integer productoAnteriorId = existente.getProducto().getId();
+        Integer carritoAnteriorId = existente.getCarrito().getId();
+        Integer productoId = nuevosDatos.getProducto().getId();
+        Integer carritoId = nuevosDatos.getCarrito().getId();
+
+        Productos producto = productosService.getProductosByIdConStockActual(productoId);
+        reservaStockService.reservar(productoId, carritoId, nuevaCantidad);
+
+        // Si la línea pasó a otro producto o carrito se libera la reserva anterior
+        if (!productoAnteriorId.equals(productoId) || !carritoAnteriorId.equals(carritoId)) {
+            reservaStockService.liberar(productoAnteriorId, carritoAnteriorId);
+        }
 
         // Restar el subtotal anterior
         int cantidadVieja = existente.getCantidad();
@@ -138,11 +161,12 @@ public class ProductosCarritoService {
     // ============================================================
     /**
      * Elimina un producto en carrito por su ID.
-     * Recalcula el total del carrito restando el subtotal.
+     * Recalcula el total del carrito restando el subtotal y libera la reserva de stock.
      *
      * @param id identificador del producto en carrito
      * @throws ResourceNotFoundException si el producto en carrito no existe
      */
+    @Transactional
     public void deleteProductoCarritoById(Integer id) {
 
         ProductoCarrito existente = productoCarritoRepository.findById(id)
@@ -150,7 +174,7 @@ public class ProductosCarritoService {
                         new ResourceNotFoundException("No existe ProductoCarrito con ID: " + id));
 
         // Restar subtotal del carrito antes de eliminarlo
-        Productos producto = productosService.getProductosById(existente.getProducto().getId());
+        Productos producto = productosService.getProductosByIdConStockActual(existente.getProducto().getId());
         int cantidad = existente.getCantidad();
         double subtotal = producto.getPrecio() * cantidad;
 
@@ -158,6 +182,7 @@ public class ProductosCarritoService {
         existente.getCarrito().setTotal(totalActual - subtotal);
 
         productoCarritoRepository.deleteById(id);
+        reservaStockService.liberar(producto.getId(), existente.getCarrito().getId());
     }
 
     // ============================================================
@@ -170,8 +195,9 @@ public class ProductosCarritoService {
      * @return lista de productos en el carrito
      * @throws ResourceNotFoundException si no se encontraron productos para el carrito
      */
-    public List<ProductoCarrito> getProductosCarritoByCarritoId(Integer carritoId) {
-        List<ProductoCarrito> productos = productoCarritoRepository.findByCarrito_Id(carritoId);
+    @Transactional(readOnly = true)
+    public List<LineaCarrito> getProductosCarritoByCarritoId(Integer carritoId) {
+        List<LineaCarrito> productos = productoCarritoRepository.findLineasByCarritoId(carritoId);
 
         if (productos.isEmpty()) {
             throw new ResourceNotFoundException("No se encontraron productos para el carrito con ID: " + carritoId);
@@ -184,7 +210,8 @@ public class ProductosCarritoService {
     // VACIAR CARRITO
     // ============================================================
     /**
-     * Vacía completamente un carrito eliminando todos sus productos y reseteando el total.
+     * Vacía completamente un carrito eliminando todos sus productos, reseteando el total
+     * y liberando las reservas de stock.
      *
      * @param carritoId identificador del carrito
      * @throws ResourceNotFoundException si el carrito no tiene productos
@@ -192,7 +219,7 @@ public class ProductosCarritoService {
     @Transactional
     public void vaciarCarrito(Integer carritoId) {
 
-        List<ProductoCarrito> productos = productoCarritoRepository.findByCarrito_Id(carritoId);
+        List<ProductoCarrito> productos = productoCarritoRepository.findByCarritoIdConProductos(carritoId);
 
         if (productos.isEmpty()) {
             throw new ResourceNotFoundException("El carrito con ID " + carritoId + " no tiene productos.");
@@ -202,6 +229,8 @@ public class ProductosCarritoService {
         productos.get(0).getCarrito().setTotal(0);
 
         productoCarritoRepository.deleteByCarrito_Id(carritoId);
+        reservaStockService.liberarCarrito(carritoId,
+                productos.stream().map(pc -> pc.getProducto().getId()).toList());
     }
 
     // ============================================================
@@ -224,20 +253,4 @@ public class ProductosCarritoService {
             throw new BadRequestException("El carrito es obligatorio.");
         }
     }
-
-    /**
-     * Valida si hay suficiente stock para la cantidad solicitada.
-     *
-     * @param producto           objeto Producto
-     * @param cantidadSolicitada cantidad requerida
-     * @throws BadRequestException si el stock es insuficiente
-     */
-    private void validarStock(Productos producto, int cantidadSolicitada) {
-        if (producto.getStock() < cantidadSolicitada) {
-            throw new BadRequestException(
-                    "Stock insuficiente. Stock disponible: " +
-                            producto.getStock() + ", solicitado: " + cantidadSolicitada
-            );
-        }
-    }
 }
@@ -1,51 +1,237 @@
 package com.Api.SantiMarket.Service;
 
+import com.Api.SantiMarket.Dto.PaginaCursor;
+import com.Api.SantiMarket.Dto.ProductoDetalle;
 import com.Api.SantiMarket.Entities.Productos;
 import com.Api.SantiMarket.Exceptions.BadRequestException;
 import com.Api.SantiMarket.Exceptions.ResourceNotFoundException;
 import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import com.Api.SantiMarket.Interfaces.StockShardInterface;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ProductosService {
 
+    static final int LIMITE_POR_DEFECTO = 20;
+    static final int LIMITE_MAXIMO = 100;
+    private static final LocalDateTime FECHA_MAXIMA = LocalDateTime.of(9999, 12, 31, 23, 59);
+
+    public static final String CACHE_PRODUCTOS = "productos";
+
     private final ProductosInterface productosRepository;
+    private final ProductosBusquedaService busquedaService;
+    private final CacheManager cacheManager;
+    private final ReservaStockService reservaStockService;
+    private final StockShardInterface stockShardRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
 
-    public ProductosService(ProductosInterface productosRepository) {
+    public ProductosService(ProductosInterface productosRepository,
+                            ProductosBusquedaService busquedaService,
+                            CacheManager cacheManager,
+                            ReservaStockService reservaStockService,
+                            StockShardInterface stockShardRepository,
+                            EntityManagerFactory entityManagerFactory,
+                            EntityManager entityManager) {
         this.productosRepository = productosRepository;
+        this.busquedaService = busquedaService;
+        this.cacheManager = cacheManager;
+        this.reservaStockService = reservaStockService;
+        this.stockShardRepository = stockShardRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityManager = entityManager;
     }
 
     // ============================================================
-    // GET ALL PRODUCTOS
+    // GET ALL PRODUCTOS (PAGINADO POR CURSOR)
     // ============================================================
     /**
-     * Obtiene la lista completa de productos registrados.
+     * Obtiene una página del catálogo usando paginación keyset, con filtros
+     * opcionales por categoría y rango de precio. El cursor devuelto en cada
+     * página se envía tal cual para pedir la siguiente.
      *
-     * @return lista de productos
+     * @param categoria categoría exacta a filtrar (opcional)
+     * @param precioMin precio mínimo inclusive (opcional)
+     * @param precioMax precio máximo inclusive (opcional)
+     * @param orden     criterio de orden: "id", "precio" o "fecha" (más nuevos primero y
+     *                  al final los productos sin fecha de creación)
+     * @param cursor    cursor de la página anterior (null para la primera página)
+     * @param limite    tamaño de página, acotado a {@value #LIMITE_MAXIMO}
+     * @return página de productos con el cursor siguiente
+     * @throws BadRequestException si el orden, el cursor o el rango de precios son inválidos
      */
-    public List<Productos> getAllProductos() {
-        return productosRepository.findAll();
+    @Transactional(readOnly = true)
+    public PaginaCursor<Productos> getAllProductos(String categoria, Double precioMin, Double precioMax,
+                                                   String orden, String cursor, Integer limite) {
+
+        double min = precioMin == null ? 0 : precioMin;
+        double max = precioMax == null ? Double.MAX_VALUE : precioMax;
+        if (min > max) {
+            throw new BadRequestException("El precio mínimo no puede ser mayor al precio máximo.");
+        }
+
+        int tamanio = limite == null ? LIMITE_POR_DEFECTO : Math.min(Math.max(limite, 1), LIMITE_MAXIMO);
+        String ordenNormalizado = orden == null ? "id" : orden.trim().toLowerCase();
+        String[] claves = PaginaCursor.decodificar(cursor);
+
+        // Se pide un elemento extra para saber si existe una página siguiente
+        Limit limit = Limit.of(tamanio + 1);
+        List<Productos> productos;
+
+        try {
+            switch (ordenNormalizado) {
+                case "id" -> productos = productosRepository.findPaginaPorId(
+                        categoria, min, max,
+                        claves == null ? 0 : Integer.parseInt(claves[1]), limit);
+                case "precio" -> productos = productosRepository.findPaginaPorPrecio(
+                        categoria, min, max,
+                        claves == null ? -Double.MAX_VALUE : Double.parseDouble(claves[0]),
+                        claves == null ? 0 : Integer.parseInt(claves[1]), limit);
+                case "fecha" -> productos = paginaPorFecha(categoria, min, max, claves, tamanio + 1);
+                default -> throw new BadRequestException(
+                        "Orden inválido: " + orden + ". Valores permitidos: id, precio, fecha.");
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new BadRequestException("Cursor inválido.");
+        }
+
+        boolean hayMas = productos.size() > tamanio;
+        if (hayMas) {
+            productos = productos.subList(0, tamanio);
+        }
+
+        String siguienteCursor = null;
+        if (hayMas) {
+            Productos ultimo = productos.get(productos.size() - 1);
+            String clave = switch (ordenNormalizado) {
+                case "precio" -> String.valueOf(ultimo.getPrecio());
+                // Clave vacía: el cursor quedó en los productos sin fecha
+                case "fecha" -> ultimo.getFechaCreacion() == null ? "" : ultimo.getFechaCreacion().toString();
+                default -> "";
+            };
+            siguienteCursor = PaginaCursor.codificar(clave, ultimo.getId());
+        }
+
+        return new PaginaCursor<>(productos, siguienteCursor, hayMas);
+    }
+
+    /**
+     * Página ordenada por fecha de creación descendente. Los productos sin fecha (altas
+     * anteriores a que se registrara) quedan al final, ordenados por ID descendente; la
+     * página en la que terminan los fechados se completa con los primeros sin fecha.
+     */
+    private List<Productos> paginaPorFecha(String categoria, double min, double max, String[] claves, int cantidad) {
+        if (claves != null && claves[0].isEmpty()) {
+            return productosRepository.findPaginaSinFecha(
+                    categoria, min, max, Integer.parseInt(claves[1]), Limit.of(cantidad));
+        }
+        List<Productos> productos = productosRepository.findPaginaPorFecha(
+                categoria, min, max,
+                claves == null ? FECHA_MAXIMA : LocalDateTime.parse(claves[0]),
+                claves == null ? Integer.MAX_VALUE : Integer.parseInt(claves[1]), Limit.of(cantidad));
+        if (productos.size() == cantidad) {
+            return productos;
+        }
+        List<Productos> completa = new ArrayList<>(productos);
+        completa.addAll(productosRepository.findPaginaSinFecha(
+                categoria, min, max, Integer.MAX_VALUE, Limit.of(cantidad - productos.size())));
+        return completa;
+    }
+
+    // ============================================================
+    // RECORRER CATÁLOGO COMPLETO
+    // ============================================================
+    /**
+     * Recorre todos los productos en orden de ID leyéndolos de a bloques, para exportar
+     * el catálogo sin tenerlo entero en memoria. Cada producto se desacopla del contexto
+     * de persistencia después de procesarlo.
+     *
+     * @param accion se aplica a cada producto
+     */
+    @Transactional(readOnly = true)
+    public void recorrerCatalogo(Consumer<Productos> accion) {
+        try (Stream<Productos> productos = productosRepository.streamCatalogo()) {
+            productos.forEach(producto -> {
+                accion.accept(producto);
+                entityManager.detach(producto);
+            });
+        }
     }
 
     // ============================================================
     // GET PRODUCTO BY ID
     // ============================================================
     /**
-     * Obtiene un producto por su ID.
+     * Obtiene un producto por su ID pasando por la caché de productos, que guarda una
+     * copia inmutable y no la entidad. El stock devuelto puede no reflejar cambios
+     * hechos fuera de este servicio; para validar stock o modificar el producto usar
+     * {@link #getProductosByIdConStockActual(Integer)}.
      *
      * @param id identificador del producto
-     * @return producto encontrado
+     * @return datos del producto encontrado
      * @throws ResourceNotFoundException si no existe el producto
      */
-    public Productos getProductosById(Integer id) {
+    @Cacheable(cacheNames = CACHE_PRODUCTOS, key = "#id")
+    public ProductoDetalle getProductosById(Integer id) {
         return productosRepository.findById(id)
+                .map(ProductoDetalle::desde)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Producto no encontrado con código: " + id));
     }
 
+    // ============================================================
+    // GET PRODUCTO BY ID (SIN CACHÉ)
+    // ============================================================
+    /**
+     * Obtiene un producto directamente de la base de datos, sin pasar por la caché de
+     * productos ni por la de segundo nivel de Hibernate. Se usa en las operaciones que
+     * validan stock o que necesitan la entidad; la transacción de escritura lo fija a la
+     * primaria aunque haya réplica de lectura.
+     *
+     * @param id identificador del producto
+     * @return producto encontrado con el stock actual
+     * @throws ResourceNotFoundException si no existe el producto
+     */
+    @Transactional
+    public Productos getProductosByIdConStockActual(Integer id) {
+        return productosRepository.findByIdSinCache(id)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("Producto no encontrado con código: " + id));
+    }
+
+    // ============================================================
+    // GET STOCK DISPONIBLE
+    // ============================================================
+    /**
+     * Calcula el stock disponible de un producto: stock real menos las unidades
+     * reservadas por carritos que todavía no se pagaron.
+     *
+     * @param id identificador del producto
+     * @return unidades disponibles para agregar a un carrito
+     * @throws ResourceNotFoundException si no existe el producto
+     */
+    @Transactional
+    public int getStockDisponible(Integer id) {
+        Productos producto = getProductosByIdConStockActual(id);
+        return reservaStockService.disponible(id, producto.getStock());
+    }
+
     // ============================================================
     // SAVE PRODUCTO
     // ============================================================
@@ -70,7 +256,9 @@ public class ProductosService {
         if (productos.getFechaCreacion() == null) {
             productos.setFechaCreacion(LocalDateTime.now());
         }
-        return productosRepository.save(productos);
+        Productos guardado = productosRepository.save(productos);
+        busquedaService.indexar(guardado);
+        return guardado;
     }
 
     // ============================================================
@@ -84,7 +272,8 @@ public class ProductosService {
      * @param nuevosDatos datos nuevos aplicables
      * @return producto actualizado
      * @throws ResourceNotFoundException si el producto no existe
-     * @throws BadRequestException       si el nombre es inválido
+     * @throws BadRequestException       si el nombre es inválido o se modifica el stock
+     *                                   de un producto en modo flash
      */
     public Productos updateProductos(Integer id, Productos nuevosDatos) {
         Productos existente = productosRepository.findById(id)
@@ -93,6 +282,9 @@ public class ProductosService {
         if (nuevosDatos.getNombre() == null || nuevosDatos.getNombre().trim().isEmpty()) {
             throw new BadRequestException("El nombre no puede ser nulo o blank.");
         }
+        if (existente.getStock() != nuevosDatos.getStock()) {
+            validarSinModoFlash(id);
+        }
         existente.setDescripcion(nuevosDatos.getDescripcion());
         existente.setPrecio(nuevosDatos.getPrecio());
         existente.setImagen(nuevosDatos.getImagen());
@@ -101,7 +293,10 @@ public class ProductosService {
         existente.setNombre(nuevosDatos.getNombre());
         existente.setCodigo(nuevosDatos.getCodigo());
 
-        return productosRepository.save(existente);
+        Productos actualizado = productosRepository.save(existente);
+        invalidarCache(id);
+        busquedaService.indexar(actualizado);
+        return actualizado;
     }
 
     // ============================================================
@@ -114,14 +309,18 @@ public class ProductosService {
      * @param stock nuevo valor del stock
      * @return producto actualizado
      * @throws ResourceNotFoundException si el producto no existe
+     * @throws BadRequestException       si el producto está en modo flash
      */
     public Productos actualizarStock(Integer id, Integer stock) {
         Productos existente = productosRepository.findById(id)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Producto no encontrado con ID: " + id));
+        validarSinModoFlash(id);
 
         existente.setStock(stock);
-        return productosRepository.save(existente);
+        Productos actualizado = productosRepository.save(existente);
+        invalidarCache(id);
+        return actualizado;
     }
 
     // ============================================================
@@ -132,12 +331,63 @@ public class ProductosService {
      *
      * @param id identificador del producto
      * @throws ResourceNotFoundException si el producto no existe
+     * @throws BadRequestException       si el producto está en modo flash
      */
     public void deleteProductosById(Integer id) {
         if (!productosRepository.existsById(id)) {
             throw new ResourceNotFoundException("No se puede eliminar. Producto no encontrado con código: " + id);
         }
+        validarSinModoFlash(id);
         productosRepository.deleteById(id);
+        invalidarCache(id);
+        busquedaService.eliminar(id);
+    }
+
+    // ============================================================
+    // INVALIDAR CACHÉ
+    // ============================================================
+    /**
+     * Quita un producto de la caché de Spring y de la caché de segundo nivel de Hibernate,
+     * que no ve los UPDATE de stock hechos por JDBC. Si hay una transacción en curso se
+     * vuelve a quitar al confirmarla, para que una lectura concurrente no deje en caché
+     * el valor anterior al commit.
+     *
+     * @param id identificador del producto modificado
+     */
+    public void invalidarCache(Integer id) {
+        evictar(id);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictar(id);
+                }
+            });
+        }
+    }
+
+    private void evictar(Integer id) {
+        Cache cache = cacheManager.getCache(CACHE_PRODUCTOS);
+        if (cache != null) {
+            cache.evict(id);
+        }
+        entityManagerFactory.getCache().evict(Productos.class, id);
     }
-}
 
+    // ============================================================
+    // HELPERS DE VALIDACIÓN
+    // ============================================================
+    /**
+     * En modo flash el stock vive en los shards y el de productos se recalcula
+     * periódicamente, por lo que no se puede modificar directamente.
+     *
+     * @throws BadRequestException si el producto está en modo flash
+     */
+    private void validarSinModoFlash(Integer id) {
+        if (stockShardRepository.existsByProductoId(id)) {
+            throw new BadRequestException("El producto " + id + " está en modo flash. "
+                    + "Desactive el modo flash antes de modificar su stock.");
+        }
+    }
+}
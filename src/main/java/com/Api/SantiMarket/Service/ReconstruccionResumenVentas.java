@@ -0,0 +1,66 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Interfaces.VentaInterface;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Carga el resumen diario de ventas a partir de las ventas existentes. Se corre una
+ * vez después de la migración que crea la tabla, o para cargar ventas insertadas sin
+ * pasar por TicketService:
+ * <pre>
+ * java -jar SantiMarket.jar --spring.profiles.active=resumen-ventas
+ * </pre>
+ * Sin fechas recorre desde la primera hasta la última venta. Repetirlo sobre un
+ * rango ya cargado no duplica nada: cada día se borra y se vuelve a calcular.
+ */
+@Service
+@Profile("resumen-ventas")
+public class ReconstruccionResumenVentas implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconstruccionResumenVentas.class);
+
+    private final ResumenVentasService resumenVentasService;
+    private final VentaInterface ventaRepository;
+    private final String desde;
+    private final String hasta;
+
+    public ReconstruccionResumenVentas(ResumenVentasService resumenVentasService,
+                                       VentaInterface ventaRepository,
+                                       @Value("${santimarket.resumen-ventas.desde:}") String desde,
+                                       @Value("${santimarket.resumen-ventas.hasta:}") String hasta) {
+        this.resumenVentasService = resumenVentasService;
+        this.ventaRepository = ventaRepository;
+        this.desde = desde;
+        this.hasta = hasta;
+    }
+
+    @Override
+    public void run(String... args) {
+        LocalDate inicio = fecha(desde, ventaRepository.primeraFechaCreacion());
+        LocalDate fin = fecha(hasta, ventaRepository.ultimaFechaCreacion());
+        if (inicio == null || fin == null) {
+            log.info("No hay ventas con fecha: el resumen de ventas queda vacío");
+        } else {
+            long comienzo = System.nanoTime();
+            long filas = resumenVentasService.reconstruir(inicio, fin);
+            log.info("Resumen de ventas reconstruido del {} al {}: {} filas en {}",
+                    inicio, fin, filas, Duration.ofNanos(System.nanoTime() - comienzo));
+        }
+    }
+
+    private static LocalDate fecha(String configurada, LocalDateTime porDefecto) {
+        if (!configurada.isBlank()) {
+            return LocalDate.parse(configurada);
+        }
+        return porDefecto == null ? null : porDefecto.toLocalDate();
+    }
+}
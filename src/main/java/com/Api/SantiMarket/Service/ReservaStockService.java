@@ -0,0 +1,155 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Exceptions.BadRequestException;
+import com.Api.SantiMarket.Exceptions.ResourceNotFoundException;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reservas de stock de los carritos. Al agregar o modificar un producto en un
+ * carrito se reserva la cantidad, y el stock disponible para los demás carritos
+ * pasa a ser el stock real menos las reservas vigentes. Las reservas vencen si
+ * el carrito no se modifica durante el TTL configurado y se convierten en
+ * descuentos reales de stock al pagar.
+ *
+ * Las reservas se guardan en la tabla reserva_stock, con su vencimiento en expira_en:
+ * todas las instancias ven las mismas reservas y sobreviven a un reinicio. Las
+ * reservas de un mismo producto se validan de a una bloqueando la fila del producto,
+ * y como se escriben en la transacción de quien las pide, se deshacen con ella.
+ *
+ * Los productos en modo flash no respetan las reservas al pagar: sus shards de stock
+ * se venden al primero que paga.
+ */
+@Service
+public class ReservaStockService {
+
+    private final ProductosInterface productosRepository;
+    private final Duration ttl;
+
+    public ReservaStockService(ProductosInterface productosRepository,
+                               @Value("${santimarket.reservas.ttl:15m}") Duration ttl) {
+        this.productosRepository = productosRepository;
+        this.ttl = ttl;
+    }
+
+    // ============================================================
+    // RESERVAR
+    // ============================================================
+    /**
+     * Fija la cantidad reservada por un carrito para un producto y renueva su vencimiento.
+     * Reemplaza la reserva anterior del mismo carrito, no la acumula. Valida contra el
+     * stock actual de la base con la fila del producto bloqueada.
+     *
+     * @param productoId ID del producto
+     * @param carritoId  ID del carrito que reserva
+     * @param cantidad   cantidad total del producto en el carrito
+     * @throws ResourceNotFoundException si el producto no existe
+     * @throws BadRequestException       si el stock no reservado por otros carritos no alcanza
+     */
+    @Transactional
+    public void reservar(Integer productoId, Integer carritoId, int cantidad) {
+        int stock = productosRepository.bloquearStock(productoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + productoId));
+
+        LocalDateTime ahora = LocalDateTime.now();
+        int disponible = stock - productosRepository.sumarReservas(productoId, carritoId, ahora);
+
+        if (disponible < cantidad) {
+            throw new BadRequestException(
+                    "Stock insuficiente. Stock disponible: " + Math.max(disponible, 0) +
+                            ", solicitado: " + cantidad
+            );
+        }
+        productosRepository.guardarReserva(productoId, carritoId, cantidad, ahora.plus(ttl));
+    }
+
+    // ============================================================
+    // LIBERAR
+    // ============================================================
+    /**
+     * Libera la reserva de un carrito sobre un producto.
+     *
+     * @param productoId ID del producto
+     * @param carritoId  ID del carrito
+     */
+    @Transactional
+    public void liberar(Integer productoId, Integer carritoId) {
+        productosRepository.borrarReservas(carritoId, List.of(productoId));
+    }
+
+    /**
+     * Libera las reservas de un carrito sobre varios productos, por ejemplo al
+     * vaciarlo o al convertirlas en descuentos de stock durante el pago.
+     *
+     * @param carritoId   ID del carrito
+     * @param productoIds productos del carrito
+     */
+    @Transactional
+    public void liberarCarrito(Integer carritoId, Collection<Integer> productoIds) {
+        productosRepository.borrarReservas(carritoId, productoIds);
+    }
+
+    // ============================================================
+    // CONSULTAS
+    // ============================================================
+    /**
+     * Cantidad de un producto reservada por carritos distintos al indicado.
+     *
+     * @param productoId ID del producto
+     * @param carritoId  carrito a excluir, o null para contar todas las reservas
+     * @return unidades reservadas por otros carritos
+     */
+    @Transactional(readOnly = true)
+    public int reservadoPorOtros(Integer productoId, Integer carritoId) {
+        return productosRepository.sumarReservas(productoId, carritoId, LocalDateTime.now());
+    }
+
+    /**
+     * Como {@link #reservadoPorOtros(Integer, Integer)} para varios productos en una
+     * sola consulta.
+     *
+     * @param productoIds IDs de los productos
+     * @param carritoId   carrito a excluir, o null para contar todas las reservas
+     * @return unidades reservadas por otros carritos; los productos sin reservas no aparecen
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, Integer> reservadoPorOtros(Collection<Integer> productoIds, Integer carritoId) {
+        return productosRepository.sumarReservasEnLote(productoIds, carritoId, LocalDateTime.now());
+    }
+
+    /**
+     * Stock disponible para nuevas reservas: stock real menos las reservas vigentes.
+     *
+     * @param productoId ID del producto
+     * @param stock      stock real actual del producto
+     * @return unidades disponibles (nunca negativo)
+     */
+    @Transactional(readOnly = true)
+    public int disponible(Integer productoId, int stock) {
+        return Math.max(stock - reservadoPorOtros(productoId, null), 0);
+    }
+
+    // ============================================================
+    // VENCIMIENTO DE RESERVAS
+    // ============================================================
+    /**
+     * Borra las reservas vencidas. Las consultas ya las ignoran en cuanto pasa su
+     * vencimiento; esta tarea solo evita que la tabla crezca.
+     *
+     * @return cantidad de reservas borradas
+     */
+    @Scheduled(fixedDelayString = "${santimarket.reservas.limpieza:PT30S}")
+    @Transactional
+    public int expirarVencidas() {
+        return productosRepository.borrarReservasVencidas(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,228 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Dto.EstadisticasVentas;
+import com.Api.SantiMarket.Dto.GrupoVentas;
+import com.Api.SantiMarket.Entities.Venta;
+import com.Api.SantiMarket.Exceptions.BadRequestException;
+import com.Api.SantiMarket.Interfaces.VentaDiariaInterface.AgrupacionVentas;
+import com.Api.SantiMarket.Interfaces.VentaDiariaInterface.ClaveVentaDiaria;
+import com.Api.SantiMarket.Interfaces.VentaDiariaInterface.DeltaVentaDiaria;
+import com.Api.SantiMarket.Interfaces.VentaInterface;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resumen diario de ventas por país, provincia, estado y método de pago. TicketService
+ * informa cada cambio de una venta y el resumen se actualiza en la misma transacción,
+ * así las estadísticas de un período se leen del resumen sin recorrer las ventas y
+ * nunca quedan desfasadas de ellas.
+ */
+@Service
+public class ResumenVentasService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumenVentasService.class);
+
+    // Alcanza para comparar varios años y acota lo que puede leer una sola consulta
+    static final int DIAS_MAXIMOS_CONSULTA = 3660;
+
+    // Orden fijo de escritura: dos transacciones que tocan las mismas filas no se bloquean en cruz
+    private static final Comparator<ClaveVentaDiaria> ORDEN_FILAS = Comparator
+            .comparing(ClaveVentaDiaria::dia)
+            .thenComparing(ClaveVentaDiaria::pais)
+            .thenComparing(ClaveVentaDiaria::provincia)
+            .thenComparing(ClaveVentaDiaria::estado)
+            .thenComparing(ClaveVentaDiaria::metodoPago);
+
+    private final VentaInterface ventaRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ResumenVentasService(VentaInterface ventaRepository, PlatformTransactionManager transactionManager) {
+        this.ventaRepository = ventaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // ============================================================
+    // MANTENIMIENTO (DENTRO DE LA TRANSACCIÓN DE LA VENTA)
+    // ============================================================
+    /**
+     * Suma una venta nueva al resumen de su día.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Venta venta) {
+        ClaveVentaDiaria clave = ClaveVentaDiaria.de(venta);
+        if (clave != null) {
+            enLaTransaccion(List.of(new DeltaVentaDiaria(clave, 1, total(venta))));
+        }
+    }
+
+    /**
+     * Resta una venta que se va a eliminar.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void quitar(Venta venta) {
+        ClaveVentaDiaria clave = ClaveVentaDiaria.de(venta);
+        if (clave != null) {
+            enLaTransaccion(List.of(new DeltaVentaDiaria(clave, -1, -total(venta))));
+        }
+    }
+
+    /**
+     * Refleja el cambio de una venta ya registrada: si sigue en la misma fila del resumen
+     * solo ajusta los ingresos; si cambió de día, lugar, estado o método de pago la mueve.
+     *
+     * @param claveAnterior fila a la que sumaba antes del cambio (null si no sumaba a ninguna)
+     * @param totalAnterior total antes del cambio
+     * @param venta         venta ya modificada
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void actualizar(ClaveVentaDiaria claveAnterior, double totalAnterior, Venta venta) {
+        ClaveVentaDiaria clave = ClaveVentaDiaria.de(venta);
+        if (clave != null && clave.equals(claveAnterior)) {
+            if (total(venta) != totalAnterior) {
+                enLaTransaccion(List.of(new DeltaVentaDiaria(clave, 0, total(venta) - totalAnterior)));
+            }
+            return;
+        }
+        List<DeltaVentaDiaria> cambios = new ArrayList<>(2);
+        if (claveAnterior != null) {
+            cambios.add(new DeltaVentaDiaria(claveAnterior, -1, -totalAnterior));
+        }
+        if (clave != null) {
+            cambios.add(new DeltaVentaDiaria(clave, 1, total(venta)));
+        }
+        if (!cambios.isEmpty()) {
+            enLaTransaccion(cambios);
+        }
+    }
+
+    /**
+     * @return total de la venta, 0 si todavía no tiene
+     */
+    public static double total(Venta venta) {
+        return venta.getTotal() == null ? 0 : venta.getTotal();
+    }
+
+    /**
+     * Junta los cambios de la transacción en curso y los escribe todos juntos justo antes
+     * del commit, ordenados por fila: la fila del día queda bloqueada solo durante el
+     * final de la transacción, y dos transacciones que tocan las mismas filas las
+     * bloquean en el mismo orden.
+     */
+    private void enLaTransaccion(List<DeltaVentaDiaria> cambios) {
+        @SuppressWarnings("unchecked")
+        Map<ClaveVentaDiaria, DeltaVentaDiaria> pendientes =
+                (Map<ClaveVentaDiaria, DeltaVentaDiaria>) TransactionSynchronizationManager.getResource(this);
+        if (pendientes == null) {
+            Map<ClaveVentaDiaria, DeltaVentaDiaria> nuevos = new TreeMap<>(ORDEN_FILAS);
+            TransactionSynchronizationManager.bindResource(this, nuevos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    ventaRepository.acumularVentasDiarias(new ArrayList<>(nuevos.values()));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ResumenVentasService.this);
+                }
+            });
+            pendientes = nuevos;
+        }
+        for (DeltaVentaDiaria cambio : cambios) {
+            pendientes.merge(cambio.clave(), cambio, (actual, nuevo) -> new DeltaVentaDiaria(actual.clave(),
+                    actual.ventas() + nuevo.ventas(), actual.ingresos() + nuevo.ingresos()));
+        }
+    }
+
+    // ============================================================
+    // RECONSTRUCCIÓN
+    // ============================================================
+    /**
+     * Recalcula el resumen de un rango de días a partir de las ventas. Cada día se
+     * procesa en su propia transacción, así el trabajo se puede cortar y repetir, y
+     * las ventas que llegan mientras tanto solo esperan lo que tarda un día.
+     *
+     * @param desde primer día, inclusive
+     * @param hasta último día, inclusive
+     * @return filas del resumen escritas
+     */
+    public long reconstruir(LocalDate desde, LocalDate hasta) {
+        long filas = 0;
+        for (LocalDate dia = desde; !dia.isAfter(hasta); dia = dia.plusDays(1)) {
+            LocalDate actual = dia;
+            filas += transactionTemplate.execute(estado -> ventaRepository.reconstruirVentaDiaria(actual));
+            if (actual.getDayOfMonth() == 1) {
+                log.info("Resumen de ventas reconstruido hasta {}", actual);
+            }
+        }
+        return filas;
+    }
+
+    // ============================================================
+    // ESTADÍSTICAS
+    // ============================================================
+    /**
+     * Ventas e ingresos de un período agrupados por día, país, provincia, estado o
+     * método de pago, con filtros opcionales por cada uno de esos datos.
+     *
+     * @param desde      primer día, inclusive
+     * @param hasta      último día, inclusive
+     * @param agrupacion "dia" (por defecto), "pais", "provincia", "estado" o "metodoPago"
+     * @return totales del período y detalle por grupo
+     * @throws BadRequestException si el período o la agrupación son inválidos
+     */
+    @Transactional(readOnly = true)
+    public EstadisticasVentas estadisticas(LocalDate desde, LocalDate hasta, String agrupacion,
+                                           String pais, String provincia, String estado, String metodoPago) {
+        if (desde == null || hasta == null) {
+            throw new BadRequestException("Los parámetros desde y hasta son obligatorios.");
+        }
+        if (desde.isAfter(hasta)) {
+            throw new BadRequestException("La fecha desde no puede ser posterior a hasta.");
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) >= DIAS_MAXIMOS_CONSULTA) {
+            throw new BadRequestException("El período no puede superar " + DIAS_MAXIMOS_CONSULTA + " días.");
+        }
+        AgrupacionVentas criterio = agrupacion(agrupacion);
+
+        List<GrupoVentas> grupos = ventaRepository.sumarVentaDiaria(
+                desde, hasta, criterio, pais, provincia, estado, metodoPago);
+        long ventas = 0;
+        double ingresos = 0;
+        for (GrupoVentas grupo : grupos) {
+            ventas += grupo.ventas();
+            ingresos += grupo.ingresos();
+        }
+        String nombre = criterio == AgrupacionVentas.METODO_PAGO ? "metodoPago" : criterio.name().toLowerCase(Locale.ROOT);
+        return new EstadisticasVentas(desde, hasta, nombre, ventas, ingresos, grupos);
+    }
+
+    private static AgrupacionVentas agrupacion(String agrupacion) {
+        String normalizada = agrupacion == null ? "dia" : agrupacion.trim().toLowerCase(Locale.ROOT);
+        return switch (normalizada) {
+            case "dia" -> AgrupacionVentas.DIA;
+            case "pais" -> AgrupacionVentas.PAIS;
+            case "provincia" -> AgrupacionVentas.PROVINCIA;
+            case "estado" -> AgrupacionVentas.ESTADO;
+            case "metodopago" -> AgrupacionVentas.METODO_PAGO;
+            default -> throw new BadRequestException("Agrupación inválida: " + agrupacion
+                    + ". Valores permitidos: dia, pais, provincia, estado, metodoPago.");
+        };
+    }
+}
@@ -0,0 +1,267 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Dto.EstadoFlash;
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Entities.StockShard;
+import com.Api.SantiMarket.Exceptions.BadRequestException;
+import com.Api.SantiMarket.Exceptions.ResourceNotFoundException;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import com.Api.SantiMarket.Interfaces.StockShardInterface;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Modo flash para productos en promoción. El stock del producto se reparte en N
+ * shards (tabla stock_shard) y cada pago descuenta de un solo shard elegido al azar,
+ * de modo que los pagos concurrentes del mismo producto bloquean filas distintas en
+ * lugar de esperar todos por la fila de productos. El stock de productos se
+ * recalcula periódicamente como la suma de los shards.
+ *
+ * <p>El modo flash vive en la base (productos.modo_flash y las filas de stock_shard),
+ * compartido por todas las instancias. Cada instancia guarda en memoria qué productos
+ * están en modo flash solo para elegir el camino del descuento, y lo relee en cada
+ * reconciliación; el descuento normal no se aplica a un producto en modo flash, así que
+ * una instancia atrasada nunca descuenta de productos.stock mientras hay shards.
+ */
+@Service
+public class StockFlashService {
+
+    static final int SHARDS_POR_DEFECTO = 8;
+    static final int SHARDS_MAXIMO = 64;
+
+    private static final String RECONCILIAR_SQL = """
+            UPDATE productos SET stock = (SELECT SUM(s.stock) FROM stock_shard s WHERE s.producto_id = productos.id)
+            WHERE modo_flash = TRUE AND id IN (SELECT DISTINCT producto_id FROM stock_shard)
+            """;
+
+    private final StockShardInterface shardRepository;
+    private final ProductosInterface productosRepository;
+    private final ProductosService productosService;
+    private final JdbcTemplate jdbcTemplate;
+
+    // ID de producto -> cantidad de shards, según la última lectura de stock_shard
+    // (puede atrasar hasta una reconciliación respecto de otras instancias)
+    private final ConcurrentHashMap<Integer, Integer> activos = new ConcurrentHashMap<>();
+
+    public StockFlashService(StockShardInterface shardRepository,
+                             ProductosInterface productosRepository,
+                             ProductosService productosService,
+                             JdbcTemplate jdbcTemplate) {
+        this.shardRepository = shardRepository;
+        this.productosRepository = productosRepository;
+        this.productosService = productosService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Lee de stock_shard los productos en modo flash, incluidos los que activaron o
+     * desactivaron otras instancias.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarActivos() {
+        Map<Integer, Integer> leidos = new HashMap<>();
+        for (Object[] fila : shardRepository.contarPorProducto()) {
+            leidos.put((Integer) fila[0], ((Number) fila[1]).intValue());
+        }
+        activos.keySet().retainAll(leidos.keySet());
+        activos.putAll(leidos);
+    }
+
+    /**
+     * Indica si el producto estaba en modo flash en la última lectura. Solo sirve para
+     * elegir por dónde descontar: si el descuento se rechaza, el modo se confirma en la
+     * base con {@link ProductosInterface#esModoFlash}.
+     */
+    public boolean esActivo(Integer productoId) {
+        return activos.containsKey(productoId);
+    }
+
+    // ============================================================
+    // ACTIVAR MODO FLASH
+    // ============================================================
+    /**
+     * Reparte el stock actual del producto en shards. Conviene activarlo antes de
+     * que empiece la promoción.
+     *
+     * @param productoId ID del producto
+     * @param shards     cantidad de shards (por defecto {@value #SHARDS_POR_DEFECTO},
+     *                   máximo {@value #SHARDS_MAXIMO})
+     * @return estado del modo flash
+     * @throws ResourceNotFoundException si el producto no existe
+     * @throws BadRequestException       si ya está en modo flash o la cantidad de shards es inválida
+     */
+    @Transactional
+    public EstadoFlash activar(Integer productoId, Integer shards) {
+        int cantidadShards = shards == null ? SHARDS_POR_DEFECTO : shards;
+        if (cantidadShards < 1 || cantidadShards > SHARDS_MAXIMO) {
+            throw new BadRequestException("La cantidad de shards debe estar entre 1 y " + SHARDS_MAXIMO + ".");
+        }
+
+        // Bloquea la fila para que ningún pago descuente stock mientras se reparte; también
+        // ordena dos activaciones del mismo producto, aunque lleguen por instancias distintas
+        Productos producto = productosRepository.findByIdParaActualizar(productoId)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("Producto no encontrado con ID: " + productoId));
+        if (shardRepository.existsByProductoId(productoId)) {
+            throw new BadRequestException("El producto " + productoId + " ya está en modo flash.");
+        }
+
+        int stock = Math.max(producto.getStock(), 0);
+        List<StockShard> nuevos = new ArrayList<>(cantidadShards);
+        for (int i = 0; i < cantidadShards; i++) {
+            StockShard shard = new StockShard();
+            shard.setProductoId(productoId);
+            shard.setShard(i);
+            // El resto de la división se reparte entre los primeros shards
+            shard.setStock(stock / cantidadShards + (i < stock % cantidadShards ? 1 : 0));
+            nuevos.add(shard);
+        }
+        shardRepository.saveAll(nuevos);
+        // Desde el commit, los descuentos normales de cualquier instancia se rechazan
+        productosRepository.marcarModoFlash(productoId, true);
+        despuesDelCommit(() -> activos.put(productoId, cantidadShards));
+
+        return aEstado(productoId, nuevos);
+    }
+
+    // ============================================================
+    // DESACTIVAR MODO FLASH
+    // ============================================================
+    /**
+     * Devuelve el stock de los shards al producto y elimina los shards.
+     *
+     * @param productoId ID del producto
+     * @return estado final del producto (inactivo, con el stock consolidado)
+     * @throws BadRequestException si el producto no está en modo flash
+     */
+    @Transactional
+    public EstadoFlash desactivar(Integer productoId) {
+        // Mismo orden de bloqueo que activar: primero el producto, después los shards
+        Productos producto = productosRepository.findByIdParaActualizar(productoId)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("Producto no encontrado con ID: " + productoId));
+        List<StockShard> shards = shardRepository.findParaActualizar(productoId);
+        if (shards.isEmpty()) {
+            throw new BadRequestException("El producto " + productoId + " no está en modo flash.");
+        }
+        int total = shards.stream().mapToInt(StockShard::getStock).sum();
+        producto.setStock(total);
+
+        shardRepository.deleteAllInBatch(shards);
+        productosRepository.marcarModoFlash(productoId, false);
+        productosService.invalidarCache(productoId);
+        despuesDelCommit(() -> activos.remove(productoId));
+
+        return new EstadoFlash(productoId, false, total, List.of());
+    }
+
+    // ============================================================
+    // ESTADO
+    // ============================================================
+    /**
+     * Obtiene el stock de cada shard de un producto.
+     *
+     * @param productoId ID del producto
+     * @return estado del modo flash (inactivo si el producto no tiene shards)
+     */
+    public EstadoFlash estado(Integer productoId) {
+        return aEstado(productoId, shardRepository.findByProductoIdOrderByShard(productoId));
+    }
+
+    // ============================================================
+    // DESCONTAR STOCK
+    // ============================================================
+    /**
+     * Descuenta stock de un producto en modo flash. Prueba un shard por vez empezando
+     * por uno al azar; si ningún shard alcanza por sí solo, bloquea todos los shards del
+     * producto y descuenta repartiendo entre varios. Si esta instancia todavía no sabe
+     * cuántos shards tiene el producto (lo activó otra), va directo a ese último paso.
+     * Debe ejecutarse dentro de la transacción del pago.
+     *
+     * @param productoId ID del producto
+     * @param cantidad   cantidad a descontar
+     * @return true si se descontó, false si el stock total no alcanza o el producto
+     *         ya no tiene shards
+     */
+    @Transactional
+    public boolean descontar(Integer productoId, int cantidad) {
+        Integer cantidadShards = activos.get(productoId);
+        if (cantidadShards != null) {
+            int inicio = ThreadLocalRandom.current().nextInt(cantidadShards);
+            for (int i = 0; i < cantidadShards; i++) {
+                if (shardRepository.descontar(productoId, (inicio + i) % cantidadShards, cantidad) == 1) {
+                    return true;
+                }
+            }
+        }
+
+        // Agotado: se rechaza sin bloquear los shards, que es el caso normal al final de la oferta
+        if (shardRepository.sumarStock(productoId) < cantidad) {
+            return false;
+        }
+
+        // Ningún shard alcanza solo: se bloquean todos en orden y se descuenta de varios
+        List<StockShard> shards = shardRepository.findParaActualizar(productoId);
+        if (shards.stream().mapToInt(StockShard::getStock).sum() < cantidad) {
+            return false;
+        }
+        int restante = cantidad;
+        for (StockShard shard : shards) {
+            int tomado = Math.min(shard.getStock(), restante);
+            shard.setStock(shard.getStock() - tomado);
+            restante -= tomado;
+            if (restante == 0) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    // ============================================================
+    // RECONCILIACIÓN
+    // ============================================================
+    /**
+     * Relee qué productos están en modo flash, actualiza su stock con la suma de sus
+     * shards en una sola sentencia y los quita de la caché.
+     */
+    @Scheduled(fixedDelayString = "${santimarket.flash.reconciliacion:PT5S}")
+    public void reconciliar() {
+        cargarActivos();
+        if (activos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(RECONCILIAR_SQL);
+        activos.keySet().forEach(productosService::invalidarCache);
+    }
+
+    // ============================================================
+    // HELPERS
+    // ============================================================
+    private static EstadoFlash aEstado(Integer productoId, List<StockShard> shards) {
+        List<Integer> stocks = shards.stream().map(StockShard::getStock).toList();
+        int total = stocks.stream().mapToInt(Integer::intValue).sum();
+        return new EstadoFlash(productoId, !shards.isEmpty(), total, stocks);
+    }
+
+    private static void despuesDelCommit(Runnable accion) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
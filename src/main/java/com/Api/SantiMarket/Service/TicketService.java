@@ -1,5 +1,7 @@
 package com.Api.SantiMarket.Service;
 
+import com.Api.SantiMarket.Dto.PaginaCursor;
+import com.Api.SantiMarket.Dto.VentaResumen;
 import com.Api.SantiMarket.Entities.ProductoCarrito;
 import com.Api.SantiMarket.Entities.ProductoTicket;
 import com.Api.SantiMarket.Entities.Productos;
@@ -10,13 +12,26 @@ import com.Api.SantiMarket.Exceptions.ResourceNotFoundException;
 import com.Api.SantiMarket.Interfaces.ProductoCarritoInterface;
 import com.Api.SantiMarket.Interfaces.ProductoTicketInterface;
 import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import com.Api.SantiMarket.Interfaces.ProductosStockInterface.LineaStock;
+import com.Api.SantiMarket.Interfaces.UsuariosInterface;
+import com.Api.SantiMarket.Interfaces.VentaDiariaInterface.ClaveVentaDiaria;
 import com.Api.SantiMarket.Interfaces.VentaInterface;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -26,17 +41,33 @@ public class TicketService {
     private final ProductoTicketInterface productoTicketRepository;
     private final ProductosInterface productosRepository;
     private final ProductoCarritoInterface productoCarritoRepository;
+    private final ProductosService productosService;
+    private final ReservaStockService reservaStockService;
+    private final StockFlashService stockFlashService;
+    private final MeterRegistry meterRegistry;
+    private final ResumenVentasService resumenVentasService;
+    private final UsuariosInterface usuariosRepository;
+    private final MasVendidosService masVendidosService;
+
+    static final String METRICA_FASE_CHECKOUT = "santimarket.checkout.fase";
+    static final int LIMITE_HISTORIAL_POR_DEFECTO = 20;
+    static final int LIMITE_HISTORIAL_MAXIMO = 100;
+    private static final LocalDateTime FECHA_MINIMA = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime FECHA_MAXIMA = LocalDateTime.of(9999, 12, 31, 23, 59);
 
     // ============================================================
     // GET ALL
     // ============================================================
     /**
-     * Obtiene la lista completa de tickets/ventas.
+     * Recorre todos los tickets/ventas, sin cargar los usuarios ni armar la lista en memoria.
      *
-     * @return lista de ventas
+     * @param accion se aplica a cada venta en orden de ID
      */
-    public List<Venta> getAll() {
-        return ventaRepository.findAll();
+    @Transactional(readOnly = true)
+    public void recorrerTodas(Consumer<VentaResumen> accion) {
+        try (Stream<VentaResumen> ventas = ventaRepository.streamResumenes()) {
+            ventas.forEach(accion);
+        }
     }
 
     // ============================================================
@@ -49,12 +80,80 @@ public class TicketService {
      * @return venta encontrada
      * @throws ResourceNotFoundException si la venta no existe
      */
-    public Venta getById(Integer id) {
-        return ventaRepository.findById(id)
+    @Transactional(readOnly = true)
+    public VentaResumen getById(Integer id) {
+        return ventaRepository.findResumenById(id)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Venta no encontrada con ID: " + id));
     }
 
+    // ============================================================
+    // HISTORIAL DE UN USUARIO (PAGINADO POR CURSOR)
+    // ============================================================
+    /**
+     * Obtiene una página de las ventas de un usuario, de la más nueva a la más vieja,
+     * usando paginación keyset sobre (fechaCreacion, id). El cursor devuelto en cada
+     * página se envía tal cual, con los mismos filtros, para pedir la siguiente.
+     *
+     * @param usuarioId ID del usuario
+     * @param estado    estado exacto a filtrar (opcional)
+     * @param desde     primer día, inclusive (opcional)
+     * @param hasta     último día, inclusive (opcional)
+     * @param cursor    cursor de la página anterior (null para la primera página)
+     * @param limite    tamaño de página, acotado a {@value #LIMITE_HISTORIAL_MAXIMO}
+     * @return página de ventas con el cursor siguiente
+     * @throws BadRequestException       si el cursor o el rango de fechas son inválidos
+     * @throws ResourceNotFoundException si el usuario no existe
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<VentaResumen> historialUsuario(Integer usuarioId, String estado,
+                                                       LocalDate desde, LocalDate hasta,
+                                                       String cursor, Integer limite) {
+
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new BadRequestException("La fecha desde no puede ser posterior a hasta.");
+        }
+
+        int tamanio = limite == null
+                ? LIMITE_HISTORIAL_POR_DEFECTO
+                : Math.min(Math.max(limite, 1), LIMITE_HISTORIAL_MAXIMO);
+        String[] claves = PaginaCursor.decodificar(cursor);
+
+        LocalDateTime ultimaFecha;
+        Integer ultimoId;
+        try {
+            ultimaFecha = claves == null ? FECHA_MAXIMA : LocalDateTime.parse(claves[0]);
+            ultimoId = claves == null ? Integer.MAX_VALUE : Integer.parseInt(claves[1]);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new BadRequestException("Cursor inválido.");
+        }
+
+        // Se pide un elemento extra para saber si existe una página siguiente
+        List<VentaResumen> ventas = ventaRepository.findHistorialUsuario(
+                usuarioId, estado,
+                desde == null ? FECHA_MINIMA : desde.atStartOfDay(),
+                hasta == null ? FECHA_MAXIMA : hasta.plusDays(1).atStartOfDay(),
+                ultimaFecha, ultimoId, Limit.of(tamanio + 1));
+
+        // Solo una página vacía puede deberse a un usuario inexistente
+        if (ventas.isEmpty() && !usuariosRepository.existsById(usuarioId)) {
+            throw new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId);
+        }
+
+        boolean hayMas = ventas.size() > tamanio;
+        if (hayMas) {
+            ventas = ventas.subList(0, tamanio);
+        }
+
+        String siguienteCursor = null;
+        if (hayMas) {
+            VentaResumen ultima = ventas.get(ventas.size() - 1);
+            siguienteCursor = PaginaCursor.codificar(ultima.fechaCreacion().toString(), ultima.id());
+        }
+
+        return new PaginaCursor<>(ventas, siguienteCursor, hayMas);
+    }
+
     // ============================================================
     // CREATE
     // ============================================================
@@ -64,12 +163,15 @@ public class TicketService {
      * @param venta datos iniciales de la venta
      * @return venta guardada
      */
+    @Transactional
     public Venta create(Venta venta) {
 
         if (venta.getFechaCreacion() == null)
             venta.setFechaCreacion(LocalDateTime.now());
 
-        return ventaRepository.save(venta);
+        venta = ventaRepository.save(venta);
+        resumenVentasService.registrar(venta);
+        return venta;
     }
 
     // ============================================================
@@ -84,9 +186,14 @@ public class TicketService {
      * @return venta actualizada
      * @throws ResourceNotFoundException si la venta no existe
      */
+    @Transactional
     public Venta update(Integer id, Venta ventaData) {
 
-        Venta venta = getById(id);
+        Venta venta = ventaRepository.findById(id)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("Venta no encontrada con ID: " + id));
+        ClaveVentaDiaria claveAnterior = ClaveVentaDiaria.de(venta);
+        double totalAnterior = ResumenVentasService.total(venta);
 
         venta.setDescripcion(ventaData.getDescripcion());
         venta.setEstado(ventaData.getEstado());
@@ -96,7 +203,9 @@ public class TicketService {
         venta.setPais(ventaData.getPais());
         venta.setTotal(ventaData.getTotal());
 
-        return ventaRepository.save(venta);
+        venta = ventaRepository.save(venta);
+        resumenVentasService.actualizar(claveAnterior, totalAnterior, venta);
+        return venta;
     }
 
     // ============================================================
@@ -108,13 +217,15 @@ public class TicketService {
      * @param id identificador de la venta
      * @throws ResourceNotFoundException si no existe
      */
+    @Transactional
     public void delete(Integer id) {
 
-        if (!ventaRepository.existsById(id)) {
-            throw new ResourceNotFoundException("No se puede eliminar: venta no encontrada con ID: " + id);
-        }
+        Venta venta = ventaRepository.findById(id)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("No se puede eliminar: venta no encontrada con ID: " + id));
 
-        ventaRepository.deleteById(id);
+        resumenVentasService.quitar(venta);
+        ventaRepository.delete(venta);
     }
 
     // ============================================================
@@ -137,34 +248,46 @@ public class TicketService {
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Venta no encontrada con ID: " + ventaId));
 
-        Productos producto = productosRepository.findById(productoId)
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("Producto no encontrado con ID: " + productoId));
-
         if (cantidad <= 0) {
             throw new BadRequestException("La cantidad debe ser mayor a 0.");
         }
 
-        if (producto.getStock() < cantidad) {
-            throw new BadRequestException("Stock insuficiente. Disponible: " + producto.getStock());
+        // Restar stock de forma atómica: solo se descuenta si alcanza sin tocar
+        // las unidades reservadas en carritos (en modo flash, de los shards)
+        boolean flash = stockFlashService.esActivo(productoId);
+        boolean descontado = flash
+                ? stockFlashService.descontar(productoId, cantidad)
+                : productosRepository.descontarStock(productoId, cantidad,
+                        reservaStockService.reservadoPorOtros(productoId, null)) == 1;
+        if (!descontado) {
+            descontado = reintentarDescuento(productoId, cantidad, null, flash);
+        }
+        if (!descontado) {
+            Productos producto = productosRepository.findByIdSinCache(productoId)
+                    .orElseThrow(() ->
+                            new ResourceNotFoundException("Producto no encontrado con ID: " + productoId));
+            throw new BadRequestException("Stock insuficiente. Disponible: "
+                    + reservaStockService.disponible(productoId, producto.getStock()));
         }
+        productosService.invalidarCache(productoId);
 
-        // Restar stock
-        producto.setStock(producto.getStock() - cantidad);
-        productosRepository.save(producto);
+        // Se lee después del descuento para devolver el stock ya actualizado
+        Productos producto = productosRepository.findByIdSinCache(productoId)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("Producto no encontrado con ID: " + productoId));
 
-        // Crear ProductoTicket
-        ProductoTicket pt = new ProductoTicket();
-        pt.setProducto(producto);
-        pt.setVenta(venta);
-        pt.setCantidad(cantidad);
+        // Crear ProductoTicket con el precio cobrado
+        ProductoTicket pt = ProductoTicket.de(venta, producto, cantidad);
 
         productoTicketRepository.save(pt);
+        masVendidosService.registrar(List.of(pt));
 
-        // Actualizar total
-        double subtotal = producto.getPrecio() * cantidad;
-        venta.setTotal((venta.getTotal() == null ? 0 : venta.getTotal()) + subtotal);
+        // Actualizar total (la venta sigue en la misma fila del resumen diario)
+        ClaveVentaDiaria clave = ClaveVentaDiaria.de(venta);
+        double totalAnterior = ResumenVentasService.total(venta);
+        venta.setTotal(totalAnterior + pt.getSubtotal());
         ventaRepository.save(venta);
+        resumenVentasService.actualizar(clave, totalAnterior, venta);
 
         return pt;
     }
@@ -174,11 +297,21 @@ public class TicketService {
     // ============================================================
     /**
      * Procesa el pago completo de un carrito:
-     * - Verifica stock de todos los productos
+     * - Calcula el total
      * - Crea la venta
-     * - Descarga stock
      * - Crea ProductoTicket por cada item
      * - Vacia el carrito
+     * - Descuenta stock con un UPDATE condicional por item, enviados en un único batch
+     * - Libera las reservas del carrito, que pasan a ser descuentos reales de stock
+     * - Suma la venta al resumen diario de ventas, que se escribe justo antes del commit
+     * - Al confirmar, suma las unidades al ranking de más vendidos
+     *
+     * El descuento de stock se hace al final y en orden de ID de producto, para
+     * que las filas de productos queden bloqueadas el menor tiempo posible y dos
+     * pagos concurrentes no se bloqueen mutuamente. Ante el primer producto sin
+     * stock suficiente se lanza una excepción y toda la transacción se revierte.
+     * Cada descuento deja intactas las unidades reservadas por otros carritos.
+     * Los productos en modo flash descuentan de sus shards de stock.
      *
      * @param carritoId ID del carrito
      * @param usuarioId ID del usuario que paga
@@ -189,26 +322,20 @@ public class TicketService {
     @Transactional
     public Venta realizarPago(Integer carritoId, Integer usuarioId) {
 
-        List<ProductoCarrito> items = productoCarritoRepository.findByCarrito_Id(carritoId);
+        Timer.Sample fase = Timer.start(meterRegistry);
+        List<ProductoCarrito> items = productoCarritoRepository.findByCarritoIdConProductos(carritoId);
 
         if (items.isEmpty()) {
             throw new BadRequestException("El carrito está vacío.");
         }
 
-        // Verificar stock y total preliminar
+        // Total preliminar (el stock se valida de forma atómica al descontarlo)
         double total = 0;
 
         for (ProductoCarrito pc : items) {
-            Productos p = pc.getProducto();
-
-            if (p.getStock() < pc.getCantidad()) {
-                throw new BadRequestException(
-                        "Stock insuficiente para el producto: " + p.getNombre()
-                );
-            }
-
-            total += p.getPrecio() * pc.getCantidad();
+            total += pc.getProducto().getPrecio() * pc.getCantidad();
         }
+        fase = medirFase(fase, "validacion");
 
         // Crear venta
         Venta venta = new Venta();
@@ -221,26 +348,71 @@ public class TicketService {
         venta.setUsuario(u);
 
         venta = ventaRepository.save(venta);
+        // Cada fase envía sus sentencias antes de cerrarse, para que el tiempo medido sea el real
+        ventaRepository.flush();
+        fase = medirFase(fase, "venta");
 
-        // Procesar items
+        // Registrar items con el precio cobrado (inserts agrupados en batch JDBC)
+        List<ProductoTicket> lineas = new ArrayList<>(items.size());
         for (ProductoCarrito pc : items) {
+            lineas.add(ProductoTicket.de(venta, pc.getProducto(), pc.getCantidad()));
+        }
+        productoTicketRepository.saveAll(lineas);
+        productoTicketRepository.flush();
+        masVendidosService.registrar(lineas);
+        fase = medirFase(fase, "lineas");
 
-            Productos p = pc.getProducto();
-            int cantidad = pc.getCantidad();
-
-            p.setStock(p.getStock() - cantidad);
-            productosRepository.save(p);
-
-            ProductoTicket pt = new ProductoTicket();
-            pt.setProducto(p);
-            pt.setVenta(venta);
-            pt.setCantidad(cantidad);
+        // Vaciar carrito (antes de bloquear las filas de productos)
+        productoCarritoRepository.deleteByCarrito_Id(carritoId);
+        fase = medirFase(fase, "carrito");
+
+        // Descontar stock: un UPDATE condicional por producto, todos en un único batch
+        List<ProductoCarrito> porProducto = items.stream()
+                .sorted(Comparator.comparing(pc -> pc.getProducto().getId()))
+                .toList();
+        List<ProductoCarrito> normales = porProducto.stream()
+                .filter(pc -> !stockFlashService.esActivo(pc.getProducto().getId()))
+                .toList();
+
+        // Reservas de los demás carritos sobre estos productos, en una sola consulta
+        Map<Integer, Integer> reservadas = reservaStockService.reservadoPorOtros(
+                normales.stream().map(pc -> pc.getProducto().getId()).toList(), carritoId);
+
+        int[] resultados = productosRepository.descontarStockEnLote(normales.stream()
+                .map(pc -> new LineaStock(pc.getProducto().getId(), pc.getCantidad(),
+                        reservadas.getOrDefault(pc.getProducto().getId(), 0)))
+                .toList());
+
+        for (int i = 0; i < resultados.length; i++) {
+            ProductoCarrito pc = normales.get(i);
+            if (resultados[i] == 0
+                    && !reintentarDescuento(pc.getProducto().getId(), pc.getCantidad(), carritoId, false)) {
+                throw new BadRequestException(
+                        "Stock insuficiente para el producto: " + pc.getProducto().getNombre()
+                );
+            }
+        }
 
-            productoTicketRepository.save(pt);
+        // Productos en modo flash: cada uno descuenta de un shard de stock
+        for (ProductoCarrito pc : porProducto) {
+            Integer productoId = pc.getProducto().getId();
+            if (stockFlashService.esActivo(productoId)
+                    && !stockFlashService.descontar(productoId, pc.getCantidad())
+                    && !reintentarDescuento(productoId, pc.getCantidad(), carritoId, true)) {
+                throw new BadRequestException(
+                        "Stock insuficiente para el producto: " + pc.getProducto().getNombre()
+                );
+            }
         }
+        porProducto.forEach(pc -> productosService.invalidarCache(pc.getProducto().getId()));
+        medirFase(fase, "stock");
 
-        // Vaciar carrito
-        productoCarritoRepository.deleteByCarrito_Id(carritoId);
+        // La fila del resumen se escribe al final de la transacción, así queda bloqueada lo menos posible
+        resumenVentasService.registrar(venta);
+
+        // Las reservas se liberan en la misma transacción: el stock ya quedó descontado
+        reservaStockService.liberarCarrito(carritoId,
+                porProducto.stream().map(pc -> pc.getProducto().getId()).toList());
 
         return venta;
     }
@@ -248,16 +420,53 @@ public class TicketService {
     // ------------------------------------------------------------
 // ACTUALIZAR TOTAL DEL TICKET
 // ------------------------------------------------------------
+    @Transactional
     public Venta updateTotal(Integer ventaId, int cantidad, double precioUnitario) {
 
         Venta venta = ventaRepository.findById(ventaId)
                 .orElseThrow(() -> new RuntimeException("Venta no encontrada con ID: " + ventaId));
+        ClaveVentaDiaria clave = ClaveVentaDiaria.de(venta);
+        double totalAnterior = ResumenVentasService.total(venta);
 
         double nuevoTotal = cantidad * precioUnitario;
         venta.setTotal(nuevoTotal);
 
-        return ventaRepository.save(venta);
+        venta = ventaRepository.save(venta);
+        resumenVentasService.actualizar(clave, totalAnterior, venta);
+        return venta;
     }
 
+    // ============================================================
+    // HELPERS
+    // ============================================================
+    /**
+     * Registra la duración de una fase del checkout en {@value #METRICA_FASE_CHECKOUT}
+     * y comienza a medir la siguiente.
+     */
+    private Timer.Sample medirFase(Timer.Sample muestra, String fase) {
+        muestra.stop(Timer.builder(METRICA_FASE_CHECKOUT)
+                .description("Duración de cada fase de realizarPago")
+                .tag("fase", fase)
+                .register(meterRegistry));
+        return Timer.start(meterRegistry);
+    }
 
+    /**
+     * Segundo intento de un descuento rechazado. El modo flash en memoria puede ir
+     * atrasado si otra instancia lo activó o desactivó: se lee de la base y, si no es
+     * el que se supuso, se descuenta por el otro camino.
+     *
+     * @param flashSupuesto modo con el que se intentó el primer descuento
+     * @return true si el otro camino descontó, false si el stock realmente no alcanza
+     */
+    private boolean reintentarDescuento(Integer productoId, int cantidad, Integer carritoId, boolean flashSupuesto) {
+        boolean flash = productosRepository.esModoFlash(productoId);
+        if (flash == flashSupuesto) {
+            return false;
+        }
+        return flash
+                ? stockFlashService.descontar(productoId, cantidad)
+                : productosRepository.descontarStock(productoId, cantidad,
+                        reservaStockService.reservadoPorOtros(productoId, carritoId)) == 1;
+    }
 }
@@ -5,6 +5,7 @@ import com.Api.SantiMarket.Exceptions.BadRequestException;
 import com.Api.SantiMarket.Exceptions.ResourceNotFoundException;
 import com.Api.SantiMarket.Interfaces.UsuariosInterface;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,6 +27,7 @@ public class UsuariosService {
      *
      * @return lista de usuarios
      */
+    @Transactional(readOnly = true)
     public List<Usuarios> getAllUsuarios() {
         return usuariosRepository.findAll();
     }
@@ -40,6 +42,7 @@ public class UsuariosService {
      * @return usuario encontrado
      * @throws ResourceNotFoundException si no existe el usuario
      */
+    @Transactional(readOnly = true)
     public Usuarios getUsuariosById(Integer id) {
         return usuariosRepository.findById(id)
                 .orElseThrow(() ->
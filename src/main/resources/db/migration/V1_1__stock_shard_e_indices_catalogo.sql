@@ -0,0 +1,23 @@
+-- -------------------------------------
+-- SHARDS DE STOCK E ÍNDICES DEL CATÁLOGO
+-- -------------------------------------
+-- Objetos que no existían en el esquema previo a Flyway. Van en una versión propia para
+-- que también se creen en las bases marcadas en V1; IF NOT EXISTS permite correrla sobre
+-- una base donde ddl-auto=update ya hubiera creado la tabla o la secuencia.
+
+CREATE SEQUENCE IF NOT EXISTS stock_shard_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS stock_shard (
+    id          INTEGER NOT NULL,
+    producto_id INTEGER NOT NULL,
+    shard       INTEGER NOT NULL,
+    stock       INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_stock_shard_producto_shard UNIQUE (producto_id, shard)
+);
+
+-- Paginación keyset del catálogo
+CREATE INDEX IF NOT EXISTS idx_productos_categoria_id ON productos (categoria, id);
+CREATE INDEX IF NOT EXISTS idx_productos_precio_id ON productos (precio, id);
+CREATE INDEX IF NOT EXISTS idx_productos_categoria_precio_id ON productos (categoria, precio, id);
+CREATE INDEX IF NOT EXISTS idx_productos_fecha_creacion_id ON productos (fecha_creacion, id);
@@ -0,0 +1,83 @@
+-- -------------------------------------
+-- ESQUEMA INICIAL
+-- -------------------------------------
+-- Equivale exactamente al esquema que generaba Hibernate con ddl-auto=update antes de
+-- usar Flyway. Las bases existentes se marcan en esta versión sin ejecutarla
+-- (spring.flyway.baseline-on-migrate), así que todo objeto nuevo va en una versión posterior.
+
+-- Secuencias con incremento 50: Hibernate reserva 50 IDs por cada consulta
+CREATE SEQUENCE carrito_compras_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE producto_carrito_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE producto_ticket_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE productos_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE usuarios_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE venta_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE usuarios (
+    id             INTEGER NOT NULL,
+    fecha_registro TIMESTAMP(6),
+    apodo          VARCHAR(255),
+    ciudad         VARCHAR(255),
+    descripcion    VARCHAR(255),
+    email          VARCHAR(255) UNIQUE,
+    pais           VARCHAR(255),
+    password_hash  VARCHAR(255),
+    provincia      VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE productos (
+    id             INTEGER NOT NULL,
+    precio         FLOAT(53) NOT NULL,
+    stock          INTEGER NOT NULL,
+    fecha_creacion TIMESTAMP(6),
+    categoria      VARCHAR(255),
+    codigo         VARCHAR(255),
+    descripcion    VARCHAR(255),
+    imagen         VARCHAR(255),
+    nombre         VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE carrito_compras (
+    id         INTEGER NOT NULL,
+    total      FLOAT(53) NOT NULL,
+    usuario_id INTEGER UNIQUE,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_carrito_compras_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios (id)
+);
+
+CREATE TABLE producto_carrito (
+    id          INTEGER NOT NULL,
+    cantidad    INTEGER,
+    carrito_id  INTEGER NOT NULL,
+    producto_id INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_producto_carrito_carrito FOREIGN KEY (carrito_id) REFERENCES carrito_compras (id),
+    CONSTRAINT fk_producto_carrito_producto FOREIGN KEY (producto_id) REFERENCES productos (id)
+);
+
+CREATE TABLE venta (
+    id             INTEGER NOT NULL,
+    total          FLOAT(53),
+    usuario_id     INTEGER NOT NULL,
+    fecha_creacion TIMESTAMP(6),
+    ciudad         VARCHAR(255),
+    descripcion    VARCHAR(255),
+    estado         VARCHAR(255),
+    metodo_pago    VARCHAR(255),
+    pais           VARCHAR(255),
+    provincia      VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_venta_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios (id)
+);
+
+CREATE TABLE producto_ticket (
+    id          INTEGER NOT NULL,
+    cantidad    INTEGER NOT NULL,
+    producto_id INTEGER NOT NULL,
+    venta_id    INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_producto_ticket_producto FOREIGN KEY (producto_id) REFERENCES productos (id),
+    CONSTRAINT fk_producto_ticket_venta FOREIGN KEY (venta_id) REFERENCES venta (id)
+);
@@ -0,0 +1,31 @@
+-- -------------------------------------
+-- ÍNDICES SOBRE CLAVES FORÁNEAS Y COLUMNAS DE BÚSQUEDA
+-- -------------------------------------
+-- Sin estos índices findByCarrito_Id, findByVenta_Id y findByCarritoIdAndProductoId
+-- recorrían la tabla completa.
+
+-- Un producto aparece una sola vez por carrito: las líneas duplicadas que pudieran
+-- existir se unifican sumando sus cantidades en la de menor ID
+UPDATE producto_carrito pc
+SET cantidad = (SELECT SUM(o.cantidad) FROM producto_carrito o
+                WHERE o.carrito_id = pc.carrito_id AND o.producto_id = pc.producto_id)
+WHERE pc.id = (SELECT MIN(o.id) FROM producto_carrito o
+               WHERE o.carrito_id = pc.carrito_id AND o.producto_id = pc.producto_id)
+  AND EXISTS (SELECT 1 FROM producto_carrito o
+              WHERE o.carrito_id = pc.carrito_id AND o.producto_id = pc.producto_id AND o.id <> pc.id);
+
+DELETE FROM producto_carrito pc
+WHERE pc.id > (SELECT MIN(o.id) FROM producto_carrito o
+               WHERE o.carrito_id = pc.carrito_id AND o.producto_id = pc.producto_id);
+
+-- (carrito_id, producto_id) también resuelve las búsquedas por carrito_id solo
+CREATE UNIQUE INDEX IF NOT EXISTS uk_producto_carrito_carrito_producto ON producto_carrito (carrito_id, producto_id);
+CREATE INDEX IF NOT EXISTS idx_producto_carrito_producto ON producto_carrito (producto_id);
+
+CREATE INDEX IF NOT EXISTS idx_producto_ticket_venta ON producto_ticket (venta_id);
+CREATE INDEX IF NOT EXISTS idx_producto_ticket_producto ON producto_ticket (producto_id);
+
+CREATE INDEX IF NOT EXISTS idx_venta_usuario ON venta (usuario_id);
+
+-- Las búsquedas por categoría usan idx_productos_categoria_id
+CREATE INDEX IF NOT EXISTS idx_productos_codigo ON productos (codigo);
@@ -0,0 +1,26 @@
+-- -------------------------------------
+-- PRECIO Y CATEGORÍA CAPTURADOS EN CADA LÍNEA DE TICKET
+-- -------------------------------------
+-- Cada línea guarda el precio unitario, el subtotal y la categoría del producto al
+-- momento de la venta: los ingresos por producto o por categoría se calculan sobre
+-- producto_ticket sola, sin JOIN y sin depender del precio actual del producto.
+
+ALTER TABLE producto_ticket ADD COLUMN precio_unitario FLOAT(53);
+ALTER TABLE producto_ticket ADD COLUMN subtotal FLOAT(53);
+ALTER TABLE producto_ticket ADD COLUMN categoria VARCHAR(255);
+
+-- Las líneas anteriores no registraron el precio cobrado: toman el precio actual del producto
+UPDATE producto_ticket pt
+SET precio_unitario = (SELECT p.precio FROM productos p WHERE p.id = pt.producto_id),
+    categoria = (SELECT p.categoria FROM productos p WHERE p.id = pt.producto_id);
+
+UPDATE producto_ticket SET subtotal = precio_unitario * cantidad;
+
+ALTER TABLE producto_ticket ALTER COLUMN precio_unitario SET NOT NULL;
+ALTER TABLE producto_ticket ALTER COLUMN subtotal SET NOT NULL;
+
+-- Índices de cobertura: las sumas por producto y por categoría se resuelven leyendo
+-- solo el índice. idx_producto_ticket_producto (V2) se conserva porque H2 lo tomó
+-- como índice de la clave foránea producto_id y no permite borrarlo.
+CREATE INDEX idx_producto_ticket_producto_ingresos ON producto_ticket (producto_id, cantidad, subtotal);
+CREATE INDEX idx_producto_ticket_categoria ON producto_ticket (categoria, cantidad, subtotal);
@@ -0,0 +1,22 @@
+-- -------------------------------------
+-- RESUMEN DIARIO DE VENTAS
+-- -------------------------------------
+-- Cantidad de ventas e ingresos por día, país, provincia, estado y método de pago.
+-- Se actualiza en la misma transacción que cada alta, cambio o baja de una venta, así
+-- las estadísticas de un período leen como mucho unas filas por día en lugar de todas
+-- las ventas. Los datos faltantes se guardan como '' porque forman parte de la clave.
+-- Las ventas previas a esta versión se cargan con el perfil resumen-ventas.
+
+CREATE TABLE venta_diaria (
+    dia         DATE NOT NULL,
+    pais        VARCHAR(255) NOT NULL,
+    provincia   VARCHAR(255) NOT NULL,
+    estado      VARCHAR(255) NOT NULL,
+    metodo_pago VARCHAR(255) NOT NULL,
+    ventas      BIGINT NOT NULL,
+    ingresos    FLOAT(53) NOT NULL,
+    PRIMARY KEY (dia, pais, provincia, estado, metodo_pago)
+);
+
+-- La reconstrucción de un día recorre las ventas de ese día
+CREATE INDEX IF NOT EXISTS idx_venta_fecha_creacion ON venta (fecha_creacion);
@@ -0,0 +1,10 @@
+-- -------------------------------------
+-- HISTORIAL DE VENTAS POR USUARIO
+-- -------------------------------------
+-- El historial se pagina por (fecha_creacion, id) descendente dentro de un usuario,
+-- así cada página lee solo sus filas del índice sin importar cuántas ventas existan.
+-- La segunda variante cubre el filtro por estado. idx_venta_usuario queda porque H2
+-- lo tiene asociado a la clave foránea y no permite eliminarlo.
+
+CREATE INDEX IF NOT EXISTS idx_venta_usuario_fecha_id ON venta (usuario_id, fecha_creacion, id);
+CREATE INDEX IF NOT EXISTS idx_venta_usuario_estado_fecha_id ON venta (usuario_id, estado, fecha_creacion, id);
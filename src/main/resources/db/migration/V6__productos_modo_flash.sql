@@ -0,0 +1,12 @@
+-- -------------------------------------
+-- MODO FLASH COMPARTIDO ENTRE INSTANCIAS
+-- -------------------------------------
+-- El modo flash de cada producto queda en la base: el descuento normal de stock solo
+-- se aplica con modo_flash = FALSE, así una instancia que todavía no se enteró de una
+-- activación no descuenta de productos.stock (que la reconciliación pisaría con la
+-- suma de los shards) y pasa a descontar de los shards.
+
+ALTER TABLE productos ADD COLUMN modo_flash BOOLEAN DEFAULT FALSE NOT NULL;
+
+-- Productos que ya tenían shards antes de la migración
+UPDATE productos SET modo_flash = TRUE WHERE id IN (SELECT producto_id FROM stock_shard);
@@ -0,0 +1,18 @@
+-- -------------------------------------
+-- RESERVAS DE STOCK DE LOS CARRITOS
+-- -------------------------------------
+-- Las reservas vivían en la memoria de cada instancia: se perdían al reiniciar y las
+-- demás instancias no las veían. Una fila por carrito y producto; las vencidas dejan
+-- de contar en cuanto pasa expira_en y una tarea programada las borra.
+
+CREATE TABLE reserva_stock (
+    producto_id INTEGER NOT NULL,
+    carrito_id  INTEGER NOT NULL,
+    cantidad    INTEGER NOT NULL,
+    expira_en   TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (producto_id, carrito_id)
+);
+
+-- Liberar las reservas de un carrito y borrar las vencidas
+CREATE INDEX idx_reserva_stock_carrito ON reserva_stock (carrito_id);
+CREATE INDEX idx_reserva_stock_expira_en ON reserva_stock (expira_en);
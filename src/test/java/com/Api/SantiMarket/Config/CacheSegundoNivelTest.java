@@ -0,0 +1,92 @@
+package com.Api.SantiMarket.Config;
+
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Entities.Usuarios;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import com.Api.SantiMarket.Interfaces.ProductosStockInterface.LineaStock;
+import com.Api.SantiMarket.Interfaces.UsuariosInterface;
+import com.Api.SantiMarket.Service.ProductosService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Caché de segundo nivel de Hibernate: lecturas repetidas sin SQL y stock coherente
+ * después de los UPDATE por JDBC, que Hibernate no ve.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CacheSegundoNivelTest {
+
+    @Autowired
+    private ProductosInterface productosRepository;
+    @Autowired
+    private UsuariosInterface usuariosRepository;
+    @Autowired
+    private ProductosService productosService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void productosYUsuariosSeLeenDeLaCache() throws Exception {
+        Integer productoId = crearProducto(10).getId();
+        Usuarios usuario = new Usuarios();
+        usuario.setEmail(UUID.randomUUID() + "@test.com");
+        usuario.setPasswordHash("secreto");
+        Integer usuarioId = usuariosRepository.save(usuario).getId();
+
+        productosRepository.findById(productoId);
+        usuariosRepository.findById(usuarioId);
+        usuariosRepository.findByEmail(usuario.getEmail());
+
+        MedicionSentencias.conPresupuesto(0, () -> productosRepository.findById(productoId));
+
+        // Usuarios sale de la caché, pero su carrito (lado inverso del @OneToOne) se consulta igual
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long aciertosUsuarios = estadisticas.getCacheRegionStatistics(CacheConfig.REGION_USUARIOS).getHitCount();
+        long aciertosEmail = estadisticas.getCacheRegionStatistics(CacheConfig.REGION_USUARIOS_EMAIL).getHitCount();
+
+        usuariosRepository.findById(usuarioId);
+        assertThat(usuariosRepository.findByEmail(usuario.getEmail())).get()
+                .extracting(Usuarios::getId).isEqualTo(usuarioId);
+
+        assertThat(estadisticas.getCacheRegionStatistics(CacheConfig.REGION_USUARIOS_EMAIL).getHitCount())
+                .isEqualTo(aciertosEmail + 1);
+        assertThat(estadisticas.getCacheRegionStatistics(CacheConfig.REGION_USUARIOS).getHitCount())
+                .isEqualTo(aciertosUsuarios + 1);
+    }
+
+    @Test
+    void elStockDescontadoPorJdbcNoQuedaViejoEnCache() {
+        Integer productoId = crearProducto(10).getId();
+        assertThat(productosRepository.findById(productoId).orElseThrow().getStock()).isEqualTo(10);
+
+        transactionTemplate.executeWithoutResult(estado -> {
+            productosRepository.descontarStockEnLote(List.of(new LineaStock(productoId, 3, 0)));
+            productosService.invalidarCache(productoId);
+        });
+
+        assertThat(productosRepository.findById(productoId).orElseThrow().getStock()).isEqualTo(7);
+    }
+
+    private Productos crearProducto(int stock) {
+        Productos producto = new Productos();
+        producto.setNombre("Producto " + UUID.randomUUID());
+        producto.setDescripcion("Producto de prueba");
+        producto.setPrecio(100);
+        producto.setStock(stock);
+        return productosRepository.save(producto);
+    }
+}
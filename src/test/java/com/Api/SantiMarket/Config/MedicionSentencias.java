@@ -0,0 +1,70 @@
+package com.Api.SantiMarket.Config;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * API de tests para fijar presupuestos de sentencias SQL sobre una llamada a un servicio
+ * o una request de MockMvc (que corre en el mismo hilo del test).
+ *
+ * <pre>
+ * Venta venta = MedicionSentencias.conPresupuesto(8, () -> ticketService.realizarPago(carritoId, usuarioId));
+ * </pre>
+ */
+public final class MedicionSentencias {
+
+    // Repeticiones de una sentencia a partir de las cuales se considera un N+1
+    static final int UMBRAL_N_MAS_UNO = 3;
+
+    private final int total;
+    private final Map<String, Integer> repetidas;
+
+    private MedicionSentencias(int total, Map<String, Integer> repetidas) {
+        this.total = total;
+        this.repetidas = repetidas;
+    }
+
+    /**
+     * Ejecuta la acción contando sus sentencias SQL.
+     */
+    public static <T> Resultado<T> medir(Callable<T> accion) throws Exception {
+        ContadorSentencias.reiniciar();
+        T valor = accion.call();
+        return new Resultado<>(valor, new MedicionSentencias(
+                ContadorSentencias.cantidad(), ContadorSentencias.repetidas(UMBRAL_N_MAS_UNO)));
+    }
+
+    /**
+     * Ejecuta la acción y falla si supera el presupuesto o repite una misma sentencia (N+1).
+     *
+     * @return el valor devuelto por la acción
+     */
+    public static <T> T conPresupuesto(int maximo, Callable<T> accion) throws Exception {
+        Resultado<T> resultado = medir(accion);
+        resultado.medicion().noSupera(maximo).sinNMasUno();
+        return resultado.valor();
+    }
+
+    public int total() {
+        return total;
+    }
+
+    public MedicionSentencias noSupera(int maximo) {
+        if (total > maximo) {
+            throw new AssertionError("Se ejecutaron " + total + " sentencias SQL, presupuesto: " + maximo);
+        }
+        return this;
+    }
+
+    public MedicionSentencias sinNMasUno() {
+        if (!repetidas.isEmpty()) {
+            StringBuilder detalle = new StringBuilder("Posible N+1, sentencias repetidas:");
+            repetidas.forEach((sql, veces) -> detalle.append("\n  ").append(veces).append("x ").append(sql));
+            throw new AssertionError(detalle.toString());
+        }
+        return this;
+    }
+
+    public record Resultado<T>(T valor, MedicionSentencias medicion) {
+    }
+}
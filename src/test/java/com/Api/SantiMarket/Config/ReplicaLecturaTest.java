@@ -0,0 +1,85 @@
+package com.Api.SantiMarket.Config;
+
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Enrutamiento a la réplica de lectura. La réplica es otra base H2 sin replicación, así
+ * que lo que se escribe en la primaria nunca aparece en ella: eso permite ver a qué base
+ * fue cada lectura.
+ */
+@SpringBootTest(properties = {
+        "santimarket.replica.url=" + ReplicaLecturaTest.URL_REPLICA,
+        "santimarket.replica.hikari.maximum-pool-size=2"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaLecturaTest {
+
+    static final String URL_REPLICA =
+            "jdbc:h2:mem:replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    static void migrarReplica() {
+        Flyway.configure().dataSource(URL_REPLICA, "sa", "").load().migrate();
+    }
+
+    @Test
+    void lasLecturasVanALaReplicaSalvoDespuesDeEscribir() throws Exception {
+        String categoria = "replica-" + UUID.randomUUID();
+
+        String setCookie = mockMvc.perform(post("/apiMarket/productos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Yerba\",\"descripcion\":\"Prueba\",\"precio\":100,\"stock\":5,\"categoria\":\"" + categoria + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader(HttpHeaders.SET_COOKIE);
+
+        assertThat(setCookie).startsWith(LecturaPropia.COOKIE + "=");
+        String valor = setCookie.substring(LecturaPropia.COOKIE.length() + 1, setCookie.indexOf(';'));
+
+        // Sin la cookie la lectura va a la réplica, que no tiene el producto
+        mockMvc.perform(get("/apiMarket/productos").param("categoria", categoria))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+
+        // Con la cookie vigente el mismo cliente lee de la primaria y ve su escritura
+        mockMvc.perform(get("/apiMarket/productos").param("categoria", categoria)
+                        .cookie(new Cookie(LecturaPropia.COOKIE, valor)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1));
+    }
+
+    @Test
+    void unaCookieVencidaNoFijaLaPrimaria() throws Exception {
+        String categoria = "replica-" + UUID.randomUUID();
+        mockMvc.perform(post("/apiMarket/productos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Mate\",\"descripcion\":\"Prueba\",\"precio\":50,\"stock\":5,\"categoria\":\"" + categoria + "\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/apiMarket/productos").param("categoria", categoria)
+                        .cookie(new Cookie(LecturaPropia.COOKIE, Long.toString(System.currentTimeMillis() - 1))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+    }
+}
@@ -0,0 +1,145 @@
+package com.Api.SantiMarket.Controller;
+
+import com.Api.SantiMarket.Entities.ProductoTicket;
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Entities.Usuarios;
+import com.Api.SantiMarket.Entities.Venta;
+import com.Api.SantiMarket.Interfaces.ProductoTicketInterface;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import com.Api.SantiMarket.Interfaces.UsuariosInterface;
+import com.Api.SantiMarket.Interfaces.VentaInterface;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Listados completos escritos en streaming: la respuesta se arma en un hilo async
+ * y tiene que ser el mismo arreglo JSON que devolvía la lista (o el CSV de la exportación).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ListadosCompletosTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductosInterface productosRepository;
+    @Autowired
+    private UsuariosInterface usuariosRepository;
+    @Autowired
+    private VentaInterface ventaRepository;
+    @Autowired
+    private ProductoTicketInterface productoTicketRepository;
+
+    @Test
+    void elCatalogoSeEscribeCompletoYEnOrden() throws Exception {
+        Integer primero = crearProducto().getId();
+        Integer segundo = crearProducto().getId();
+
+        String json = leerEnStreaming("/apiMarket/productos/catalogo");
+
+        List<Integer> ids = JsonPath.read(json, "$[*].id");
+        assertThat(ids).containsSubsequence(primero, segundo).isSorted();
+        assertThat(JsonPath.<List<Object>>read(json, "$[?(@.id == " + primero + ")].productoTicket")).isEmpty();
+    }
+
+    @Test
+    void lasVentasSeEscribenSinElUsuario() throws Exception {
+        Usuarios usuario = crearUsuario();
+
+        Venta venta = new Venta();
+        venta.setDescripcion("Venta de prueba");
+        venta.setUsuario(usuario);
+        Integer ventaId = ventaRepository.save(venta).getId();
+
+        String json = leerEnStreaming("/apiMarket/ticket");
+
+        assertThat(JsonPath.<List<Integer>>read(json, "$[?(@.id == " + ventaId + ")].usuarioId"))
+                .containsExactly(usuario.getId());
+        assertThat(JsonPath.<List<Object>>read(json, "$[?(@.id == " + ventaId + ")].usuario")).isEmpty();
+    }
+
+    @Test
+    void laExportacionEscribeUnaFilaCsvPorLineaDeTicket() throws Exception {
+        Usuarios usuario = crearUsuario();
+        Productos producto = crearProducto();
+        Venta conLineas = crearVenta(usuario, "Compra \"mayorista\", local", LocalDateTime.of(2011, 11, 11, 9, 30));
+        ProductoTicket primera = productoTicketRepository.save(ProductoTicket.de(conLineas, producto, 2));
+        ProductoTicket segunda = productoTicketRepository.save(ProductoTicket.de(conLineas, producto, 1));
+        Venta sinLineas = crearVenta(usuario, "Sin líneas", LocalDateTime.of(2011, 11, 11, 18, 0));
+        crearVenta(usuario, "Fuera del período", LocalDateTime.of(2011, 11, 12, 0, 0));
+
+        MvcResult inicio = mockMvc.perform(get("/apiMarket/ticket/export")
+                        .param("desde", "2011-11-11").param("hasta", "2011-11-11"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"ventas_2011-11-11_2011-11-11.csv\""))
+                .andReturn().getResponse().getContentAsString();
+
+        String ventaConLineas = conLineas.getId() + ",2011-11-11 09:30:00,\"Compra \"\"mayorista\"\", local\",,,,,,"
+                + usuario.getId() + ",,";
+        String ventaSinLineas = sinLineas.getId() + ",2011-11-11 18:00:00,Sin líneas,,,,,," + usuario.getId() + ",,";
+        assertThat(csv.lines()).containsExactly(
+                "venta_id,fecha_creacion,descripcion,estado,metodo_pago,ciudad,provincia,pais,"
+                        + "usuario_id,total,linea_id,producto_id,categoria,cantidad,precio_unitario,subtotal",
+                ventaConLineas + primera.getId() + "," + producto.getId() + ",,2,100.0,200.0",
+                ventaConLineas + segunda.getId() + "," + producto.getId() + ",,1,100.0,100.0",
+                ventaSinLineas + ",,,,,");
+    }
+
+    private String leerEnStreaming(String url) throws Exception {
+        MvcResult inicio = mockMvc.perform(get(url))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private Usuarios crearUsuario() {
+        Usuarios usuario = new Usuarios();
+        usuario.setEmail(UUID.randomUUID() + "@test.com");
+        usuario.setPasswordHash("secreto");
+        return usuariosRepository.save(usuario);
+    }
+
+    private Venta crearVenta(Usuarios usuario, String descripcion, LocalDateTime fecha) {
+        Venta venta = new Venta();
+        venta.setDescripcion(descripcion);
+        venta.setFechaCreacion(fecha);
+        venta.setUsuario(usuario);
+        return ventaRepository.save(venta);
+    }
+
+    private Productos crearProducto() {
+        Productos producto = new Productos();
+        producto.setNombre("Producto " + UUID.randomUUID());
+        producto.setDescripcion("Producto de prueba");
+        producto.setPrecio(100);
+        producto.setStock(10);
+        return productosRepository.save(producto);
+    }
+}
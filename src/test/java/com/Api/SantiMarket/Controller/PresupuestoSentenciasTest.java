@@ -0,0 +1,129 @@
+package com.Api.SantiMarket.Controller;
+
+import com.Api.SantiMarket.Config.MedicionSentencias;
+import com.Api.SantiMarket.Entities.CarritoCompras;
+import com.Api.SantiMarket.Entities.ProductoCarrito;
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Entities.Usuarios;
+import com.Api.SantiMarket.Interfaces.CarritoComprasInteraface;
+import com.Api.SantiMarket.Interfaces.ProductoCarritoInterface;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import com.Api.SantiMarket.Interfaces.UsuariosInterface;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Presupuestos de sentencias SQL de los endpoints principales: si un cambio agrega
+ * una consulta por fila (N+1) o una consulta de más, estos tests fallan.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PresupuestoSentenciasTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductosInterface productosRepository;
+    @Autowired
+    private UsuariosInterface usuariosRepository;
+    @Autowired
+    private CarritoComprasInteraface carritoRepository;
+    @Autowired
+    private ProductoCarritoInterface productoCarritoRepository;
+
+    @Test
+    void paginaDeProductosEnDosSentenciasComoMaximo() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            crearProducto(10);
+        }
+
+        MedicionSentencias.conPresupuesto(2, () -> mockMvc.perform(get("/apiMarket/productos").param("limite", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(20)));
+    }
+
+    @Test
+    void productoCacheadoNoConsultaLaBase() throws Exception {
+        Integer id = crearProducto(10).getId();
+        mockMvc.perform(get("/apiMarket/productos/{codigo}", id)).andExpect(status().isOk());
+
+        MedicionSentencias.conPresupuesto(0, () -> mockMvc.perform(get("/apiMarket/productos/{codigo}", id))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void pagoDeVeinteLineasEnOchoSentenciasComoMaximo() throws Exception {
+        // Pagos previos para que las secuencias ya tengan un bloque de IDs reservado
+        pagar(crearCarrito(1));
+        pagar(crearCarrito(1));
+
+        MedicionSentencias.conPresupuesto(8, () -> pagar(crearCarrito(20)));
+    }
+
+    @Test
+    void ticketYSusLineasEnUnaSentenciaSinDatosDelUsuario() throws Exception {
+        CarritoCompras carrito = crearCarrito(5);
+        Integer ventaId = JsonPath.read(pagar(carrito).andReturn().getResponse().getContentAsString(), "$.id");
+
+        MedicionSentencias.conPresupuesto(1, () -> mockMvc.perform(get("/apiMarket/ticket/{id}", ventaId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usuarioId").value(carrito.getUsuario().getId()))
+                .andExpect(jsonPath("$.usuario").doesNotExist()));
+
+        MedicionSentencias.conPresupuesto(1, () -> mockMvc.perform(get("/apiMarket/producto-ticket/venta/{id}", ventaId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].nombre").exists())
+                .andExpect(jsonPath("$[0].venta").doesNotExist()));
+    }
+
+    private ResultActions pagar(CarritoCompras carrito) throws Exception {
+        return mockMvc.perform(post("/apiMarket/ticket/pago")
+                        .param("carritoId", carrito.getId().toString())
+                        .param("usuarioId", carrito.getUsuario().getId().toString()))
+                .andExpect(status().isOk());
+    }
+
+    private CarritoCompras crearCarrito(int lineas) {
+        Usuarios usuario = new Usuarios();
+        usuario.setEmail(UUID.randomUUID() + "@test.com");
+        usuario.setPasswordHash("secreto");
+        usuario = usuariosRepository.save(usuario);
+
+        CarritoCompras carrito = new CarritoCompras();
+        carrito.setUsuario(usuario);
+        carrito = carritoRepository.save(carrito);
+
+        for (int i = 0; i < lineas; i++) {
+            ProductoCarrito pc = new ProductoCarrito();
+            pc.setCarrito(carrito);
+            pc.setProducto(crearProducto(10));
+            pc.setCantidad(1);
+            productoCarritoRepository.save(pc);
+        }
+        return carrito;
+    }
+
+    private Productos crearProducto(int stock) {
+        Productos producto = new Productos();
+        producto.setNombre("Producto " + UUID.randomUUID());
+        producto.setDescripcion("Producto de prueba");
+        producto.setPrecio(100);
+        producto.setStock(stock);
+        return productosRepository.save(producto);
+    }
+}
@@ -0,0 +1,72 @@
+package com.Api.SantiMarket.Interfaces;
+
+import com.Api.SantiMarket.Entities.CarritoCompras;
+import com.Api.SantiMarket.Entities.ProductoCarrito;
+import com.Api.SantiMarket.Entities.Productos;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductoCarritoInterfaceTest {
+
+    @Autowired
+    private ProductoCarritoInterface productoCarritoRepository;
+    @Autowired
+    private ProductosInterface productosRepository;
+    @Autowired
+    private CarritoComprasInteraface carritoRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void lasMigracionesCreanLosIndicesDeClavesForaneas() {
+        List<String> indices = jdbcTemplate.queryForList(
+                "SELECT index_name FROM information_schema.indexes", String.class);
+
+        assertThat(indices).contains(
+                "uk_producto_carrito_carrito_producto", "idx_producto_carrito_producto",
+                "idx_producto_ticket_venta", "idx_producto_ticket_producto",
+                "idx_producto_ticket_producto_ingresos", "idx_producto_ticket_categoria",
+                "idx_venta_usuario", "idx_productos_codigo");
+    }
+
+    @Test
+    void unProductoApareceUnaSolaVezPorCarrito() {
+        CarritoCompras carrito = carritoRepository.save(new CarritoCompras());
+        Productos producto = new Productos();
+        producto.setNombre("Producto");
+        producto.setStock(10);
+        producto = productosRepository.save(producto);
+
+        productoCarritoRepository.save(linea(carrito, producto));
+
+        ProductoCarrito duplicada = linea(carrito, producto);
+        assertThatThrownBy(() -> productoCarritoRepository.save(duplicada))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(productoCarritoRepository.findByCarritoIdAndProductoId(carrito.getId(), producto.getId()))
+                .isPresent();
+    }
+
+    private static ProductoCarrito linea(CarritoCompras carrito, Productos producto) {
+        ProductoCarrito pc = new ProductoCarrito();
+        pc.setCarrito(carrito);
+        pc.setProducto(producto);
+        pc.setCantidad(1);
+        return pc;
+    }
+}
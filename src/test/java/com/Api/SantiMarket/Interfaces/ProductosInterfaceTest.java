@@ -0,0 +1,92 @@
+package com.Api.SantiMarket.Interfaces;
+
+import com.Api.SantiMarket.Entities.Productos;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductosInterfaceTest {
+
+    @Autowired
+    private ProductosInterface productosRepository;
+
+    @Test
+    void descontarStockNoDescuentaSiNoAlcanza() {
+        Integer id = crearProducto(3).getId();
+
+        assertThat(productosRepository.descontarStock(id, 5)).isZero();
+        assertThat(stockDe(id)).isEqualTo(3);
+
+        assertThat(productosRepository.descontarStock(id, 3)).isEqualTo(1);
+        assertThat(stockDe(id)).isZero();
+    }
+
+    @Test
+    void descontarStockConcurrenteNoVendeDeMas() throws Exception {
+        int stockInicial = 100;
+        int hilos = 16;
+        int intentosPorHilo = 25;
+        Integer id = crearProducto(stockInicial).getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger unidadesVendidas = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+
+        for (int h = 0; h < hilos; h++) {
+            tareas.add(pool.submit(() -> {
+                largada.await();
+                for (int i = 0; i < intentosPorHilo; i++) {
+                    int cantidad = ThreadLocalRandom.current().nextInt(1, 4);
+                    if (productosRepository.descontarStock(id, cantidad) == 1) {
+                        unidadesVendidas.addAndGet(cantidad);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        pool.shutdown();
+
+        // Se pidieron muchas más unidades que las disponibles: nunca se vende de más
+        assertThat(unidadesVendidas.get()).isLessThanOrEqualTo(stockInicial);
+        assertThat(stockDe(id)).isEqualTo(stockInicial - unidadesVendidas.get());
+        assertThat(stockDe(id)).isBetween(0, 2);
+    }
+
+    private Productos crearProducto(int stock) {
+        Productos p = new Productos();
+        p.setNombre("Producto en oferta");
+        p.setDescripcion("Producto de prueba");
+        p.setPrecio(10);
+        p.setStock(stock);
+        return productosRepository.save(p);
+    }
+
+    private int stockDe(Integer id) {
+        return productosRepository.findById(id).orElseThrow().getStock();
+    }
+}
@@ -0,0 +1,95 @@
+package com.Api.SantiMarket.Service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GeneradorDatosServiceTest {
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void laMismaSemillaGeneraLosMismosDatos() throws Exception {
+        int maximoProductos = maximo("productos");
+        int maximoVentas = maximo("venta");
+        generador(7).generar();
+        List<Map<String, Object>> primera = ventas(maximoProductos, maximoVentas);
+
+        int maximoProductos2 = maximo("productos");
+        int maximoVentas2 = maximo("venta");
+        GeneradorDatosService.Resumen resumen = generador(7).generar();
+        List<Map<String, Object>> segunda = ventas(maximoProductos2, maximoVentas2);
+
+        assertThat(resumen.ventas()).isEqualTo(300);
+        assertThat(segunda).hasSize(primera.size()).isEqualTo(primera);
+
+        // Las secuencias quedan después de los IDs cargados
+        Integer siguiente = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR venta_seq", Integer.class);
+        assertThat(siguiente).isGreaterThan(maximo("venta"));
+    }
+
+    @Test
+    void lasVentasSeConcentranEnLosProductosPopulares() {
+        GeneradorDatosService.MuestreoZipf zipf =
+                new GeneradorDatosService.MuestreoZipf(1000, 1.1, new SplittableRandom(1));
+        SplittableRandom random = new SplittableRandom(2);
+
+        int[] frecuencia = new int[1000];
+        for (int i = 0; i < 100_000; i++) {
+            frecuencia[zipf.siguiente(random)]++;
+        }
+
+        // El 1% más popular concentra cerca del 40% de las elecciones
+        int top = 0;
+        for (int rango = 0; rango < 10; rango++) {
+            top += frecuencia[zipf.elementoEnRango(rango)];
+        }
+        assertThat(top / 100_000.0).isBetween(0.3, 0.5);
+        assertThat(frecuencia[zipf.elementoEnRango(0)]).isGreaterThan(frecuencia[zipf.elementoEnRango(99)] * 50);
+    }
+
+    private GeneradorDatosService generador(long semilla) {
+        return new GeneradorDatosService(dataSource, null, semilla, 200, 50, 300, 4, 0.5, 3,
+                1.1, 0.8, 60, "2026-01-01T00:00:00");
+    }
+
+    // Ventas y líneas relativas al primer ID de la corrida, para comparar entre corridas
+    private List<Map<String, Object>> ventas(int maximoProductosPrevio, int maximoVentasPrevio) {
+        int baseProductos = primero("productos", maximoProductosPrevio);
+        int baseVentas = primero("venta", maximoVentasPrevio);
+        return jdbcTemplate.queryForList("""
+                SELECT v.id - ? AS venta, v.total, v.estado, v.fecha_creacion, v.metodo_pago,
+                       pt.producto_id - ? AS producto, pt.cantidad, pt.precio_unitario, pt.subtotal, pt.categoria
+                FROM venta v JOIN producto_ticket pt ON pt.venta_id = v.id
+                WHERE v.id >= ?
+                ORDER BY v.id, pt.id
+                """, baseVentas, baseProductos, baseVentas);
+    }
+
+    private int primero(String tabla, int maximoPrevio) {
+        return jdbcTemplate.queryForObject("SELECT MIN(id) FROM " + tabla + " WHERE id > ?", Integer.class, maximoPrevio);
+    }
+
+    private int maximo(String tabla) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + tabla, Integer.class);
+    }
+}
@@ -0,0 +1,139 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotenciaServiceTest {
+
+    private final IdempotenciaService idempotencia = new IdempotenciaService(Duration.ofHours(1), 1000);
+
+    @Test
+    void unaClaveRepetidaDevuelveLaRespuestaGuardada() {
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        Integer primera = idempotencia.ejecutar("pago", "clave-1", "1:1", ejecuciones::incrementAndGet);
+        Integer segunda = idempotencia.ejecutar("pago", "clave-1", "1:1", ejecuciones::incrementAndGet);
+
+        assertThat(primera).isEqualTo(1);
+        assertThat(segunda).isEqualTo(1);
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    @Test
+    void unaClaveReutilizadaConOtrosParametrosSeRechaza() {
+        idempotencia.ejecutar("pago", "clave-1", "1:1", () -> "venta");
+
+        assertThatThrownBy(() -> idempotencia.ejecutar("pago", "clave-1", "2:1", () -> "otra"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void unFalloLiberaLaClave() {
+        assertThatThrownBy(() -> idempotencia.ejecutar("pago", "clave-1", "1:1", () -> {
+            throw new BadRequestException("Stock insuficiente");
+        })).isInstanceOf(BadRequestException.class);
+
+        assertThat(idempotencia.ejecutar("pago", "clave-1", "1:1", () -> "venta")).isEqualTo("venta");
+    }
+
+    @Test
+    void lasPeticionesConcurrentesEsperanALaPrimera() throws Exception {
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        CompletableFuture<Integer> primera = CompletableFuture.supplyAsync(() ->
+                idempotencia.ejecutar("pago", "clave-1", "1:1", () -> {
+                    enCurso.countDown();
+                    esperar(liberar);
+                    return ejecuciones.incrementAndGet();
+                }));
+        enCurso.await(5, TimeUnit.SECONDS);
+
+        CompletableFuture<Integer> segunda = CompletableFuture.supplyAsync(() ->
+                idempotencia.ejecutar("pago", "clave-1", "1:1", ejecuciones::incrementAndGet));
+
+        Thread.sleep(100);
+        assertThat(segunda).isNotDone();
+
+        liberar.countDown();
+        assertThat(primera.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(segunda.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    @Test
+    void unErrorTambienLiberaLaClave() {
+        assertThatThrownBy(() -> idempotencia.ejecutar("pago", "clave-1", "1:1", () -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+
+        assertThat(idempotencia.ejecutar("pago", "clave-1", "1:1", () -> "venta")).isEqualTo("venta");
+    }
+
+    @Test
+    void lasClavesVencidasSeDescartan() {
+        IdempotenciaService sinTtl = new IdempotenciaService(Duration.ZERO, 1000);
+        AtomicInteger ejecuciones = new AtomicInteger();
+        sinTtl.ejecutar("pago", "clave-1", "1:1", ejecuciones::incrementAndGet);
+
+        assertThat(sinTtl.cantidadClaves()).isZero();
+        sinTtl.ejecutar("pago", "clave-1", "1:1", ejecuciones::incrementAndGet);
+        assertThat(ejecuciones).hasValue(2);
+    }
+
+    @Test
+    void laCantidadDeClavesTieneTope() {
+        IdempotenciaService acotado = new IdempotenciaService(Duration.ofHours(1), 10);
+        for (int i = 0; i < 100; i++) {
+            acotado.ejecutar("pago", "clave-" + i, "1:1", () -> "venta");
+        }
+
+        assertThat(acotado.cantidadClaves()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void elTopeNoDescartaClavesEnCurso() throws Exception {
+        IdempotenciaService acotado = new IdempotenciaService(Duration.ofHours(1), 10);
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        CompletableFuture<Integer> primera = CompletableFuture.supplyAsync(() ->
+                acotado.ejecutar("pago", "en-curso", "1:1", () -> {
+                    enCurso.countDown();
+                    esperar(liberar);
+                    return ejecuciones.incrementAndGet();
+                }));
+        enCurso.await(5, TimeUnit.SECONDS);
+
+        // Una ráfaga de claves terminadas supera el tope mientras la primera sigue en curso
+        for (int i = 0; i < 100; i++) {
+            acotado.ejecutar("pago", "clave-" + i, "1:1", () -> 0);
+        }
+        CompletableFuture<Integer> repetida = CompletableFuture.supplyAsync(() ->
+                acotado.ejecutar("pago", "en-curso", "1:1", ejecuciones::incrementAndGet));
+
+        liberar.countDown();
+        assertThat(primera.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(repetida.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Service.MasVendidosService.Estimacion;
+import com.Api.SantiMarket.Service.MasVendidosService.RankingDeslizante;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Precisión del ranking de más vendidos contra el conteo exacto, y ventanas que olvidan
+ * las ventas viejas sin superar la memoria prevista.
+ */
+class MasVendidosServiceTest {
+
+    // Múltiplo de todas las granularidades, para que la primera venta abra una cubeta
+    private static final long INICIO = Duration.ofDays(20_000).toMillis();
+    private static final long MINUTO = Duration.ofMinutes(1).toMillis();
+
+    @Test
+    void lasEstimacionesAcotanElConteoExacto() {
+        int capacidad = 200;
+        RankingDeslizante ranking = new RankingDeslizante(Duration.ofHours(1), Duration.ofMinutes(5), capacidad);
+        SplittableRandom random = new SplittableRandom(7);
+        GeneradorDatosService.MuestreoZipf zipf = new GeneradorDatosService.MuestreoZipf(10_000, 1.1, random);
+
+        // Ventas repartidas en 55 minutos: todas caen en la ventana, en 12 cubetas distintas
+        Map<Integer, Long> exactos = new HashMap<>();
+        long total = 0;
+        for (int i = 0; i < 200_000; i++) {
+            int productoId = zipf.siguiente(random) + 1;
+            int unidades = random.nextInt(1, 4);
+            ranking.sumar(productoId, unidades, INICIO + random.nextLong(55 * MINUTO));
+            exactos.merge(productoId, (long) unidades, Long::sum);
+            total += unidades;
+        }
+
+        List<Estimacion> top = ranking.top(capacidad, INICIO + 55 * MINUTO);
+
+        long errorMaximo = total / capacidad;
+        assertThat(top).allSatisfy(e -> {
+            long exacto = exactos.getOrDefault(e.productoId(), 0L);
+            assertThat(exacto).isBetween(e.unidades() - e.error(), e.unidades());
+            assertThat(e.error()).isLessThanOrEqualTo(errorMaximo);
+        });
+
+        // Todo producto que vendió más que el error máximo tiene que aparecer
+        Set<Integer> reportados = top.stream().map(Estimacion::productoId).collect(Collectors.toSet());
+        exactos.forEach((productoId, exacto) -> {
+            if (exacto > errorMaximo) {
+                assertThat(reportados).contains(productoId);
+            }
+        });
+
+        List<Integer> diezExactos = exactos.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(10).map(Map.Entry::getKey).toList();
+        assertThat(top.subList(0, 10)).extracting(Estimacion::productoId).containsExactlyElementsOf(diezExactos);
+    }
+
+    @Test
+    void laVentanaOlvidaLasVentasViejas() {
+        RankingDeslizante ranking = new RankingDeslizante(Duration.ofHours(1), Duration.ofMinutes(5), 10);
+        ranking.sumar(1, 50, INICIO);
+        ranking.sumar(2, 10, INICIO + 50 * MINUTO);
+
+        assertThat(ranking.top(10, INICIO + 50 * MINUTO))
+                .extracting(Estimacion::productoId, Estimacion::unidades, Estimacion::error)
+                .containsExactly(tuple(1, 50L, 0L), tuple(2, 10L, 0L));
+
+        // Una hora después la cubeta de la primera venta se reutiliza y una venta
+        // atrasada de ese período ya no entra
+        ranking.sumar(3, 1, INICIO + 60 * MINUTO);
+        ranking.sumar(4, 99, INICIO + MINUTO);
+
+        assertThat(ranking.top(10, INICIO + 65 * MINUTO))
+                .extracting(Estimacion::productoId)
+                .containsExactly(2, 3);
+    }
+
+    @Test
+    void laMemoriaQuedaAcotadaPorCubeta() {
+        int capacidad = 50;
+        RankingDeslizante ranking = new RankingDeslizante(Duration.ofDays(7), Duration.ofHours(6), capacidad);
+        long semana = Duration.ofDays(7).toMillis();
+        for (int i = 0; i < 100_000; i++) {
+            ranking.sumar(i, 1, INICIO + (long) i * semana / 100_000);
+        }
+
+        assertThat(ranking.contadores()).isLessThanOrEqualTo(28 * capacidad);
+        assertThat(ranking.top(MasVendidosService.LIMITE_MAXIMO, INICIO + semana - 1)).hasSize(MasVendidosService.LIMITE_MAXIMO);
+    }
+}
@@ -0,0 +1,127 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Dto.EstadoPago;
+import com.Api.SantiMarket.Dto.EstadoPago.Etapa;
+import com.Api.SantiMarket.Entities.Venta;
+import com.Api.SantiMarket.Exceptions.BadRequestException;
+import com.Api.SantiMarket.Exceptions.ServicioSaturadoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PagoAsincronoServiceTest {
+
+    private final TicketService ticketService = mock(TicketService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PagoAsincronoService pagos =
+            new PagoAsincronoService(ticketService, registry, 1, 1, Duration.ofHours(1), false, 1);
+
+    @AfterEach
+    void detener() throws InterruptedException {
+        pagos.detener();
+    }
+
+    @Test
+    void elLongPollingDevuelveLaVentaAlTerminar() throws Exception {
+        Venta venta = new Venta();
+        venta.setId(42);
+        when(ticketService.realizarPago(1, 1)).thenReturn(venta);
+
+        EstadoPago inicial = pagos.encolar(1, 1);
+        EstadoPago fin = pagos.esperar(inicial.id(), Duration.ofSeconds(5)).get(10, TimeUnit.SECONDS);
+
+        assertThat(fin.estado()).isEqualTo(Etapa.COMPLETADO);
+        assertThat(fin.ventaId()).isEqualTo(42);
+        assertThat(pagos.estado(inicial.id())).isEqualTo(fin);
+    }
+
+    @Test
+    void unFalloQuedaRegistradoEnElEstado() throws Exception {
+        when(ticketService.realizarPago(1, 1)).thenThrow(new BadRequestException("El carrito está vacío"));
+
+        EstadoPago inicial = pagos.encolar(1, 1);
+        EstadoPago fin = pagos.esperar(inicial.id(), Duration.ofSeconds(5)).get(10, TimeUnit.SECONDS);
+
+        assertThat(fin.estado()).isEqualTo(Etapa.ERROR);
+        assertThat(fin.error()).isEqualTo("El carrito está vacío");
+    }
+
+    @Test
+    void unFalloInternoNoExponeSuMensaje() throws Exception {
+        when(ticketService.realizarPago(1, 1))
+                .thenThrow(new IllegalStateException("could not execute statement [insert into venta ...]"));
+
+        EstadoPago inicial = pagos.encolar(1, 1);
+        EstadoPago fin = pagos.esperar(inicial.id(), Duration.ofSeconds(5)).get(10, TimeUnit.SECONDS);
+
+        assertThat(fin.estado()).isEqualTo(Etapa.ERROR);
+        assertThat(fin.error()).isEqualTo(PagoAsincronoService.ERROR_INTERNO);
+    }
+
+    @Test
+    void unErrorTambienTerminaElTrabajo() throws Exception {
+        when(ticketService.realizarPago(1, 1)).thenThrow(new StackOverflowError());
+
+        EstadoPago inicial = pagos.encolar(1, 1);
+        EstadoPago fin = pagos.esperar(inicial.id(), Duration.ofSeconds(5)).get(10, TimeUnit.SECONDS);
+
+        assertThat(fin.estado()).isEqualTo(Etapa.ERROR);
+        assertThat(fin.error()).isEqualTo(PagoAsincronoService.ERROR_INTERNO);
+    }
+
+    @Test
+    void conLaColaLlenaSeRechazaElPago() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch enProceso = new CountDownLatch(1);
+        when(ticketService.realizarPago(any(), any())).thenAnswer(inv -> {
+            enProceso.countDown();
+            liberar.await();
+            return new Venta();
+        });
+
+        EstadoPago primero = pagos.encolar(1, 1);   // ocupa el único hilo
+        enProceso.await(5, TimeUnit.SECONDS);
+        EstadoPago segundo = pagos.encolar(2, 2);   // ocupa la única posición de la cola
+
+        assertThatThrownBy(() -> pagos.encolar(3, 3)).isInstanceOf(ServicioSaturadoException.class);
+        assertThat(registry.get("santimarket.checkout.cola").gauge().value()).isEqualTo(1.0);
+
+        // Al vencer la espera se devuelve el estado actual sin error
+        EstadoPago enCola = pagos.esperar(segundo.id(), Duration.ofMillis(50)).get(5, TimeUnit.SECONDS);
+        assertThat(enCola.estado()).isEqualTo(Etapa.EN_COLA);
+        assertThat(pagos.estado(primero.id()).estado()).isEqualTo(Etapa.PROCESANDO);
+
+        liberar.countDown();
+    }
+
+    @Test
+    void conHilosVirtualesElPagoCorreEnUnHiloVirtual() throws Exception {
+        PagoAsincronoService virtuales = new PagoAsincronoService(
+                ticketService, new SimpleMeterRegistry(), 1, 1, Duration.ofHours(1), true, 8);
+        try {
+            AtomicBoolean virtual = new AtomicBoolean();
+            when(ticketService.realizarPago(1, 1)).thenAnswer(inv -> {
+                virtual.set(Thread.currentThread().isVirtual());
+                return new Venta();
+            });
+
+            EstadoPago inicial = virtuales.encolar(1, 1);
+            virtuales.esperar(inicial.id(), Duration.ofSeconds(5)).get(10, TimeUnit.SECONDS);
+
+            assertThat(virtual).isTrue();
+        } finally {
+            virtuales.detener();
+        }
+    }
+}
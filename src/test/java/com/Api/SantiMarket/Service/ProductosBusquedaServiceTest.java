@@ -0,0 +1,88 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductosBusquedaServiceTest {
+
+    private final ProductosInterface productosRepository = mock(ProductosInterface.class);
+    private ProductosBusquedaService busqueda;
+
+    @BeforeEach
+    void setUp() {
+        busqueda = new ProductosBusquedaService(productosRepository);
+        busqueda.indexar(producto(1, "Café molido", "Café tostado de Colombia", "Almacén"));
+        busqueda.indexar(producto(2, "Chocolate amargo", "Tableta con 70% cacao", "Golosinas"));
+        busqueda.indexar(producto(3, "Galletas de avena", "Ideales para acompañar el café", "Almacén"));
+    }
+
+    @Test
+    void tokenizarQuitaAcentosStopwordsYPuntuacion() {
+        assertThat(ProductosBusquedaService.tokenizar("Azúcar de CAÑA, orgánica!"))
+                .containsExactly("azucar", "cana", "organica");
+    }
+
+    @Test
+    void buscaSinDistinguirAcentosYPriorizaElNombre() {
+        assertThat(busqueda.buscarIds("cafe", null)).containsExactly(1, 3);
+        assertThat(busqueda.buscarIds("CAFÉ", null)).containsExactly(1, 3);
+    }
+
+    @Test
+    void aceptaPrefijosYExigeTodosLosTerminos() {
+        assertThat(busqueda.buscarIds("choco", null)).containsExactly(2);
+        assertThat(busqueda.buscarIds("almacen gall", null)).containsExactly(3);
+        assertThat(busqueda.buscarIds("chocolate cafe", null)).isEmpty();
+    }
+
+    @Test
+    void reindexarYEliminarActualizanElIndice() {
+        busqueda.indexar(producto(2, "Chocolate con leche", "Tableta", "Golosinas"));
+        assertThat(busqueda.buscarIds("leche", null)).containsExactly(2);
+        assertThat(busqueda.buscarIds("amargo", null)).isEmpty();
+
+        busqueda.eliminar(2);
+        assertThat(busqueda.buscarIds("chocolate", null)).isEmpty();
+    }
+
+    @Test
+    void respetaElLimite() {
+        assertThat(busqueda.buscarIds("ca", null)).hasSize(3);
+        assertThat(busqueda.buscarIds("ca", 1)).hasSize(1);
+    }
+
+    @Test
+    void reconstruirReemplazaElIndiceConLoQueHayEnLaBase() {
+        // Otra instancia renombró el producto 2 y borró el 3
+        when(productosRepository.findPaginaPorId(isNull(), anyDouble(), anyDouble(), any(), any()))
+                .thenReturn(List.of(
+                        producto(1, "Café molido", "Café tostado de Colombia", "Almacén"),
+                        producto(2, "Chocolate con leche", "Tableta", "Golosinas")));
+
+        busqueda.reconstruir();
+
+        assertThat(busqueda.buscarIds("leche", null)).containsExactly(2);
+        assertThat(busqueda.buscarIds("amargo", null)).isEmpty();
+        assertThat(busqueda.buscarIds("galletas", null)).isEmpty();
+    }
+
+    private static Productos producto(int id, String nombre, String descripcion, String categoria) {
+        Productos p = new Productos();
+        p.setId(id);
+        p.setNombre(nombre);
+        p.setDescripcion(descripcion);
+        p.setCategoria(categoria);
+        return p;
+    }
+}
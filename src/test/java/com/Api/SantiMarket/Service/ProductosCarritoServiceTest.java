@@ -0,0 +1,97 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Entities.CarritoCompras;
+import com.Api.SantiMarket.Entities.ProductoCarrito;
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Interfaces.CarritoComprasInteraface;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProductosCarritoService.class, ProductosService.class, ProductosBusquedaService.class,
+        ReservaStockService.class, ProductosCarritoServiceTest.CacheTestConfig.class})
+class ProductosCarritoServiceTest {
+
+    @TestConfiguration
+    static class CacheTestConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(ProductosService.CACHE_PRODUCTOS);
+        }
+    }
+
+    @Autowired
+    private ProductosCarritoService productosCarritoService;
+    @Autowired
+    private ReservaStockService reservaStockService;
+    @Autowired
+    private ProductosInterface productosRepository;
+    @Autowired
+    private CarritoComprasInteraface carritoRepository;
+
+    @Test
+    void siElGuardadoFallaNoQuedaReservado() {
+        Productos producto = crearProducto(5);
+        CarritoCompras inexistente = new CarritoCompras();
+        inexistente.setId(Integer.MAX_VALUE);
+
+        // La línea apunta a un carrito que no existe: la reserva se hace y el INSERT falla
+        assertThatThrownBy(() -> productosCarritoService.saveProductoCarrito(linea(inexistente, producto, 3)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(reservaStockService.reservadoPorOtros(producto.getId(), null)).isZero();
+        assertThat(reservaStockService.disponible(producto.getId(), producto.getStock())).isEqualTo(5);
+    }
+
+    @Test
+    void siLaModificacionFallaLasReservasQuedanComoEstaban() {
+        CarritoCompras carrito = carritoRepository.save(new CarritoCompras());
+        Productos primero = crearProducto(5);
+        Productos segundo = crearProducto(5);
+        ProductoCarrito lineaPrimero = productosCarritoService.saveProductoCarrito(linea(carrito, primero, 2));
+        productosCarritoService.saveProductoCarrito(linea(carrito, segundo, 1));
+
+        // Pasar la primera línea al segundo producto choca con la línea que ya lo tiene
+        assertThatThrownBy(() -> productosCarritoService.updateProductoCarrito(
+                lineaPrimero.getId(), linea(carrito, segundo, 3)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(reservaStockService.reservadoPorOtros(primero.getId(), null)).isEqualTo(2);
+        assertThat(reservaStockService.reservadoPorOtros(segundo.getId(), null)).isEqualTo(1);
+    }
+
+    private Productos crearProducto(int stock) {
+        Productos producto = new Productos();
+        producto.setNombre("Producto de carrito");
+        producto.setDescripcion("Producto de prueba");
+        producto.setPrecio(100);
+        producto.setStock(stock);
+        return productosRepository.save(producto);
+    }
+
+    private static ProductoCarrito linea(CarritoCompras carrito, Productos producto, int cantidad) {
+        ProductoCarrito pc = new ProductoCarrito();
+        pc.setCarrito(carrito);
+        pc.setProducto(producto);
+        pc.setCantidad(cantidad);
+        return pc;
+    }
+}
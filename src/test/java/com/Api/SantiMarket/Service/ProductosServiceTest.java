@@ -0,0 +1,101 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Dto.PaginaCursor;
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProductosService.class, ProductosBusquedaService.class, ReservaStockService.class,
+        ProductosServiceTest.CacheTestConfig.class})
+class ProductosServiceTest {
+
+    @TestConfiguration
+    static class CacheTestConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(ProductosService.CACHE_PRODUCTOS);
+        }
+    }
+
+    @Autowired
+    private ProductosService productosService;
+    @Autowired
+    private ProductosInterface productosRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void elOrdenPorFechaRecorreTambienLosProductosSinFecha() {
+        // Una categoría propia para que los productos de otros tests no entren en el filtro
+        String categoria = "Categoria " + UUID.randomUUID();
+        Productos viejo = crearProducto(categoria, LocalDateTime.of(2024, 1, 1, 10, 0));
+        Productos nuevo = crearProducto(categoria, LocalDateTime.of(2025, 1, 1, 10, 0));
+        // Productos cargados antes de que se registrara la fecha de creación
+        Productos legado = crearProducto(categoria, null);
+        Productos otroLegado = crearProducto(categoria, null);
+
+        List<Integer> recorridos = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaCursor<Productos> pagina = productosService.getAllProductos(
+                    categoria, null, null, "fecha", cursor, 1);
+            pagina.items().forEach(p -> recorridos.add(p.getId()));
+            cursor = pagina.siguienteCursor();
+        } while (cursor != null);
+
+        assertThat(recorridos).containsExactly(
+                nuevo.getId(), viejo.getId(), otroLegado.getId(), legado.getId());
+
+        // La página donde terminan los fechados se completa con los sin fecha
+        PaginaCursor<Productos> primera = productosService.getAllProductos(categoria, null, null, "fecha", null, 3);
+        assertThat(primera.items()).extracting(Productos::getId)
+                .containsExactly(nuevo.getId(), viejo.getId(), otroLegado.getId());
+        assertThat(primera.hayMas()).isTrue();
+    }
+
+    @Test
+    void elStockActualNoSaleDeLaCacheDeSegundoNivel() {
+        Productos producto = crearProducto("Categoria " + UUID.randomUUID(), null);
+        // Queda en la caché de segundo nivel con stock 1
+        assertThat(productosRepository.findById(producto.getId())).get()
+                .extracting(Productos::getStock).isEqualTo(1);
+
+        // Otra instancia vende y cambia el stock sin pasar por la caché de esta
+        jdbcTemplate.update("UPDATE productos SET stock = 7 WHERE id = ?", producto.getId());
+
+        assertThat(productosService.getProductosByIdConStockActual(producto.getId()).getStock()).isEqualTo(7);
+    }
+
+    private Productos crearProducto(String categoria, LocalDateTime fechaCreacion) {
+        Productos producto = new Productos();
+        producto.setNombre("Producto por fecha");
+        producto.setCategoria(categoria);
+        producto.setPrecio(100);
+        producto.setStock(1);
+        producto.setFechaCreacion(fechaCreacion);
+        return productosRepository.save(producto);
+    }
+}
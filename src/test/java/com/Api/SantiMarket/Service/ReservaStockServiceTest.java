@@ -0,0 +1,126 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Exceptions.BadRequestException;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ReservaStockService.class)
+class ReservaStockServiceTest {
+
+    @Autowired
+    private ReservaStockService reservas;
+    @Autowired
+    private ProductosInterface productosRepository;
+
+    @Test
+    void lasReservasDeOtrosCarritosDescuentanDelDisponible() {
+        Integer id = crearProducto(5);
+        reservas.reservar(id, 10, 3);
+
+        assertThat(reservas.disponible(id, 5)).isEqualTo(2);
+        assertThat(reservas.reservadoPorOtros(id, 10)).isZero();
+        assertThat(reservas.reservadoPorOtros(id, 20)).isEqualTo(3);
+        assertThat(reservas.reservadoPorOtros(List.of(id), 20)).isEqualTo(Map.of(id, 3));
+
+        assertThatThrownBy(() -> reservas.reservar(id, 20, 3))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Stock disponible: 2");
+    }
+
+    @Test
+    void reservarDeNuevoReemplazaLaCantidadDelCarrito() {
+        Integer id = crearProducto(5);
+        reservas.reservar(id, 10, 3);
+        reservas.reservar(id, 10, 5);
+        assertThat(reservas.disponible(id, 5)).isZero();
+
+        reservas.reservar(id, 10, 1);
+        assertThat(reservas.disponible(id, 5)).isEqualTo(4);
+
+        reservas.liberar(id, 10);
+        assertThat(reservas.disponible(id, 5)).isEqualTo(5);
+    }
+
+    @Test
+    void lasReservasVencidasSeLiberan() {
+        Integer primero = crearProducto(5);
+        Integer segundo = crearProducto(5);
+        ReservaStockService vencidas = new ReservaStockService(productosRepository, Duration.ZERO);
+        vencidas.reservar(primero, 10, 2);
+        vencidas.reservar(segundo, 10, 1);
+
+        // Vencidas dejan de contar aunque la tarea todavía no las haya borrado
+        assertThat(vencidas.disponible(primero, 5)).isEqualTo(5);
+        assertThat(vencidas.expirarVencidas()).isGreaterThanOrEqualTo(2);
+        assertThat(vencidas.disponible(segundo, 5)).isEqualTo(5);
+    }
+
+    @Test
+    void carritosConcurrentesNoReservanMasQueElStock() throws Exception {
+        int stock = 10;
+        int carritos = 50;
+        Integer id = crearProducto(stock);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+
+        for (int i = 0; i < carritos; i++) {
+            int carritoId = i;
+            resultados.add(pool.submit(() -> {
+                inicio.await();
+                try {
+                    reservas.reservar(id, carritoId, 1);
+                    return true;
+                } catch (BadRequestException e) {
+                    return false;
+                }
+            }));
+        }
+        inicio.countDown();
+
+        int exitosas = 0;
+        for (Future<Boolean> r : resultados) {
+            if (r.get(30, TimeUnit.SECONDS)) {
+                exitosas++;
+            }
+        }
+        pool.shutdown();
+
+        assertThat(exitosas).isEqualTo(stock);
+        assertThat(reservas.disponible(id, stock)).isZero();
+    }
+
+    private Integer crearProducto(int stock) {
+        Productos producto = new Productos();
+        producto.setNombre("Producto reservado");
+        producto.setDescripcion("Producto de prueba");
+        producto.setPrecio(100);
+        producto.setStock(stock);
+        return productosRepository.save(producto).getId();
+    }
+}
@@ -0,0 +1,146 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Dto.EstadisticasVentas;
+import com.Api.SantiMarket.Dto.GrupoVentas;
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Entities.Usuarios;
+import com.Api.SantiMarket.Entities.Venta;
+import com.Api.SantiMarket.Exceptions.BadRequestException;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import com.Api.SantiMarket.Interfaces.UsuariosInterface;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Resumen diario de ventas: cada cambio de una venta se refleja en el resumen y la
+ * reconstrucción desde las ventas llega al mismo resultado.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ResumenVentasServiceTest {
+
+    private static final LocalDate DIA = LocalDate.of(2020, 3, 1);
+
+    @Autowired
+    private ResumenVentasService resumenVentasService;
+    @Autowired
+    private TicketService ticketService;
+    @Autowired
+    private ProductosInterface productosRepository;
+    @Autowired
+    private UsuariosInterface usuariosRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void elResumenSigueLosCambiosDeLasVentasYCoincideConLaReconstruccion() {
+        // Un país propio para que las ventas de otros tests no entren en el filtro
+        String pais = "Pais " + UUID.randomUUID();
+        Usuarios usuario = crearUsuario();
+        Productos producto = crearProducto(150);
+
+        Venta primera = ticketService.create(venta(usuario, pais, "Santa Fe", DIA.atTime(10, 0)));
+        ticketService.agregarProducto(primera.getId(), producto.getId(), 2);
+        Venta segunda = ticketService.create(venta(usuario, pais, "Córdoba", DIA.atTime(18, 30)));
+        ticketService.agregarProducto(segunda.getId(), producto.getId(), 1);
+        Venta tercera = ticketService.create(venta(usuario, pais, "Córdoba", DIA.plusDays(1).atTime(9, 0)));
+        ticketService.agregarProducto(tercera.getId(), producto.getId(), 4);
+
+        // Cambio de provincia: la venta se mueve de fila en el resumen
+        Venta cambios = venta(usuario, pais, "Santa Fe", null);
+        cambios.setTotal(150.0);
+        ticketService.update(segunda.getId(), cambios);
+        ticketService.delete(tercera.getId());
+
+        EstadisticasVentas porProvincia = estadisticas("provincia", pais);
+        assertThat(porProvincia.ventas()).isEqualTo(2);
+        assertThat(porProvincia.ingresos()).isEqualTo(450.0);
+        assertThat(porProvincia.grupos())
+                .extracting(GrupoVentas::clave, GrupoVentas::ventas, GrupoVentas::ingresos)
+                .containsExactly(tuple("Santa Fe", 2L, 450.0));
+
+        // Se vacía el resumen y se rearma a partir de las ventas
+        jdbcTemplate.update("DELETE FROM venta_diaria WHERE pais = ?", pais);
+        assertThat(estadisticas("provincia", pais).grupos()).isEmpty();
+        resumenVentasService.reconstruir(DIA, DIA.plusDays(1));
+
+        assertThat(estadisticas("provincia", pais)).isEqualTo(porProvincia);
+        assertThat(estadisticas("dia", pais).grupos())
+                .extracting(GrupoVentas::clave, GrupoVentas::ventas)
+                .containsExactly(tuple(DIA.toString(), 2L));
+    }
+
+    @Test
+    void unaVentaRevertidaNoSumaAlResumen() {
+        String pais = "Pais " + UUID.randomUUID();
+        Usuarios usuario = crearUsuario();
+
+        assertThatThrownBy(() -> new TransactionTemplate(transactionManager).executeWithoutResult(estado -> {
+            ticketService.create(venta(usuario, pais, "Santa Fe", DIA.atTime(10, 0)));
+            throw new IllegalStateException("falla después de registrar la venta");
+        })).isInstanceOf(IllegalStateException.class);
+        ticketService.create(venta(usuario, pais, "Córdoba", DIA.atTime(11, 0)));
+
+        // Sin volcados pendientes: lo confirmado ya está en el resumen y lo revertido nunca llegó
+        assertThat(estadisticas("provincia", pais).grupos())
+                .extracting(GrupoVentas::clave, GrupoVentas::ventas)
+                .containsExactly(tuple("Córdoba", 1L));
+    }
+
+    @Test
+    void rechazaPeriodosYAgrupacionesInvalidos() {
+        assertThatThrownBy(() -> resumenVentasService.estadisticas(DIA, DIA.minusDays(1), "dia", null, null, null, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> resumenVentasService.estadisticas(DIA, DIA.plusYears(20), "dia", null, null, null, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> resumenVentasService.estadisticas(DIA, DIA, "ciudad", null, null, null, null))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private EstadisticasVentas estadisticas(String agrupacion, String pais) {
+        return resumenVentasService.estadisticas(DIA, DIA.plusDays(1), agrupacion, pais, null, null, null);
+    }
+
+    private static Venta venta(Usuarios usuario, String pais, String provincia, LocalDateTime fecha) {
+        Venta venta = new Venta();
+        venta.setDescripcion("Venta de prueba");
+        venta.setEstado("Pagado");
+        venta.setMetodoPago("tarjeta");
+        venta.setPais(pais);
+        venta.setProvincia(provincia);
+        venta.setFechaCreacion(fecha);
+        venta.setUsuario(usuario);
+        return venta;
+    }
+
+    private Usuarios crearUsuario() {
+        Usuarios usuario = new Usuarios();
+        usuario.setEmail(UUID.randomUUID() + "@test.com");
+        usuario.setPasswordHash("secreto");
+        return usuariosRepository.save(usuario);
+    }
+
+    private Productos crearProducto(double precio) {
+        Productos producto = new Productos();
+        producto.setNombre("Producto " + UUID.randomUUID());
+        producto.setDescripcion("Producto de prueba");
+        producto.setPrecio(precio);
+        producto.setStock(100);
+        return productosRepository.save(producto);
+    }
+}
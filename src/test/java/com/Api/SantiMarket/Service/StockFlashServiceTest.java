@@ -0,0 +1,173 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Dto.EstadoFlash;
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Exceptions.BadRequestException;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import com.Api.SantiMarket.Interfaces.StockShardInterface;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({StockFlashService.class, ProductosService.class, ProductosBusquedaService.class,
+        ReservaStockService.class, StockFlashServiceTest.CacheTestConfig.class})
+class StockFlashServiceTest {
+
+    @TestConfiguration
+    static class CacheTestConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(ProductosService.CACHE_PRODUCTOS);
+        }
+    }
+
+    @Autowired
+    private StockFlashService stockFlashService;
+    @Autowired
+    private ProductosService productosService;
+    @Autowired
+    private ProductosInterface productosRepository;
+    @Autowired
+    private StockShardInterface shardRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void activarReparteElStockEntreLosShards() {
+        Integer id = crearProducto(10).getId();
+
+        EstadoFlash estado = stockFlashService.activar(id, 4);
+
+        assertThat(estado.shards()).containsExactly(3, 3, 2, 2);
+        assertThat(estado.stockTotal()).isEqualTo(10);
+        assertThat(stockFlashService.esActivo(id)).isTrue();
+        assertThatThrownBy(() -> productosService.actualizarStock(id, 50))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void siNingunShardAlcanzaSeDescuentaDeVarios() {
+        Integer id = crearProducto(8).getId();
+        stockFlashService.activar(id, 4);
+
+        assertThat(stockFlashService.descontar(id, 7)).isTrue();
+        assertThat(stockFlashService.estado(id).stockTotal()).isEqualTo(1);
+        assertThat(stockFlashService.descontar(id, 2)).isFalse();
+        assertThat(stockFlashService.estado(id).stockTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void descuentosConcurrentesNoVendenDeMasYSeReconcilian() throws Exception {
+        int stockInicial = 200;
+        Integer id = crearProducto(stockInicial).getId();
+        stockFlashService.activar(id, 8);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger vendidas = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < 16; h++) {
+            tareas.add(pool.submit(() -> {
+                largada.await();
+                for (int i = 0; i < 20; i++) {
+                    if (stockFlashService.descontar(id, 1)) {
+                        vendidas.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        pool.shutdown();
+
+        assertThat(vendidas.get()).isEqualTo(stockInicial);
+        assertThat(stockFlashService.estado(id).stockTotal()).isZero();
+
+        stockFlashService.reconciliar();
+        assertThat(productosRepository.findById(id).orElseThrow().getStock()).isZero();
+    }
+
+    @Test
+    void desactivarDevuelveElStockAlProducto() {
+        Integer id = crearProducto(10).getId();
+        stockFlashService.activar(id, 3);
+        stockFlashService.descontar(id, 4);
+
+        EstadoFlash estado = stockFlashService.desactivar(id);
+
+        assertThat(estado.activo()).isFalse();
+        assertThat(productosRepository.findById(id).orElseThrow().getStock()).isEqualTo(6);
+        assertThat(stockFlashService.esActivo(id)).isFalse();
+        assertThat(stockFlashService.estado(id).shards()).isEmpty();
+    }
+
+    @Test
+    void otraInstanciaVeLaActivacionEnLaBase() {
+        Integer id = crearProducto(10).getId();
+        // Segunda instancia de la aplicación: nunca leyó los productos en modo flash
+        StockFlashService otraInstancia =
+                new StockFlashService(shardRepository, productosRepository, productosService, jdbcTemplate);
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+
+        stockFlashService.activar(id, 4);
+
+        assertThat(otraInstancia.esActivo(id)).isFalse();
+        assertThat(productosRepository.esModoFlash(id)).isTrue();
+        // El descuento normal se rechaza: no toca productos.stock, que se pisaría al reconciliar
+        assertThat(productosRepository.descontarStock(id, 1)).isZero();
+        // Sin conocer los shards, descuenta bloqueándolos todos
+        assertThat(transaccion.<Boolean>execute(estado -> otraInstancia.descontar(id, 3))).isTrue();
+        assertThat(stockFlashService.estado(id).stockTotal()).isEqualTo(7);
+
+        otraInstancia.reconciliar();
+        assertThat(otraInstancia.esActivo(id)).isTrue();
+        assertThat(productosRepository.findById(id).orElseThrow().getStock()).isEqualTo(7);
+
+        stockFlashService.desactivar(id);
+        assertThat(productosRepository.esModoFlash(id)).isFalse();
+        // Sin shards la otra instancia ya no descuenta, y el camino normal vuelve a aplicar
+        assertThat(transaccion.<Boolean>execute(estado -> otraInstancia.descontar(id, 1))).isFalse();
+        assertThat(productosRepository.descontarStock(id, 1)).isEqualTo(1);
+    }
+
+    private Productos crearProducto(int stock) {
+        Productos producto = new Productos();
+        producto.setNombre("Producto en promoción");
+        producto.setDescripcion("Producto de prueba");
+        producto.setPrecio(100);
+        producto.setStock(stock);
+        return productosRepository.save(producto);
+    }
+}
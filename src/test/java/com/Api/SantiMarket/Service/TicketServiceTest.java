@@ -0,0 +1,405 @@
+package com.Api.SantiMarket.Service;
+
+import com.Api.SantiMarket.Config.MedicionSentencias;
+import com.Api.SantiMarket.Dto.IngresoCategoria;
+import com.Api.SantiMarket.Dto.IngresoProducto;
+import com.Api.SantiMarket.Dto.PaginaCursor;
+import com.Api.SantiMarket.Dto.ProductoMasVendido;
+import com.Api.SantiMarket.Dto.VentaResumen;
+import com.Api.SantiMarket.Entities.CarritoCompras;
+import com.Api.SantiMarket.Entities.ProductoCarrito;
+import com.Api.SantiMarket.Entities.ProductoTicket;
+import com.Api.SantiMarket.Entities.Productos;
+import com.Api.SantiMarket.Entities.Usuarios;
+import com.Api.SantiMarket.Entities.Venta;
+import com.Api.SantiMarket.Exceptions.BadRequestException;
+import com.Api.SantiMarket.Exceptions.ResourceNotFoundException;
+import com.Api.SantiMarket.Interfaces.CarritoComprasInteraface;
+import com.Api.SantiMarket.Interfaces.ProductoCarritoInterface;
+import com.Api.SantiMarket.Interfaces.ProductoTicketInterface;
+import com.Api.SantiMarket.Interfaces.ProductosInterface;
+import com.Api.SantiMarket.Interfaces.UsuariosInterface;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TicketService.class, ProductosService.class, ProductosBusquedaService.class,
+        ReservaStockService.class, StockFlashService.class, ResumenVentasService.class, MasVendidosService.class,
+        TicketServiceTest.CacheTestConfig.class})
+class TicketServiceTest {
+
+    @TestConfiguration
+    static class CacheTestConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(ProductosService.CACHE_PRODUCTOS);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private TicketService ticketService;
+    @Autowired
+    private ProductosInterface productosRepository;
+    @Autowired
+    private UsuariosInterface usuariosRepository;
+    @Autowired
+    private CarritoComprasInteraface carritoRepository;
+    @Autowired
+    private ProductoCarritoInterface productoCarritoRepository;
+    @Autowired
+    private ProductoTicketInterface productoTicketRepository;
+    @Autowired
+    private ReservaStockService reservaStockService;
+    @Autowired
+    private MasVendidosService masVendidosService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void setUp() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void cargarCarritoEsUnaSolaConsulta() {
+        CarritoCompras carrito = crearCarrito(crearUsuario(), 20, 10);
+
+        estadisticas.clear();
+        List<ProductoCarrito> lineas = productoCarritoRepository.findByCarritoIdConProductos(carrito.getId());
+
+        assertThat(lineas).hasSize(20);
+        assertThat(lineas).allSatisfy(pc -> assertThat(pc.getProducto().getNombre()).isNotNull());
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void realizarPagoNoHaceUnaConsultaPorLinea() throws Exception {
+        // Pagos previos para que las secuencias ya tengan un bloque de IDs reservado
+        // (el optimizador pooled reserva el primer bloque completo recién en la segunda llamada)
+        for (int i = 0; i < 2; i++) {
+            Usuarios otro = crearUsuario();
+            ticketService.realizarPago(crearCarrito(otro, 1, 10).getId(), otro.getId());
+        }
+
+        Usuarios usuario = crearUsuario();
+        CarritoCompras carrito = crearCarrito(usuario, 20, 10);
+
+        // carga del carrito + venta + líneas en batch + borrado del carrito + stock en batch
+        // + reservas de otros carritos + resumen diario de ventas + liberación de reservas
+        Venta venta = MedicionSentencias.conPresupuesto(8,
+                () -> ticketService.realizarPago(carrito.getId(), usuario.getId()));
+
+        assertThat(productoTicketRepository.findByVenta_Id(venta.getId())).hasSize(20);
+        assertThat(productoCarritoRepository.findByCarritoIdConProductos(carrito.getId())).isEmpty();
+    }
+
+    @Test
+    void realizarPagoRevierteTodoSiFaltaStock() {
+        Usuarios usuario = crearUsuario();
+        CarritoCompras carrito = crearCarrito(usuario, 5, 1);
+        List<ProductoCarrito> lineas = productoCarritoRepository.findByCarritoIdConProductos(carrito.getId());
+        Productos sinStock = lineas.get(lineas.size() - 1).getProducto();
+        sinStock.setStock(0);
+        productosRepository.save(sinStock);
+
+        assertThatThrownBy(() -> ticketService.realizarPago(carrito.getId(), usuario.getId()))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(productoCarritoRepository.findByCarritoIdConProductos(carrito.getId())).hasSize(5);
+        assertThat(lineas.subList(0, 4)).allSatisfy(pc ->
+                assertThat(productosRepository.findById(pc.getProducto().getId()).orElseThrow().getStock())
+                        .isEqualTo(1));
+    }
+
+    @Test
+    void realizarPagoRespetaLasReservasDeOtrosCarritos() {
+        Usuarios usuario = crearUsuario();
+        CarritoCompras carrito = crearCarrito(usuario, 1, 1);
+        Productos producto = productoCarritoRepository.findByCarritoIdConProductos(carrito.getId())
+                .get(0).getProducto();
+
+        // Otro carrito reservó la única unidad antes de que este pague
+        reservaStockService.reservar(producto.getId(), -1, 1);
+
+        assertThatThrownBy(() -> ticketService.realizarPago(carrito.getId(), usuario.getId()))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(productosRepository.findById(producto.getId()).orElseThrow().getStock()).isEqualTo(1);
+
+        reservaStockService.liberar(producto.getId(), -1);
+        ticketService.realizarPago(carrito.getId(), usuario.getId());
+        assertThat(productosRepository.findById(producto.getId()).orElseThrow().getStock()).isZero();
+    }
+
+    @Test
+    void pagosConcurrentesDeCarritosSolapadosNoSeBloqueanNiVendenDeMas() throws Exception {
+        int stockInicial = 6;
+        List<Productos> productos = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            productos.add(crearProducto("Compartido " + i, stockInicial));
+        }
+
+        // Cada carrito lleva tres de los cuatro productos, cargados en órdenes distintos:
+        // si el stock no se descontara en orden de ID, dos pagos se bloquearían en cruz
+        int carritos = 16;
+        List<Integer[]> pagos = new ArrayList<>();
+        for (int c = 0; c < carritos; c++) {
+            List<Productos> elegidos = new ArrayList<>();
+            for (int k = 0; k < 3; k++) {
+                elegidos.add(productos.get((c + k) % productos.size()));
+            }
+            if (c % 2 == 1) {
+                Collections.reverse(elegidos);
+            }
+            Usuarios usuario = crearUsuario();
+            pagos.add(new Integer[]{crearCarrito(usuario, elegidos).getId(), usuario.getId()});
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(carritos);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Venta>> resultados = new ArrayList<>();
+        for (Integer[] pago : pagos) {
+            resultados.add(pool.submit(() -> {
+                largada.await();
+                try {
+                    return ticketService.realizarPago(pago[0], pago[1]);
+                } catch (BadRequestException e) {
+                    // Sin stock: el pago se rechaza y se revierte entero
+                    return null;
+                }
+            }));
+        }
+        largada.countDown();
+
+        List<Venta> ventas = new ArrayList<>();
+        for (Future<Venta> resultado : resultados) {
+            // Cualquier otra excepción (deadlock, espera de bloqueo agotada) hace fallar el test
+            Venta venta = resultado.get(60, TimeUnit.SECONDS);
+            if (venta != null) {
+                ventas.add(venta);
+            }
+        }
+        pool.shutdown();
+
+        assertThat(ventas).isNotEmpty();
+        for (Productos producto : productos) {
+            long vendidas = ventas.stream()
+                    .flatMap(v -> productoTicketRepository.findByVenta_Id(v.getId()).stream())
+                    .filter(pt -> pt.getProducto().getId().equals(producto.getId()))
+                    .mapToInt(ProductoTicket::getCantidad)
+                    .sum();
+            Integer stock = jdbcTemplate.queryForObject(
+                    "SELECT stock FROM productos WHERE id = ?", Integer.class, producto.getId());
+            assertThat(stock).isGreaterThanOrEqualTo(0);
+            assertThat(vendidas + stock).isEqualTo(stockInicial);
+        }
+    }
+
+    @Test
+    void lasLineasConservanElPrecioCobradoAunqueCambieElProducto() {
+        Usuarios usuario = crearUsuario();
+        CarritoCompras carrito = crearCarrito(usuario, 2, 10);
+        String categoria = "categoria-" + UUID.randomUUID();
+        List<Integer> productoIds = productoCarritoRepository.findByCarritoIdConProductos(carrito.getId()).stream()
+                .map(pc -> pc.getProducto().getId())
+                .toList();
+        productoIds.forEach(id -> cambiarProducto(id, null, categoria));
+
+        // Precios 100 y 101; después del pago el primero sube a 150 y se agregan 2 unidades
+        Venta venta = ticketService.realizarPago(carrito.getId(), usuario.getId());
+        cambiarProducto(productoIds.get(0), 150.0, null);
+        ticketService.agregarProducto(venta.getId(), productoIds.get(0), 2);
+        cambiarProducto(productoIds.get(0), 1.0, "otra-categoria");
+
+        assertThat(productoTicketRepository.findByVenta_Id(venta.getId()))
+                .extracting(ProductoTicket::getPrecioUnitario, ProductoTicket::getSubtotal)
+                .containsExactlyInAnyOrder(tuple(100.0, 100.0), tuple(101.0, 101.0), tuple(150.0, 300.0));
+        assertThat(productoTicketRepository.sumarIngresosPorCategoria())
+                .filteredOn(ingreso -> categoria.equals(ingreso.categoria()))
+                .singleElement()
+                .isEqualTo(new IngresoCategoria(categoria, 4, 501.0));
+        assertThat(productoTicketRepository.sumarIngresosPorProducto(Limit.unlimited()))
+                .filteredOn(ingreso -> ingreso.productoId().equals(productoIds.get(0)))
+                .singleElement()
+                .isEqualTo(new IngresoProducto(productoIds.get(0), 3, 400.0));
+    }
+
+    @Test
+    void elHistorialDeUnUsuarioSePaginaDeLaVentaMasNuevaALaMasVieja() throws Exception {
+        Usuarios usuario = crearUsuario();
+        Usuarios otro = crearUsuario();
+        LocalDateTime base = LocalDateTime.of(2024, 5, 1, 12, 0);
+        List<Integer> esperadas = new ArrayList<>();
+        // Dos ventas por instante, para que el desempate por ID cruce de una página a otra
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 2; j++) {
+                esperadas.add(0, ticketService.create(venta(usuario, i % 2 == 0 ? "Pagado" : "Pendiente",
+                        base.plusDays(i))).getId());
+            }
+            ticketService.create(venta(otro, "Pagado", base.plusDays(i)));
+        }
+
+        List<Integer> leidas = new ArrayList<>();
+        String cursor = null;
+        do {
+            String actual = cursor;
+            PaginaCursor<VentaResumen> pagina = MedicionSentencias.conPresupuesto(1,
+                    () -> ticketService.historialUsuario(usuario.getId(), null, null, null, actual, 3));
+            pagina.items().forEach(v -> leidas.add(v.id()));
+            cursor = pagina.siguienteCursor();
+        } while (cursor != null);
+        assertThat(leidas).isEqualTo(esperadas);
+
+        PaginaCursor<VentaResumen> filtrada = ticketService.historialUsuario(usuario.getId(), "Pagado",
+                LocalDate.of(2024, 5, 2), LocalDate.of(2024, 5, 5), null, null);
+        assertThat(filtrada.items())
+                .extracting(VentaResumen::estado, v -> v.fechaCreacion().toLocalDate())
+                .containsExactly(
+                        tuple("Pagado", LocalDate.of(2024, 5, 5)), tuple("Pagado", LocalDate.of(2024, 5, 5)),
+                        tuple("Pagado", LocalDate.of(2024, 5, 3)), tuple("Pagado", LocalDate.of(2024, 5, 3)));
+        assertThat(filtrada.hayMas()).isFalse();
+
+        assertThatThrownBy(() -> ticketService.historialUsuario(-1, null, null, null, null, null))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> ticketService.historialUsuario(usuario.getId(), null, null, null, "no-es-un-cursor", null))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void soloLasVentasConfirmadasSumanAlRankingDeMasVendidos() {
+        Productos producto = new Productos();
+        producto.setNombre("Producto " + UUID.randomUUID());
+        producto.setPrecio(100);
+        producto.setStock(5);
+        Integer productoId = productosRepository.save(producto).getId();
+        Venta venta = ticketService.create(venta(crearUsuario(), "Pagado", LocalDateTime.now()));
+
+        ticketService.agregarProducto(venta.getId(), productoId, 3);
+        assertThatThrownBy(() -> ticketService.agregarProducto(venta.getId(), productoId, 10))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(masVendidosService.top("hora", 100))
+                .filteredOn(p -> p.productoId().equals(productoId))
+                .singleElement()
+                .satisfies(p -> assertThat(3L).isBetween(p.unidades() - p.error(), p.unidades()))
+                .extracting(ProductoMasVendido::nombre).isEqualTo(producto.getNombre());
+    }
+
+    private static Venta venta(Usuarios usuario, String estado, LocalDateTime fecha) {
+        Venta venta = new Venta();
+        venta.setDescripcion("Venta de prueba");
+        venta.setEstado(estado);
+        venta.setFechaCreacion(fecha);
+        venta.setUsuario(usuario);
+        return venta;
+    }
+
+    private void cambiarProducto(Integer id, Double precio, String categoria) {
+        Productos producto = productosRepository.findById(id).orElseThrow();
+        if (precio != null) {
+            producto.setPrecio(precio);
+        }
+        if (categoria != null) {
+            producto.setCategoria(categoria);
+        }
+        productosRepository.save(producto);
+    }
+
+    private Usuarios crearUsuario() {
+        Usuarios usuario = new Usuarios();
+        usuario.setEmail(UUID.randomUUID() + "@test.com");
+        usuario.setPasswordHash("secreto");
+        return usuariosRepository.save(usuario);
+    }
+
+    private Productos crearProducto(String nombre, int stock) {
+        Productos producto = new Productos();
+        producto.setNombre(nombre);
+        producto.setDescripcion("Producto de prueba");
+        producto.setPrecio(100);
+        producto.setStock(stock);
+        return productosRepository.save(producto);
+    }
+
+    private CarritoCompras crearCarrito(Usuarios usuario, List<Productos> productos) {
+        CarritoCompras carrito = new CarritoCompras();
+        carrito.setUsuario(usuario);
+        carrito = carritoRepository.save(carrito);
+
+        for (Productos producto : productos) {
+            ProductoCarrito pc = new ProductoCarrito();
+            pc.setCarrito(carrito);
+            pc.setProducto(producto);
+            pc.setCantidad(1);
+            productoCarritoRepository.save(pc);
+        }
+        return carrito;
+    }
+
+    private CarritoCompras crearCarrito(Usuarios usuario, int lineas, int stock) {
+        CarritoCompras carrito = new CarritoCompras();
+        carrito.setUsuario(usuario);
+        carrito = carritoRepository.save(carrito);
+
+        for (int i = 0; i < lineas; i++) {
+            Productos producto = new Productos();
+            producto.setNombre("Producto " + i);
+            producto.setDescripcion("Producto de prueba");
+            producto.setPrecio(100 + i);
+            producto.setStock(stock);
+            producto = productosRepository.save(producto);
+
+            ProductoCarrito pc = new ProductoCarrito();
+            pc.setCarrito(carrito);
+            pc.setProducto(producto);
+            pc.setCantidad(1);
+            productoCarritoRepository.save(pc);
+        }
+        return carrito;
+    }
+}